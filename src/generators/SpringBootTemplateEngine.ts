@@ -1,7 +1,7 @@
 import Handlebars from 'handlebars';
 import fs from 'fs-extra';
 import path from 'path';
-import { UMLParser, UMLDiagramData, UMLClass, UMLRelationship } from '../utils/umlParser';
+import { UMLParser, UMLDiagramData, UMLClass, UMLAttribute, UMLRelationship } from '../utils/umlParser';
 
 // Registrar helpers personalizados para Handlebars
 Handlebars.registerHelper('eq', function(a: any, b: any) {
@@ -20,6 +20,11 @@ Handlebars.registerHelper('uppercase', function(str: string) {
   return str.toUpperCase();
 });
 
+// Variable de ruta Spring ("{name}"), que no se puede escribir directamente junto a "{{"
+Handlebars.registerHelper('pathVar', function(name: string) {
+  return `{${name}}`;
+});
+
 export interface GenerationConfig {
   packageName?: string;
   projectName?: string;
@@ -64,7 +69,7 @@ export class SpringBootTemplateEngine {
 
     // Generar archivos para cada clase
     for (const umlClass of umlDiagram.classes) {
-      const classData = this.prepareClassData(umlClass, umlDiagram.relationships, defaultConfig);
+      const classData = this.prepareClassData(umlClass, umlDiagram.classes, umlDiagram.relationships, defaultConfig);
       
       // Generar entidad
       files.push(await this.generateEntity(classData, defaultConfig));
@@ -84,15 +89,18 @@ export class SpringBootTemplateEngine {
       // Generar controlador
       files.push(await this.generateController(classData, defaultConfig));
     }
+    files.push(await this.generateVersionETag(defaultConfig));
+    files.push(await this.generateJsonMergePatch(defaultConfig));
 
       // Generar archivos de configuración
       files.push(await this.generatePomXml(defaultConfig));
-      files.push(await this.generateApplicationProperties(defaultConfig));
+      files.push(await this.generateApplicationProperties(defaultConfig, umlDiagram.classes));
+      files.push(await this.generateSchemaMigration(umlDiagram.classes, umlDiagram.relationships, defaultConfig));
       files.push(await this.generateMainClass(defaultConfig));
 
       // Generar archivos de testing
       for (const umlClass of umlDiagram.classes) {
-        const classData = this.prepareClassData(umlClass, umlDiagram.relationships, defaultConfig);
+        const classData = this.prepareClassData(umlClass, umlDiagram.classes, umlDiagram.relationships, defaultConfig);
         files.push(await this.generateEntityTest(classData, defaultConfig));
         files.push(await this.generateServiceTest(classData, defaultConfig));
       }
@@ -103,6 +111,10 @@ export class SpringBootTemplateEngine {
       }
       
       files.push(await this.generateCacheConfig(defaultConfig));
+      files.push(await this.generateCacheProperties(defaultConfig));
+      if (umlDiagram.classes.some(umlClass => this.getCacheStrategy(umlClass))) {
+        files.push(await this.generateHibernateCacheConfig(defaultConfig));
+      }
       files.push(await this.generateGlobalExceptionHandler(defaultConfig));
 
       return files;
@@ -111,25 +123,13 @@ export class SpringBootTemplateEngine {
   /**
    * Prepara los datos de una clase para las plantillas
    */
-  private prepareClassData(umlClass: UMLClass, relationships: UMLRelationship[], config: GenerationConfig) {
-    const classRelationships = relationships.filter(rel => 
-      rel.sourceClassId === umlClass.id || rel.targetClassId === umlClass.id
-    );
-
-    const processedRelationships = classRelationships.map(rel => {
-      const isSource = rel.sourceClassId === umlClass.id;
-      const targetClassId = isSource ? rel.targetClassId : rel.sourceClassId;
-      
-      return {
-        ...rel,
-        targetClass: this.toPascalCase(this.findClassNameById(targetClassId, relationships)),
-        propertyName: this.toCamelCase(this.generatePropertyName(rel, umlClass.id)),
-        mappedBy: this.generateMappedBy(rel, umlClass.id),
-        joinColumn: this.generateJoinColumn(rel, umlClass.id),
-        joinTable: this.generateJoinTable(rel),
-        inverseJoinColumn: this.generateInverseJoinColumn(rel, umlClass.id)
-      };
-    });
+  private prepareClassData(umlClass: UMLClass, classes: UMLClass[], relationships: UMLRelationship[],
+                           config: GenerationConfig) {
+    // Asociaciones JPA vistas desde esta clase (la herencia no genera campos)
+    const processedRelationships = relationships
+      .filter(rel => rel.type !== 'inheritance')
+      .filter(rel => rel.sourceClassId === umlClass.id || rel.targetClassId === umlClass.id)
+      .map(rel => this.resolveAssociation(rel, umlClass, classes));
 
     // Asegurar que siempre haya un campo ID
     let attributes = [...umlClass.attributes];
@@ -145,9 +145,11 @@ export class SpringBootTemplateEngine {
       });
     }
 
+    const tableName = this.validateTableName(this.toSnakeCase(umlClass.name));
+
     return {
       className: umlClass.name,
-      tableName: this.validateTableName(this.toSnakeCase(umlClass.name)),
+      tableName,
       packageName: config.packageName,
       attributes: attributes.map(attr => ({
         ...attr,
@@ -161,11 +163,24 @@ export class SpringBootTemplateEngine {
         snakeCase: this.toSnakeCase(attr.name)
       })),
       relationships: processedRelationships,
+      associationImports: this.generateAssociationImports(processedRelationships),
+      // Campos del DTO (sin id), en el orden del constructor usado por las proyecciones JPQL
+      dtoFields: attributes
+        .filter(attr => attr.name.toLowerCase() !== 'id')
+        .map(attr => ({ name: attr.name, javaType: UMLParser.mapUMLTypeToJava(attr.type) })),
+      // Tipos de esos campos que necesitan import (parámetros de las escrituras del repositorio)
+      fieldTypeImports: this.generateFieldTypeImports(attributes),
       imports: this.generateImports(umlClass, processedRelationships),
       idField: attributes.find(attr => attr.name.toLowerCase() === 'id')?.name || 'id',
       idType: UMLParser.mapUMLTypeToJava(
         attributes.find(attr => attr.name.toLowerCase() === 'id')?.type || 'Long'
       ),
+      filterFields: this.generateFilterFields(attributes, tableName),
+      // Índices de @Table y de la migración
+      tableIndexes: this.generateTableIndexes(attributes, processedRelationships, classes, tableName),
+      // Cache de segundo nivel de Hibernate (null = entidad sin cache)
+      cacheStrategy: this.getCacheStrategy(umlClass),
+      cacheRegion: this.getCacheRegion(umlClass),
       hasUniqueConstraints: this.hasUniqueConstraints(attributes),
       uniqueConstraints: this.generateUniqueConstraints(attributes),
       repositoryName: `${this.toCamelCase(umlClass.name)}Repository`,
@@ -294,9 +309,17 @@ export class SpringBootTemplateEngine {
   /**
    * Genera application.properties
    */
-  private async generateApplicationProperties(config: GenerationConfig): Promise<GeneratedFile> {
+  private async generateApplicationProperties(config: GenerationConfig, classes: UMLClass[]): Promise<GeneratedFile> {
     const template = await this.loadTemplate('application.properties.hbs');
-    const content = template(config);
+    const content = template({
+      ...config,
+      // Nombres base de cache por entidad ("product" -> caches "product" y "products")
+      cacheEntities: classes.map(umlClass => umlClass.name.toLowerCase()),
+      // Regiones L2 de las entidades con cache de segundo nivel
+      cacheRegions: classes
+        .filter(umlClass => this.getCacheStrategy(umlClass))
+        .map(umlClass => this.getCacheRegion(umlClass))
+    });
     
     return {
       path: 'src/main/resources/application.properties',
@@ -304,6 +327,109 @@ export class SpringBootTemplateEngine {
     };
   }
 
+  /**
+   * Genera la migración inicial de Flyway desde el modelo UML: secuencias, tablas, claves
+   * foráneas, restricciones únicas e índices de las entidades que genera entity.hbs. Hibernate
+   * solo valida el esquema al arrancar (ddl-auto=validate)
+   */
+  private async generateSchemaMigration(classes: UMLClass[], relationships: UMLRelationship[],
+                                        config: GenerationConfig): Promise<GeneratedFile> {
+    const template = await this.loadTemplate('migration.sql.hbs');
+    const classData = classes.map(umlClass => this.prepareClassData(umlClass, classes, relationships, config));
+    const byClassName = new Map<string, any>(classData.map(data => [data.className, data] as [string, any]));
+    const sqlType = (javaType: string) => this.getSqlType(javaType, config.databaseType);
+    const idColumn = (data: any) => this.toSnakeCase(data.idField);
+
+    const tables = classData.map(data => {
+      // Claves foráneas de las que esta tabla es propietaria
+      const owned = data.relationships
+        .filter((rel: any) => rel.type === 'many-to-one' || (rel.type === 'one-to-one' && !rel.mappedBy))
+        .filter((rel: any) => byClassName.has(rel.targetClass));
+      return {
+        tableName: data.tableName,
+        sequence: `${data.tableName}_seq`,
+        idColumn: idColumn(data),
+        columns: [
+          ...data.attributes.map((attr: any) => ({
+            name: attr.snakeCase,
+            sqlType: sqlType(attr.javaType),
+            notNull: attr.name === data.idField || !attr.nullable
+          })),
+          // Las escrituras de una sola sentencia hacen version = version + 1: nunca null
+          { name: 'version', sqlType: 'bigint', notNull: true, defaultValue: '0' },
+          ...owned.map((rel: any) => ({
+            name: rel.joinColumn,
+            sqlType: sqlType(byClassName.get(rel.targetClass)!.idType),
+            notNull: false
+          }))
+        ],
+        uniqueConstraints: [
+          ...data.attributes.filter((attr: any) => attr.unique).map((attr: any) => attr.snakeCase),
+          ...owned.filter((rel: any) => rel.type === 'one-to-one').map((rel: any) => rel.joinColumn)
+        ].map(column => ({ name: `uk_${data.tableName}_${column}`, column })),
+        foreignKeys: owned.map((rel: any) => ({
+          tableName: data.tableName,
+          name: `fk_${data.tableName}_${this.toSnakeCase(rel.propertyName)}`,
+          column: rel.joinColumn,
+          referencedTable: byClassName.get(rel.targetClass)!.tableName,
+          referencedColumn: idColumn(byClassName.get(rel.targetClass)!)
+        })),
+        joinTables: data.relationships
+          .filter((rel: any) => rel.type === 'many-to-many' && !rel.mappedBy && byClassName.has(rel.targetClass))
+          .map((rel: any) => {
+            const target = byClassName.get(rel.targetClass)!;
+            return {
+              tableName: rel.joinTable,
+              joinColumn: rel.joinColumn,
+              joinColumnType: sqlType(data.idType),
+              inverseJoinColumn: rel.inverseJoinColumn,
+              inverseJoinColumnType: sqlType(target.idType),
+              foreignKeys: [
+                { tableName: rel.joinTable, name: `fk_${rel.joinTable}_${data.tableName}`, column: rel.joinColumn,
+                  referencedTable: data.tableName, referencedColumn: idColumn(data) },
+                { tableName: rel.joinTable, name: `fk_${rel.joinTable}_${target.tableName}`, column: rel.inverseJoinColumn,
+                  referencedTable: target.tableName, referencedColumn: idColumn(target) }
+              ]
+            };
+          }),
+        indexes: data.tableIndexes.map((index: any) => ({
+          tableName: data.tableName,
+          name: index.name,
+          column: index.columnList
+        }))
+      };
+    });
+    const joinTables = tables.flatMap(table => table.joinTables);
+    const content = template({
+      ...config,
+      tables,
+      joinTables,
+      foreignKeys: [...tables.flatMap(table => table.foreignKeys), ...joinTables.flatMap(table => table.foreignKeys)],
+      indexes: tables.flatMap(table => table.indexes)
+    });
+
+    return {
+      path: 'src/main/resources/db/migration/V1__create_schema.sql',
+      content
+    };
+  }
+
+  /**
+   * Tipo SQL de la columna que Hibernate espera para un tipo Java (ddl-auto=validate lo comprueba)
+   */
+  private getSqlType(javaType: string, databaseType?: string): string {
+    switch (javaType) {
+      case 'Long': return 'bigint';
+      case 'Integer': return 'integer';
+      case 'Double': return 'double precision';
+      case 'Float': return 'real';
+      case 'Boolean': return 'boolean';
+      case 'BigDecimal': return 'numeric(38,2)';
+      case 'LocalDateTime': return databaseType === 'mysql' ? 'datetime(6)' : 'timestamp(6)';
+      default: return 'varchar(255)';
+    }
+  }
+
   /**
    * Genera la clase principal de Spring Boot
    */
@@ -383,6 +509,32 @@ export class SpringBootTemplateEngine {
     };
   }
 
+  /**
+   * Genera la configuración del cache de segundo nivel de Hibernate (JCache/Caffeine)
+   */
+  private async generateHibernateCacheConfig(config: GenerationConfig): Promise<GeneratedFile> {
+    const template = await this.loadTemplate('HibernateCacheConfig.hbs');
+    const content = template(config);
+
+    return {
+      path: `src/main/java/${config.packageName?.replace(/\./g, '/')}/config/HibernateCacheConfig.java`,
+      content
+    };
+  }
+
+  /**
+   * Genera propiedades de configuración de cache
+   */
+  private async generateCacheProperties(config: GenerationConfig): Promise<GeneratedFile> {
+    const template = await this.loadTemplate('CacheProperties.hbs');
+    const content = template(config);
+    
+    return {
+      path: `src/main/java/${config.packageName?.replace(/\./g, '/')}/config/CacheProperties.java`,
+      content
+    };
+  }
+
   /**
    * Genera manejador global de excepciones
    */
@@ -396,6 +548,32 @@ export class SpringBootTemplateEngine {
     };
   }
 
+  /**
+   * Genera el helper de ETag/If-Match basado en @Version que usan los controladores
+   */
+  private async generateVersionETag(config: GenerationConfig): Promise<GeneratedFile> {
+    const template = await this.loadTemplate('VersionETag.hbs');
+    const content = template(config);
+
+    return {
+      path: `src/main/java/${config.packageName?.replace(/\./g, '/')}/controller/VersionETag.java`,
+      content
+    };
+  }
+
+  /**
+   * Genera el helper de JSON Merge Patch (RFC 7396) que usan los servicios en PATCH
+   */
+  private async generateJsonMergePatch(config: GenerationConfig): Promise<GeneratedFile> {
+    const template = await this.loadTemplate('JsonMergePatch.hbs');
+    const content = template(config);
+
+    return {
+      path: `src/main/java/${config.packageName?.replace(/\./g, '/')}/service/JsonMergePatch.java`,
+      content
+    };
+  }
+
   /**
    * Carga una plantilla Handlebars
    */
@@ -422,6 +600,10 @@ export class SpringBootTemplateEngine {
       imports.add('java.util.ArrayList');
       imports.add('java.util.List');
     }
+    if (relationships.some(rel => rel.batchSize)) {
+      imports.add('org.hibernate.annotations.BatchSize');
+    }
+    imports.add('org.hibernate.annotations.DynamicUpdate');
     
     // Verificar tipos específicos
     const hasDates = umlClass.attributes.some(attr => 
@@ -435,6 +617,22 @@ export class SpringBootTemplateEngine {
     return Array.from(imports);
   }
 
+  /**
+   * Imports de los tipos Java de los atributos que no están en java.lang
+   */
+  private generateFieldTypeImports(attributes: UMLAttribute[]): string[] {
+    const imports = new Set<string>();
+    for (const attr of attributes) {
+      const javaType = UMLParser.mapUMLTypeToJava(attr.type);
+      if (javaType === 'LocalDateTime') {
+        imports.add('java.time.LocalDateTime');
+      } else if (javaType === 'BigDecimal') {
+        imports.add('java.math.BigDecimal');
+      }
+    }
+    return Array.from(imports);
+  }
+
   /**
    * Genera imports específicos para tests
    */
@@ -507,70 +705,208 @@ export class SpringBootTemplateEngine {
   }
 
   /**
-   * Encuentra el nombre de clase por ID
+   * Columnas de estado o flags (status, active...) por las que se filtran listados.
+   * Cada una genera un índice en @Table y una consulta derivada paginada en repositorio,
+   * servicio y controlador, en lugar de recorrer la tabla con findAll().
    */
-  private findClassNameById(classId: string, relationships: UMLRelationship[]): string {
-    // Esta función debería recibir todas las clases, pero por simplicidad
-    // asumimos que el ID contiene el nombre de la clase
-    return classId.replace(/_001$/, '');
+  private generateFilterFields(attributes: any[], tableName: string): any[] {
+    const filterNames = ['status', 'state', 'type', 'role', 'active', 'enabled'];
+    return attributes
+      .filter(attr => attr.name.toLowerCase() !== 'id')
+      .filter(attr => filterNames.includes(attr.name.toLowerCase())
+        || UMLParser.mapUMLTypeToJava(attr.type) === 'Boolean')
+      .map(attr => ({
+        name: attr.name,
+        javaType: UMLParser.mapUMLTypeToJava(attr.type),
+        column: this.toSnakeCase(attr.name),
+        indexName: `idx_${tableName}_${this.toSnakeCase(attr.name)}`,
+        path: this.toKebabCase(attr.name)
+      }));
   }
 
   /**
-   * Genera nombre de propiedad para relaciones
+   * Índices de una tabla: uno por columna de filtro, uno compuesto (clave, id) por clave de orden
+   * de los listados (paginación keyset: WHERE (clave, id) > (?, ?) ORDER BY clave, id) y uno por
+   * columna de unión de cada clave foránea, que ni la base de datos ni Hibernate crean solos.
    */
-  private generatePropertyName(relationship: UMLRelationship, classId: string): string {
-    if (relationship.name) {
-      return relationship.name;
-    }
-    
-    const targetClass = this.findClassNameById(
-      relationship.sourceClassId === classId ? relationship.targetClassId : relationship.sourceClassId,
-      []
-    );
-    
-    return this.toCamelCase(targetClass);
+  private generateTableIndexes(attributes: any[], relationships: any[], classes: UMLClass[], tableName: string): any[] {
+    const idColumn = this.toSnakeCase(attributes.find(attr => attr.name.toLowerCase() === 'id')?.name || 'id');
+    const sortNames = ['name', 'title', 'price', 'total', 'subtotal', 'amount', 'rating'];
+    const sortKeys = attributes
+      .filter(attr => attr.name.toLowerCase() !== 'id' && attr.isRequired)
+      .filter(attr => !['email', 'username', 'code'].includes(attr.name))
+      .filter(attr => ['LocalDateTime', 'LocalDate'].includes(UMLParser.mapUMLTypeToJava(attr.type))
+        || sortNames.includes(attr.name.toLowerCase()))
+      .map(attr => this.toSnakeCase(attr.name));
+    const joinColumns = relationships
+      .filter((rel: any) => rel.type === 'many-to-one')
+      .filter((rel: any) => classes.some(umlClass => umlClass.name === rel.targetClass))
+      .map((rel: any) => rel.joinColumn);
+    return [
+      ...this.generateFilterFields(attributes, tableName)
+        .map(field => ({ name: field.indexName, columnList: field.column })),
+      ...sortKeys.map(column => ({ name: `idx_${tableName}_${column}_${idColumn}`, columnList: `${column}, ${idColumn}` })),
+      ...joinColumns.map((column: string) => ({ name: `idx_${tableName}_${column}`, columnList: column }))
+    ];
   }
 
   /**
-   * Genera mappedBy para relaciones
+   * Estrategia de concurrencia del cache de segundo nivel para entidades de referencia, muy
+   * leídas y poco escritas. Se toma del estereotipo UML («readonly», «reference», «cached») o,
+   * sin estereotipo, del nombre de la clase. null si la entidad no se cachea.
    */
-  private generateMappedBy(relationship: UMLRelationship, classId: string): string {
-    if (relationship.type === 'one-to-many') {
-      const sourceClass = this.findClassNameById(classId, []);
-      return this.toCamelCase(sourceClass);
+  private getCacheStrategy(umlClass: UMLClass): string | null {
+    const stereotype = umlClass.stereotype?.toLowerCase();
+    if (stereotype === 'readonly' || stereotype === 'immutable') {
+      return 'READ_ONLY';
+    }
+    if (stereotype === 'reference') {
+      return 'NONSTRICT_READ_WRITE';
+    }
+    if (stereotype === 'cached' || stereotype === 'catalog') {
+      return 'READ_WRITE';
+    }
+    const name = umlClass.name.toLowerCase();
+    if (['category', 'country', 'currency', 'brand', 'tag'].includes(name)) {
+      return 'NONSTRICT_READ_WRITE';
     }
-    return '';
+    // Catálogo con stock y precio: sin lecturas obsoletas tras una escritura
+    if (name === 'product') {
+      return 'READ_WRITE';
+    }
+    return null;
+  }
+
+  private getCacheRegion(umlClass: UMLClass): string {
+    return `${this.toCamelCase(umlClass.name)}Entity`;
   }
 
   /**
-   * Genera nombre de columna de join
+   * Encuentra el nombre de clase por ID
    */
-  private generateJoinColumn(relationship: UMLRelationship, classId: string): string {
-    const targetClass = this.findClassNameById(
-      relationship.sourceClassId === classId ? relationship.targetClassId : relationship.sourceClassId,
-      []
-    );
-    return `${this.toSnakeCase(targetClass)}_id`;
+  private findClassNameById(classId: string, classes: UMLClass[]): string {
+    const umlClass = classes.find(candidate => candidate.id === classId);
+    // Sin la clase en el diagrama, se asume que el ID contiene el nombre de la clase
+    return umlClass ? umlClass.name : classId.replace(/_001$/, '');
   }
 
   /**
-   * Genera nombre de tabla de join para many-to-many
+   * Traduce una relación UML a la asociación JPA vista desde umlClass.
+   *
+   * La multiplicidad se invierte en el extremo destino. El lado N de una 1:N (y el origen de
+   * una 1:1 o N:M) es el propietario de la clave foránea; el otro lado usa mappedBy. Todas las
+   * asociaciones son LAZY: cada una tiene un grafo con nombre para cargarla en la misma consulta
+   * y las colecciones se inicializan por lotes (@BatchSize).
    */
-  private generateJoinTable(relationship: UMLRelationship): string {
-    const sourceClass = this.findClassNameById(relationship.sourceClassId, []);
-    const targetClass = this.findClassNameById(relationship.targetClassId, []);
-    return `${this.toSnakeCase(sourceClass)}_${this.toSnakeCase(targetClass)}`;
+  private resolveAssociation(rel: UMLRelationship, umlClass: UMLClass, classes: UMLClass[]) {
+    const isSource = rel.sourceClassId === umlClass.id;
+    const otherClassId = isSource ? rel.targetClassId : rel.sourceClassId;
+    const targetClass = this.toPascalCase(this.findClassNameById(otherClassId, classes));
+    const sourceKind = this.getAssociationKind(rel);
+    const type = isSource ? sourceKind : this.invertAssociationKind(sourceKind);
+    const collection = type === 'one-to-many' || type === 'many-to-many';
+    const owning = type === 'many-to-one' || (isSource && (type === 'one-to-one' || type === 'many-to-many'));
+    const propertyName = this.generatePropertyName(rel, isSource, otherClassId, classes, collection);
+    const ownerCollection = type === 'many-to-many';
+
+    return {
+      ...rel,
+      type,
+      targetClass,
+      propertyName,
+      javaType: collection ? `List<${targetClass}>` : targetClass,
+      collection,
+      // Propiedad del lado propietario que mantiene la clave foránea
+      mappedBy: owning ? '' : this.generatePropertyName(rel, !isSource, umlClass.id, classes, ownerCollection),
+      joinColumn: type === 'many-to-many'
+        ? `${this.toSnakeCase(umlClass.name)}_id`
+        : `${this.toSnakeCase(propertyName)}_id`,
+      joinTable: `${this.toSnakeCase(umlClass.name)}_${this.toSnakeCase(targetClass)}`,
+      inverseJoinColumn: `${this.toSnakeCase(targetClass)}_id`,
+      // Composición: las partes se guardan y eliminan con el todo
+      cascadeAll: rel.type === 'composition' && isSource && collection,
+      batchSize: collection ? 50 : null,
+      entityGraph: `${umlClass.name}.${propertyName}`
+    };
   }
 
   /**
-   * Genera nombre de columna inversa para many-to-many
+   * Multiplicidad de la relación vista desde la clase origen
    */
-  private generateInverseJoinColumn(relationship: UMLRelationship, classId: string): string {
-    const targetClass = this.findClassNameById(
-      relationship.sourceClassId === classId ? relationship.targetClassId : relationship.sourceClassId,
-      []
-    );
-    return `${this.toSnakeCase(targetClass)}_id`;
+  private getAssociationKind(rel: UMLRelationship): string {
+    if (['one-to-one', 'one-to-many', 'many-to-one', 'many-to-many'].includes(rel.type)) {
+      return rel.type;
+    }
+    switch (rel.cardinality) {
+      case '1:1': return 'one-to-one';
+      case '1:N': return 'one-to-many';
+      case 'N:1': return 'many-to-one';
+      case 'N:M': return 'many-to-many';
+    }
+    // Composición y agregación: el origen es el todo y contiene varias partes
+    return rel.type === 'composition' || rel.type === 'aggregation' ? 'one-to-many' : 'many-to-one';
+  }
+
+  private invertAssociationKind(kind: string): string {
+    if (kind === 'one-to-many') {
+      return 'many-to-one';
+    }
+    if (kind === 'many-to-one') {
+      return 'one-to-many';
+    }
+    return kind;
+  }
+
+  /**
+   * Genera nombre de propiedad para relaciones: el nombre de la relación en el extremo origen
+   * o, si no, el de la otra clase (en plural para las colecciones)
+   */
+  private generatePropertyName(relationship: UMLRelationship, isSource: boolean, otherClassId: string,
+                               classes: UMLClass[], collection: boolean): string {
+    if (isSource && relationship.name) {
+      return this.toCamelCase(relationship.name);
+    }
+    const name = this.toCamelCase(this.findClassNameById(otherClassId, classes));
+    return collection ? `${name}s` : name;
+  }
+
+  /**
+   * Imports de las anotaciones de asociación que usa entity.hbs
+   */
+  private generateAssociationImports(relationships: any[]): string[] {
+    const imports = new Set<string>();
+    for (const rel of relationships) {
+      imports.add('jakarta.persistence.FetchType');
+      imports.add('jakarta.persistence.NamedAttributeNode');
+      imports.add('jakarta.persistence.NamedEntityGraph');
+      switch (rel.type) {
+        case 'many-to-one':
+          imports.add('jakarta.persistence.ManyToOne');
+          imports.add('jakarta.persistence.JoinColumn');
+          break;
+        case 'one-to-one':
+          imports.add('jakarta.persistence.OneToOne');
+          imports.add('jakarta.persistence.JoinColumn');
+          break;
+        case 'one-to-many':
+          imports.add('jakarta.persistence.OneToMany');
+          break;
+        case 'many-to-many':
+          imports.add('jakarta.persistence.ManyToMany');
+          imports.add('jakarta.persistence.JoinColumn');
+          imports.add('jakarta.persistence.JoinTable');
+          break;
+      }
+      if (rel.cascadeAll) {
+        imports.add('jakarta.persistence.CascadeType');
+      }
+      if (rel.collection) {
+        imports.add('org.hibernate.annotations.BatchSize');
+        imports.add('java.util.ArrayList');
+        imports.add('java.util.List');
+      }
+    }
+    return Array.from(imports).sort();
   }
 
   /**
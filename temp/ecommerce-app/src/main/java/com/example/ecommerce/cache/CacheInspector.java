@@ -0,0 +1,209 @@
+package com.example.ecommerce.cache;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.util.PatternMatchUtils;
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Estadísticas, tamaño estimado y claves de todos los caches de la aplicación
+ * (los del CacheManager y los refresh-ahead), independientemente de su implementación.
+ */
+public class CacheInspector {
+
+    /** Valores serializados para estimar los bytes de un cache en el heap */
+    private static final int SIZE_SAMPLE = 16;
+
+    /** Vigencia de la estimación que publica el gauge; serializar la muestra en cada scrape es caro */
+    private static final Duration ESTIMATE_TTL = Duration.ofMinutes(5);
+
+    private final CacheManager cacheManager;
+    private final RefreshAheadCacheFactory refreshAheadCaches;
+    private final HotKeyTracker hotKeyTracker;
+    private final SerializingConverter serializer = new SerializingConverter();
+    private final ConcurrentMap<String, Estimate> estimates = new ConcurrentHashMap<>();
+
+    public CacheInspector(CacheManager cacheManager, RefreshAheadCacheFactory refreshAheadCaches,
+                          HotKeyTracker hotKeyTracker) {
+        this.cacheManager = cacheManager;
+        this.refreshAheadCaches = refreshAheadCaches;
+        this.hotKeyTracker = hotKeyTracker;
+    }
+
+    public Map<String, Cache> caches() {
+        Map<String, Cache> caches = new LinkedHashMap<>();
+        cacheManager.getCacheNames().forEach(name -> caches.put(name, cacheManager.getCache(name)));
+        refreshAheadCaches.getCaches().forEach(cache ->
+                caches.put(cache.getName(), cache.asSpringCache()));
+        return caches;
+    }
+
+    public Cache getCache(String name) {
+        for (RefreshAheadCache<?, ?> cache : refreshAheadCaches.getCaches()) {
+            if (cache.getName().equals(name)) {
+                return cache.asSpringCache();
+            }
+        }
+        return cacheManager.getCacheNames().contains(name) ? cacheManager.getCache(name) : null;
+    }
+
+    /**
+     * Resumen de un cache; en los caches de dos niveles las cifras son las de su L1.
+     */
+    public CacheSummary summary(Cache cache, int hotKeys) {
+        return new CacheSummary(cache.getName(), local(cache).getClass().getSimpleName(), size(cache), hitRatio(cache),
+                evictions(cache), estimatedBytes(cache), hotKeyTracker.topCounts(cache.getName(), hotKeys));
+    }
+
+    /**
+     * Elimina las claves cuya forma textual cumple un patrón simple ("*", "user:*", "*@example.com").
+     *
+     * @return número de claves eliminadas
+     */
+    public int evictMatching(Cache cache, String pattern) {
+        int evicted = 0;
+        for (Object key : keys(cache)) {
+            if (PatternMatchUtils.simpleMatch(pattern, String.valueOf(key))) {
+                cache.evict(key);
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    public Set<Object> keys(Cache cache) {
+        Set<Object> keys = new LinkedHashSet<>();
+        if (cache instanceof TwoTierCache twoTier) {
+            keys.addAll(keys(twoTier.getLocal()));
+            keys.addAll(keys(twoTier.getShared()));
+        } else if (cache instanceof OffHeapCache offHeap) {
+            keys.addAll(offHeap.keys());
+        } else if (cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+            keys.addAll(caffeine.asMap().keySet());
+        } else if (cache.getNativeCache() instanceof Map<?, ?> map) {
+            // ConcurrentMapCache y el IMap de Hazelcast
+            keys.addAll(map.keySet());
+        }
+        return keys;
+    }
+
+    public long size(Cache cache) {
+        cache = local(cache);
+        if (cache instanceof OffHeapCache offHeap) {
+            return offHeap.size();
+        }
+        if (cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+            return caffeine.estimatedSize();
+        }
+        if (cache.getNativeCache() instanceof Map<?, ?> map) {
+            return map.size();
+        }
+        return -1;
+    }
+
+    /**
+     * Proporción de aciertos desde el arranque, o NaN si el cache no lleva estadísticas o no ha recibido lecturas.
+     */
+    public double hitRatio(Cache cache) {
+        cache = local(cache);
+        long hits;
+        long misses;
+        if (cache instanceof OffHeapCache offHeap) {
+            hits = offHeap.getHitCount();
+            misses = offHeap.getMissCount();
+        } else if (cache instanceof CaffeineCache caffeine) {
+            CacheStats stats = caffeine.getNativeCache().stats();
+            hits = stats.hitCount();
+            misses = stats.missCount();
+        } else {
+            return Double.NaN;
+        }
+        return hits + misses == 0 ? Double.NaN : (double) hits / (hits + misses);
+    }
+
+    public long evictions(Cache cache) {
+        cache = local(cache);
+        if (cache instanceof OffHeapCache offHeap) {
+            return offHeap.getEvictionCount();
+        }
+        if (cache instanceof CaffeineCache caffeine) {
+            return caffeine.getNativeCache().stats().evictionCount();
+        }
+        return -1;
+    }
+
+    /**
+     * Bytes ocupados por los valores: exactos en los caches off-heap y, en el resto, estimados
+     * a partir del tamaño serializado de una muestra de valores.
+     */
+    public long estimatedBytes(Cache cache) {
+        cache = local(cache);
+        if (cache instanceof OffHeapCache offHeap) {
+            return offHeap.getUsedBytes();
+        }
+        Map<?, ?> entries;
+        if (cache instanceof CaffeineCache caffeine) {
+            entries = caffeine.getNativeCache().asMap();
+        } else if (cache instanceof ConcurrentMapCache concurrentMap) {
+            entries = concurrentMap.getNativeCache();
+        } else {
+            return -1;
+        }
+        List<Object> sample = new ArrayList<>(SIZE_SAMPLE);
+        for (Object value : entries.values()) {
+            if (sample.size() == SIZE_SAMPLE) {
+                break;
+            }
+            if (value instanceof Serializable) {
+                sample.add(value);
+            }
+        }
+        if (sample.isEmpty()) {
+            return 0;
+        }
+        long sampleBytes = 0;
+        for (Object value : sample) {
+            sampleBytes += serializer.convert(value).length;
+        }
+        return sampleBytes * entries.size() / sample.size();
+    }
+
+    /**
+     * Como {@link #estimatedBytes(Cache)}, pero reutiliza la última estimación de cada cache
+     * durante {@link #ESTIMATE_TTL}. Los caches off-heap se leen siempre, porque su cifra es exacta.
+     */
+    public long recentEstimatedBytes(Cache cache) {
+        if (local(cache) instanceof OffHeapCache offHeap) {
+            return offHeap.getUsedBytes();
+        }
+        long now = System.nanoTime();
+        return estimates.compute(cache.getName(), (name, estimate) ->
+                estimate != null && now - estimate.computedAt() < ESTIMATE_TTL.toNanos()
+                        ? estimate
+                        : new Estimate(estimatedBytes(cache), now)).bytes();
+    }
+
+    private static Cache local(Cache cache) {
+        return cache instanceof TwoTierCache twoTier ? twoTier.getLocal() : cache;
+    }
+
+    private record Estimate(long bytes, long computedAt) {
+    }
+
+    public record CacheSummary(String name, String type, long size, double hitRatio, long evictions,
+                               long estimatedBytes, Map<String, Long> hotKeys) {
+    }
+}
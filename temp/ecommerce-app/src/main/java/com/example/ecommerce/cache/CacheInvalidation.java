@@ -0,0 +1,13 @@
+package com.example.ecommerce.cache;
+
+import java.io.Serializable;
+
+/**
+ * Mensaje de invalidación entre instancias. Una clave nula indica vaciar el cache completo.
+ */
+public record CacheInvalidation(String origin, String cacheName, Object key) implements Serializable {
+
+    public boolean isClear() {
+        return key == null;
+    }
+}
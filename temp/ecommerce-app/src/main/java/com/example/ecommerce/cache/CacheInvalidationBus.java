@@ -0,0 +1,13 @@
+package com.example.ecommerce.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Canal de difusión de invalidaciones de cache entre las réplicas de la aplicación.
+ */
+public interface CacheInvalidationBus {
+
+    void publish(CacheInvalidation invalidation);
+
+    void subscribe(Consumer<CacheInvalidation> listener);
+}
@@ -0,0 +1,54 @@
+package com.example.ecommerce.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Precarga los caches registrados con sus claves más pedidas, por lotes y dentro de
+ * un presupuesto de tiempo.
+ */
+public class CacheWarmer {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheWarmer.class);
+
+    private final HotKeyTracker hotKeyTracker;
+    private final List<CacheWarmupSource> sources = new CopyOnWriteArrayList<>();
+
+    public CacheWarmer(HotKeyTracker hotKeyTracker) {
+        this.hotKeyTracker = hotKeyTracker;
+    }
+
+    public void register(CacheWarmupSource source) {
+        sources.add(source);
+    }
+
+    /**
+     * @return número total de entradas cargadas
+     */
+    public int warm(int topN, int batchSize, Duration timeBudget) {
+        long deadline = System.nanoTime() + timeBudget.toNanos();
+        int total = 0;
+        for (CacheWarmupSource source : sources) {
+            List<String> keys = hotKeyTracker.topKeys(source.getCacheName(), topN);
+            int loaded = 0;
+            for (int from = 0; from < keys.size(); from += batchSize) {
+                if (System.nanoTime() - deadline > 0) {
+                    logger.warn("Cache warm-up time budget of {} exhausted at cache '{}'", timeBudget, source.getCacheName());
+                    return total + loaded;
+                }
+                try {
+                    loaded += source.warm(keys.subList(from, Math.min(from + batchSize, keys.size())));
+                } catch (RuntimeException e) {
+                    logger.warn("Cache warm-up of '{}' failed: {}", source.getCacheName(), e.getMessage());
+                    break;
+                }
+            }
+            logger.info("Warmed cache '{}' with {} of {} hot keys", source.getCacheName(), loaded, keys.size());
+            total += loaded;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.ecommerce.cache;
+
+import java.util.List;
+
+/**
+ * Cache que puede precargarse a partir de sus claves más pedidas.
+ */
+public interface CacheWarmupSource {
+
+    /**
+     * Cache cuyas claves más pedidas se precargan (normalmente el propio cache).
+     */
+    String getCacheName();
+
+    /**
+     * Carga en el cache un lote de claves (en su forma textual) con una sola consulta.
+     *
+     * @return número de entradas cargadas
+     */
+    int warm(List<String> keys);
+}
@@ -0,0 +1,62 @@
+package com.example.ecommerce.cache;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.cache.Cache;
+import org.springframework.lang.Nullable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Endpoint de inspección de caches: tamaño, aciertos, expulsiones, bytes estimados y claves más
+ * pedidas de cada cache, y expulsión de claves por patrón. Las claves de los caches de usuarios son
+ * emails y nombres de usuario, así que solo se expone por JMX, no por HTTP; la expulsión además
+ * está desactivada salvo con app.cache.evict-by-pattern=true.
+ */
+@Endpoint(id = "cachesdetail")
+public class CachesDetailEndpoint {
+
+    private static final int DEFAULT_HOT_KEYS = 20;
+
+    private final CacheInspector cacheInspector;
+    private final boolean evictEnabled;
+
+    public CachesDetailEndpoint(CacheInspector cacheInspector, boolean evictEnabled) {
+        this.cacheInspector = cacheInspector;
+        this.evictEnabled = evictEnabled;
+    }
+
+    @ReadOperation
+    public Map<String, CacheInspector.CacheSummary> caches(@Nullable Integer hotKeys) {
+        Map<String, CacheInspector.CacheSummary> summaries = new LinkedHashMap<>();
+        cacheInspector.caches().forEach((name, cache) ->
+                summaries.put(name, cacheInspector.summary(cache, hotKeys != null ? hotKeys : DEFAULT_HOT_KEYS)));
+        return summaries;
+    }
+
+    @ReadOperation
+    public CacheInspector.CacheSummary cache(@Selector String name, @Nullable Integer hotKeys) {
+        Cache cache = cacheInspector.getCache(name);
+        return cache == null ? null : cacheInspector.summary(cache, hotKeys != null ? hotKeys : DEFAULT_HOT_KEYS);
+    }
+
+    /**
+     * Expulsa las claves de un cache que cumplen el patrón ("*" vacía el cache).
+     *
+     * @throws IllegalStateException si la expulsión no está habilitada
+     */
+    @DeleteOperation
+    public Map<String, Object> evict(@Selector String name, String pattern) {
+        if (!evictEnabled) {
+            throw new IllegalStateException("Evict by pattern is disabled (app.cache.evict-by-pattern)");
+        }
+        Cache cache = cacheInspector.getCache(name);
+        if (cache == null) {
+            return null;
+        }
+        int evicted = cacheInspector.evictMatching(cache, pattern);
+        return Map.of("cache", name, "pattern", pattern, "evicted", evicted);
+    }
+}
@@ -0,0 +1,355 @@
+package com.example.ecommerce.cache;
+
+import com.example.ecommerce.datasource.ReadWriteRoutingDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Mantiene por clave los caches de un recurso: el cache de elementos ("product", clave id)
+ * y el cache de listado ("products", clave 'all').
+ *
+ * En lugar de vaciar ambos caches en cada escritura, coloca el DTO nuevo bajo su id y
+ * actualiza la lista cacheada de forma incremental. Dentro de una transacción los cambios
+ * se aplican tras el commit, para no publicar datos que luego se deshacen. Como en
+ * {@link JsonBytesCache}, un contador de generación evita que una carga iniciada antes de una
+ * escritura guarde después de ella la fila que leyó, ya obsoleta.
+ * Las cargas leen del primario aunque haya réplicas: una réplica atrasada volvería a
+ * guardar la fila que una escritura acaba de invalidar.
+ * Los ids que no existen se recuerdan en un cache negativo de TTL corto. Con un MeterRegistry,
+ * el tiempo de cada carga desde la base de datos se publica en cache.loader.duration.
+ */
+public class DtoCache<ID, D> {
+
+    public static final String ALL_KEY = "all";
+
+    private final Cache itemCache;
+    private final Cache listCache;
+    private final boolean sharedList;
+    private final Function<D, ID> idExtractor;
+    private final HotKeyTracker hotKeyTracker;
+    private final NegativeCache<ID> missing;
+    private volatile JsonBytesCache<ID> renderedJson;
+    private final Object lock = new Object();
+    private long generation;
+    private final SingleFlight<ID, Optional<D>> loads = new SingleFlight<>();
+    private final SingleFlight<String, List<D>> listLoads = new SingleFlight<>();
+    private final Timer itemLoadTimer;
+    private final Timer missingLoadTimer;
+    private final Timer listLoadTimer;
+
+    public DtoCache(CacheManager cacheManager, String itemCacheName, String listCacheName, Function<D, ID> idExtractor) {
+        this(cacheManager, null, itemCacheName, listCacheName, idExtractor);
+    }
+
+    public DtoCache(CacheManager cacheManager, HotKeyTracker hotKeyTracker, String itemCacheName, String listCacheName,
+                    Function<D, ID> idExtractor) {
+        this(cacheManager, hotKeyTracker, null, itemCacheName, listCacheName, idExtractor);
+    }
+
+    public DtoCache(CacheManager cacheManager, HotKeyTracker hotKeyTracker, MeterRegistry meterRegistry,
+                    String itemCacheName, String listCacheName, Function<D, ID> idExtractor) {
+        this.itemCache = Objects.requireNonNull(cacheManager.getCache(itemCacheName), itemCacheName);
+        this.listCache = Objects.requireNonNull(cacheManager.getCache(listCacheName), listCacheName);
+        this.sharedList = listCache instanceof TwoTierCache;
+        this.idExtractor = idExtractor;
+        this.hotKeyTracker = hotKeyTracker;
+        this.missing = new NegativeCache<>(cacheManager, itemCacheName);
+        this.itemLoadTimer = loadTimer(meterRegistry, itemCacheName, "found");
+        this.missingLoadTimer = loadTimer(meterRegistry, itemCacheName, "missing");
+        this.listLoadTimer = loadTimer(meterRegistry, listCacheName, "found");
+    }
+
+    /**
+     * Los caches de Caffeine ya publican cache.load.duration, pero las cargas de DtoCache no pasan
+     * por su loader (se colocan con put), así que se miden aparte.
+     */
+    private static Timer loadTimer(MeterRegistry meterRegistry, String cacheName, String result) {
+        if (meterRegistry == null) {
+            return null;
+        }
+        return Timer.builder("cache.loader.duration")
+                .tag("cache", cacheName)
+                .tag("result", result)
+                .description("Time spent loading cache misses from the database")
+                .register(meterRegistry);
+    }
+
+    public Cache getItemCache() {
+        return itemCache;
+    }
+
+    public Cache getListCache() {
+        return listCache;
+    }
+
+    public Cache getMissingCache() {
+        return missing.getCache();
+    }
+
+    /**
+     * Asocia un cache de JSON serializado que se invalida con cada escritura de este recurso.
+     */
+    public void setRenderedJson(JsonBytesCache<ID> renderedJson) {
+        this.renderedJson = renderedJson;
+    }
+
+    /**
+     * Lee la lista completa del cache de listado, cargándola si no está.
+     */
+    @SuppressWarnings("unchecked")
+    public List<D> findAll(Supplier<List<D>> loader) {
+        List<D> cached = listCache.get(ALL_KEY, List.class);
+        if (cached != null) {
+            return cached;
+        }
+        return listLoads.load(ALL_KEY, () -> {
+            List<D> loadedMeanwhile = listCache.get(ALL_KEY, List.class);
+            if (loadedMeanwhile != null) {
+                return loadedMeanwhile;
+            }
+            long started = currentGeneration();
+            long start = System.nanoTime();
+            List<D> loaded = ReadWriteRoutingDataSource.onPrimary(loader);
+            record(listLoadTimer, start);
+            storeIfUnchanged(started, () -> listCache.put(ALL_KEY, loaded));
+            return loaded;
+        });
+    }
+
+    /**
+     * Lee un elemento del cache; ante un fallo, una sola carga por clave llega a la base
+     * de datos y los hilos concurrentes comparten su resultado.
+     */
+    public Optional<D> findById(ID id, Supplier<Optional<D>> loader) {
+        if (hotKeyTracker != null) {
+            hotKeyTracker.record(itemCache.getName(), id);
+        }
+        Optional<D> cached = getCached(id);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        if (missing.isMissing(id)) {
+            return Optional.empty();
+        }
+        return loads.load(id, () -> {
+            Optional<D> loadedMeanwhile = getCached(id);
+            if (loadedMeanwhile.isPresent()) {
+                return loadedMeanwhile;
+            }
+            long started = currentGeneration();
+            long start = System.nanoTime();
+            Optional<D> loaded = ReadWriteRoutingDataSource.onPrimary(loader);
+            record(loaded.isPresent() ? itemLoadTimer : missingLoadTimer, start);
+            storeIfUnchanged(started, () -> {
+                if (loaded.isPresent()) {
+                    itemCache.put(id, loaded.get());
+                } else {
+                    missing.markMissing(id);
+                }
+            });
+            return loaded;
+        });
+    }
+
+    private static void record(Timer timer, long start) {
+        if (timer != null) {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Comprueba si existe un elemento sin consultar la base de datos cuando el id está en
+     * el cache de elementos o en el negativo.
+     */
+    public boolean exists(ID id, BooleanSupplier query) {
+        if (getCached(id).isPresent()) {
+            return true;
+        }
+        if (missing.isMissing(id)) {
+            return false;
+        }
+        long started = currentGeneration();
+        boolean exists = ReadWriteRoutingDataSource.onPrimary(query::getAsBoolean);
+        if (!exists) {
+            storeIfUnchanged(started, () -> missing.markMissing(id));
+        }
+        return exists;
+    }
+
+    /**
+     * Fuente de precarga del cache de elementos: carga cada lote de ids con una consulta.
+     */
+    public CacheWarmupSource warmupSource(Function<String, ID> keyParser, Function<List<ID>, List<D>> batchLoader) {
+        return new CacheWarmupSource() {
+            @Override
+            public String getCacheName() {
+                return itemCache.getName();
+            }
+
+            @Override
+            public int warm(List<String> keys) {
+                long started = currentGeneration();
+                List<D> loaded = ReadWriteRoutingDataSource.onPrimary(
+                        () -> batchLoader.apply(keys.stream().map(keyParser).toList()));
+                storeIfUnchanged(started, () -> loaded.forEach(dto -> itemCache.putIfAbsent(idExtractor.apply(dto), dto)));
+                return loaded.size();
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private Optional<D> getCached(ID id) {
+        Cache.ValueWrapper wrapper = itemCache.get(id);
+        return wrapper == null ? Optional.empty() : Optional.ofNullable((D) wrapper.get());
+    }
+
+    /**
+     * Registra un DTO creado o actualizado.
+     */
+    public void put(D dto) {
+        putAll(List.of(dto));
+    }
+
+    /**
+     * Registra un lote de DTO creados o actualizados; la lista cacheada se reescribe una sola vez.
+     */
+    public void putAll(Collection<D> dtos) {
+        Map<ID, D> byId = new LinkedHashMap<>();
+        dtos.forEach(dto -> byId.put(idExtractor.apply(dto), dto));
+        missing.invalidateAll(byId.keySet());
+        afterWriteCommit(() -> {
+            byId.forEach(itemCache::put);
+            updateList(list -> {
+                Map<ID, D> pending = new LinkedHashMap<>(byId);
+                for (int i = 0; i < list.size(); i++) {
+                    D replacement = pending.remove(idExtractor.apply(list.get(i)));
+                    if (replacement != null) {
+                        list.set(i, replacement);
+                    }
+                }
+                list.addAll(pending.values());
+            });
+            invalidateRenderedJson(byId.keySet());
+        });
+    }
+
+    /**
+     * Registra la eliminación de un elemento.
+     */
+    public void evict(ID id) {
+        evictAll(List.of(id));
+    }
+
+    /**
+     * Registra la eliminación de un lote de elementos.
+     */
+    public void evictAll(Collection<ID> ids) {
+        Set<ID> batch = Set.copyOf(ids);
+        afterWriteCommit(() -> {
+            batch.forEach(itemCache::evict);
+            updateList(list -> list.removeIf(dto -> batch.contains(idExtractor.apply(dto))));
+            invalidateRenderedJson(batch);
+        });
+    }
+
+    /**
+     * Descarta elementos modificados sin pasar por el DTO (p. ej. un UPDATE directo) y la lista.
+     * Con escrituras concurrentes sobre la misma fila los commits pueden terminar en otro orden,
+     * así que no se coloca ningún valor: la siguiente lectura lo carga de la base de datos.
+     */
+    public void invalidate(Collection<ID> ids) {
+        Set<ID> batch = Set.copyOf(ids);
+        afterWriteCommit(() -> {
+            batch.forEach(itemCache::evict);
+            listCache.evict(ALL_KEY);
+            invalidateRenderedJson(batch);
+        });
+    }
+
+    private void invalidateRenderedJson(Collection<ID> ids) {
+        JsonBytesCache<ID> json = renderedJson;
+        if (json != null) {
+            json.invalidate(ids);
+        }
+    }
+
+    /**
+     * Reemplaza la lista cacheada por una copia modificada. Si la lista no está cacheada
+     * no hay nada que mantener: la siguiente lectura la cargará completa.
+     *
+     * Con el cache de dos niveles la lista vive en Hazelcast y la escriben todos los nodos; el
+     * lock de esta clase solo ordena los de esta JVM, y dos nodos que leen, modifican y escriben
+     * a la vez perderían uno de los cambios. Ahí la lista se descarta en lugar de mantenerse.
+     */
+    private void updateList(Consumer<List<D>> change) {
+        if (sharedList) {
+            listCache.evict(ALL_KEY);
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<D> current = listCache.get(ALL_KEY, List.class);
+        if (current == null) {
+            return;
+        }
+        List<D> updated = new ArrayList<>(current);
+        change.accept(updated);
+        listCache.put(ALL_KEY, List.copyOf(updated));
+    }
+
+    /**
+     * Aplica una escritura tras el commit y abre una generación nueva: las cargas en curso,
+     * que pueden haber leído la fila anterior, ya no guardan su resultado.
+     */
+    private void afterWriteCommit(Runnable write) {
+        afterCommit(() -> {
+            synchronized (lock) {
+                generation++;
+                write.run();
+            }
+        });
+    }
+
+    private long currentGeneration() {
+        synchronized (lock) {
+            return generation;
+        }
+    }
+
+    private void storeIfUnchanged(long started, Runnable store) {
+        synchronized (lock) {
+            if (generation == started) {
+                store.run();
+            }
+        }
+    }
+
+    static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.ecommerce.cache;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.topic.ITopic;
+import java.util.function.Consumer;
+
+/**
+ * Difunde invalidaciones mediante un ITopic de Hazelcast.
+ */
+public class HazelcastCacheInvalidationBus implements CacheInvalidationBus {
+
+    private final ITopic<CacheInvalidation> topic;
+
+    public HazelcastCacheInvalidationBus(HazelcastInstance hazelcastInstance, String topicName) {
+        this.topic = hazelcastInstance.getTopic(topicName);
+    }
+
+    @Override
+    public void publish(CacheInvalidation invalidation) {
+        topic.publish(invalidation);
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidation> listener) {
+        topic.addMessageListener(message -> listener.accept(message.getMessageObject()));
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.ecommerce.cache;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Historial de claves más pedidas en la tabla cache_hot_key, compartida por todas las réplicas:
+ * sobrevive a los contenedores efímeros y a los despliegues sin volumen.
+ *
+ * Cada guardado sustituye, en una transacción, las filas de los caches que escribe: con varias
+ * réplicas el historial de un cache es el de la última que lo guardó.
+ */
+public class HotKeyHistoryStore {
+
+    private static final String SELECT_SQL = "select cache_name, cache_key, hits from cache_hot_key";
+    private static final String DELETE_SQL = "delete from cache_hot_key where cache_name = ?";
+    private static final String INSERT_SQL = "insert into cache_hot_key (cache_name, cache_key, hits) values (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public HotKeyHistoryStore(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public Map<String, Map<String, Long>> load() {
+        Map<String, Map<String, Long>> history = new LinkedHashMap<>();
+        jdbcTemplate.query(SELECT_SQL, rs -> {
+            history.computeIfAbsent(rs.getString("cache_name"), name -> new LinkedHashMap<>())
+                    .put(rs.getString("cache_key"), rs.getLong("hits"));
+        });
+        return history;
+    }
+
+    public void save(Map<String, Map<String, Long>> history) {
+        List<Object[]> rows = new ArrayList<>();
+        history.forEach((cacheName, counts) -> counts.forEach((key, hits) -> rows.add(new Object[]{cacheName, key, hits})));
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(DELETE_SQL, history.keySet().stream().map(name -> new Object[]{name}).toList());
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        });
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.ecommerce.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cuenta los accesos por clave de cada cache para conocer las claves más pedidas.
+ *
+ * El número de claves seguidas por cache está acotado; Caffeine conserva las más
+ * frecuentes. El historial se guarda (HotKeyHistoryStore) para precargar los caches tras un
+ * despliegue; los caches privados, cuyas claves son datos personales como emails, solo se
+ * cuentan en memoria y no entran en el historial.
+ */
+public class HotKeyTracker {
+
+    private final long capacityPerCache;
+    private final Set<String> privateCaches;
+    private final ConcurrentMap<String, Cache<String, LongAdder>> counters = new ConcurrentHashMap<>();
+
+    public HotKeyTracker(long capacityPerCache) {
+        this(capacityPerCache, Set.of());
+    }
+
+    public HotKeyTracker(long capacityPerCache, Set<String> privateCaches) {
+        this.capacityPerCache = capacityPerCache;
+        this.privateCaches = Set.copyOf(privateCaches);
+    }
+
+    public void record(String cacheName, Object key) {
+        counter(cacheName, String.valueOf(key)).increment();
+    }
+
+    /**
+     * Claves más accedidas de un cache, de mayor a menor número de accesos.
+     */
+    public List<String> topKeys(String cacheName, int limit) {
+        return topCounts(cacheName, limit).keySet().stream().toList();
+    }
+
+    public Map<String, Long> topCounts(String cacheName, int limit) {
+        Cache<String, LongAdder> cacheCounters = counters.get(cacheName);
+        Map<String, Long> top = new LinkedHashMap<>();
+        if (cacheCounters == null) {
+            return top;
+        }
+        cacheCounters.asMap().entrySet().stream()
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue().sum()))
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(limit)
+                .forEach(entry -> top.put(entry.getKey(), entry.getValue()));
+        return top;
+    }
+
+    /**
+     * Claves más accedidas de cada cache que se puede guardar, para el historial.
+     */
+    public Map<String, Map<String, Long>> history(int limitPerCache) {
+        Map<String, Map<String, Long>> history = new LinkedHashMap<>();
+        counters.keySet().stream()
+                .filter(cacheName -> !privateCaches.contains(cacheName))
+                .forEach(cacheName -> history.put(cacheName, topCounts(cacheName, limitPerCache)));
+        return history;
+    }
+
+    /**
+     * Suma un historial guardado. Los recuentos se reducen a la mitad para que el tráfico
+     * de la ejecución actual pese más que el de las anteriores.
+     */
+    public void merge(Map<String, Map<String, Long>> history) {
+        history.forEach((cacheName, counts) -> {
+            if (!privateCaches.contains(cacheName)) {
+                counts.forEach((key, count) -> counter(cacheName, key).add(Math.max(1, count / 2)));
+            }
+        });
+    }
+
+    private LongAdder counter(String cacheName, String key) {
+        return counters
+                .computeIfAbsent(cacheName, name -> Caffeine.newBuilder().maximumSize(capacityPerCache).build())
+                .get(key, k -> new LongAdder());
+    }
+}
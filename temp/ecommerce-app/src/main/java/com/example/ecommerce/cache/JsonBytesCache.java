@@ -0,0 +1,110 @@
+package com.example.ecommerce.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Guarda el JSON ya serializado (UTF-8) de los DTO de un recurso, para que los endpoints de
+ * lectura escriban los bytes directamente en la respuesta sin pasar por Jackson.
+ *
+ * Se invalida junto con el {@link DtoCache} del recurso. Un contador de generación evita que
+ * un render iniciado antes de una invalidación guarde bytes obsoletos después de ella.
+ * Cada elemento guarda también la versión del DTO serializado, para que el ETag de la
+ * respuesta corresponda siempre a los bytes enviados. Deshabilitado, serializa en cada
+ * llamada sin cachear.
+ */
+public class JsonBytesCache<ID> {
+
+    private final Cache itemCache;
+    private final Cache listCache;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Object lock = new Object();
+    private long generation;
+
+    public JsonBytesCache(CacheManager cacheManager, String itemCacheName, String listCacheName,
+                          ObjectMapper objectMapper, boolean enabled) {
+        this.itemCache = Objects.requireNonNull(cacheManager.getCache(itemCacheName), itemCacheName);
+        this.listCache = Objects.requireNonNull(cacheManager.getCache(listCacheName), listCacheName);
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+    }
+
+    /**
+     * JSON de un elemento y la versión (@Version) del DTO del que se generó.
+     */
+    public record Rendered(byte[] json, Long version) implements Serializable {
+    }
+
+    public <D> Optional<Rendered> getItem(ID id, Supplier<Optional<D>> source, Function<D, Long> versionExtractor) {
+        if (enabled) {
+            Rendered cached = itemCache.get(id, Rendered.class);
+            if (cached != null) {
+                return Optional.of(cached);
+            }
+        }
+        long started = currentGeneration();
+        Optional<Rendered> rendered = source.get().map(dto -> new Rendered(render(dto), versionExtractor.apply(dto)));
+        rendered.ifPresent(item -> store(itemCache, id, item, started));
+        return rendered;
+    }
+
+    public byte[] getList(Supplier<? extends List<?>> source) {
+        if (enabled) {
+            byte[] cached = listCache.get(DtoCache.ALL_KEY, byte[].class);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        long started = currentGeneration();
+        byte[] rendered = render(source.get());
+        store(listCache, DtoCache.ALL_KEY, rendered, started);
+        return rendered;
+    }
+
+    /**
+     * Descarta el JSON de los elementos indicados y el de la lista.
+     */
+    void invalidate(Collection<ID> ids) {
+        synchronized (lock) {
+            generation++;
+            ids.forEach(itemCache::evict);
+            listCache.evict(DtoCache.ALL_KEY);
+        }
+    }
+
+    private long currentGeneration() {
+        synchronized (lock) {
+            return generation;
+        }
+    }
+
+    private void store(Cache cache, Object key, Object value, long started) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (lock) {
+            if (generation == started) {
+                cache.put(key, value);
+            }
+        }
+    }
+
+    private byte[] render(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
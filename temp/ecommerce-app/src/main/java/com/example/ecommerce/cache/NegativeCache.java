@@ -0,0 +1,50 @@
+package com.example.ecommerce.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Recuerda durante poco tiempo las claves que no existen en la base de datos, para que
+ * las consultas repetidas de ids o emails inexistentes no lleguen a la base de datos.
+ *
+ * Cada instancia usa un cache propio ("productMissing", "userByEmailMissing"...) con el
+ * tamaño y TTL de app.cache.negative.
+ */
+public class NegativeCache<K> {
+
+    public static final String SUFFIX = "Missing";
+
+    private final Cache cache;
+
+    public NegativeCache(CacheManager cacheManager, String cacheName) {
+        String name = cacheName + SUFFIX;
+        this.cache = Objects.requireNonNull(cacheManager.getCache(name), name);
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public boolean isMissing(K key) {
+        return cache.get(key) != null;
+    }
+
+    public void markMissing(K key) {
+        cache.put(key, Boolean.TRUE);
+    }
+
+    /**
+     * Olvida una clave al crearse la entidad, tras el commit de la transacción en curso.
+     */
+    public void invalidate(K key) {
+        invalidateAll(List.of(key));
+    }
+
+    public void invalidateAll(Collection<K> keys) {
+        List<K> batch = List.copyOf(keys);
+        DtoCache.afterCommit(() -> batch.forEach(cache::evict));
+    }
+}
@@ -0,0 +1,324 @@
+package com.example.ecommerce.cache;
+
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializingConverter;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache que guarda los valores serializados en memoria directa (fuera del heap).
+ *
+ * La memoria se reserva una única vez y se reparte en segmentos, cada uno con su zona de
+ * memoria, sus bloques de tamaño fijo, su índice clave → bloques y su propio lock: las lecturas
+ * y escrituras de claves de segmentos distintos no se bloquean entre sí. Cada entrada ocupa los
+ * bloques necesarios para sus bytes dentro del segmento de su clave. Cuando un segmento no tiene
+ * bloques libres o llega a su parte de maximumSize expulsa sus entradas usadas menos
+ * recientemente (LRU por segmento, no global). Las entradas caducadas (expireAfterWrite) se
+ * descartan al leerlas.
+ */
+public class OffHeapCache extends AbstractValueAdaptingCache {
+
+    public static final int DEFAULT_BLOCK_SIZE = 256;
+    public static final long UNBOUNDED = Long.MAX_VALUE;
+    private static final int CONCURRENCY = 16;
+    // Por debajo, un segmento se llenaría con pocas entradas y el LRU por segmento perdería sentido
+    private static final int MIN_BLOCKS_PER_SEGMENT = 64;
+    private static final long NO_EXPIRY = -1;
+
+    private final String name;
+    private final int blockSize;
+    private final long expireAfterWriteNanos;
+    private final Segment[] segments;
+    private final SerializingConverter serializer = new SerializingConverter();
+    private final DeserializingConverter deserializer = new DeserializingConverter();
+
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder putCount = new LongAdder();
+
+    public OffHeapCache(String name, long capacityBytes, Duration expireAfterWrite) {
+        this(name, capacityBytes, UNBOUNDED, DEFAULT_BLOCK_SIZE, expireAfterWrite, true);
+    }
+
+    public OffHeapCache(String name, long capacityBytes, long maximumSize, Duration expireAfterWrite) {
+        this(name, capacityBytes, maximumSize, DEFAULT_BLOCK_SIZE, expireAfterWrite, true);
+    }
+
+    /**
+     * @param capacityBytes memoria directa total; se reparte entre segmentos de hasta 2GB cada uno
+     * @param maximumSize   número máximo de entradas, o {@link #UNBOUNDED}
+     */
+    public OffHeapCache(String name, long capacityBytes, long maximumSize, int blockSize, Duration expireAfterWrite,
+                        boolean allowNullValues) {
+        super(allowNullValues);
+        long blocks = capacityBytes / blockSize;
+        if (blocks < 1) {
+            throw new IllegalArgumentException("Off-heap cache '" + name + "' capacity is smaller than one block");
+        }
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Off-heap cache '" + name + "' maximum size must be positive");
+        }
+        int segmentCount = segmentCount(blocks, blockSize);
+        int blocksPerSegment = (int) (blocks / segmentCount);
+        long maxEntriesPerSegment = maximumSize == UNBOUNDED ? UNBOUNDED : Math.max(1, maximumSize / segmentCount);
+        this.name = name;
+        this.blockSize = blockSize;
+        this.expireAfterWriteNanos = expireAfterWrite != null ? expireAfterWrite.toNanos() : NO_EXPIRY;
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(blocksPerSegment, maxEntriesPerSegment);
+        }
+    }
+
+    /**
+     * Potencia de dos: hasta CONCURRENCY segmentos si hay bloques para ello, y los necesarios
+     * para que ninguno pase de 2GB (límite de un ByteBuffer).
+     */
+    private static int segmentCount(long blocks, int blockSize) {
+        long maxBlocksPerSegment = Integer.MAX_VALUE / blockSize;
+        long count = Long.highestOneBit(Math.max(1, Math.min(CONCURRENCY, blocks / MIN_BLOCKS_PER_SEGMENT)));
+        while (blocks / count > maxBlocksPerSegment) {
+            count <<= 1;
+        }
+        return Math.toIntExact(count);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        List<ByteBuffer> arenas = new ArrayList<>(segments.length);
+        for (Segment segment : segments) {
+            arenas.add(segment.arena.asReadOnlyBuffer());
+        }
+        return List.copyOf(arenas);
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        byte[] bytes = segmentFor(key).read(key);
+        if (bytes == null) {
+            missCount.increment();
+            return null;
+        }
+        hitCount.increment();
+        return deserializer.convert(bytes);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        putCount.increment();
+        byte[] bytes = serializer.convert(toStoreValue(value));
+        segmentFor(key).write(key, bytes);
+    }
+
+    @Override
+    public void evict(Object key) {
+        segmentFor(key).remove(key);
+    }
+
+    @Override
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * Bytes de valores serializados almacenados actualmente.
+     */
+    public long getUsedBytes() {
+        long used = 0;
+        for (Segment segment : segments) {
+            used += segment.usedBytes();
+        }
+        return used;
+    }
+
+    /**
+     * Bytes de memoria directa ocupados, incluyendo el relleno del último bloque de cada entrada.
+     */
+    public long getAllocatedBytes() {
+        long allocated = 0;
+        for (Segment segment : segments) {
+            allocated += segment.allocatedBlocks();
+        }
+        return allocated * blockSize;
+    }
+
+    public long getCapacityBytes() {
+        return (long) segments.length * segments[0].freeBlocks.length * blockSize;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getPutCount() {
+        return putCount.sum();
+    }
+
+    /**
+     * Copia de las claves almacenadas (sin comprobar su caducidad).
+     */
+    public List<Object> keys() {
+        List<Object> keys = new ArrayList<>();
+        for (Segment segment : segments) {
+            keys.addAll(segment.keys());
+        }
+        return keys;
+    }
+
+    private Segment segmentFor(Object key) {
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+    }
+
+    private final class Segment {
+
+        private final ByteBuffer arena;
+        private final int[] freeBlocks;
+        private final long maxEntries;
+        private final LinkedHashMap<Object, Slot> index = new LinkedHashMap<>(16, 0.75f, true);
+        private int freeCount;
+        private long usedBytes;
+
+        Segment(int blocks, long maxEntries) {
+            this.arena = ByteBuffer.allocateDirect(blocks * blockSize);
+            this.freeBlocks = new int[blocks];
+            for (int i = 0; i < blocks; i++) {
+                freeBlocks[i] = blocks - 1 - i;
+            }
+            this.freeCount = blocks;
+            this.maxEntries = maxEntries;
+        }
+
+        synchronized byte[] read(Object key) {
+            Slot slot = index.get(key);
+            if (slot == null) {
+                return null;
+            }
+            if (expireAfterWriteNanos != NO_EXPIRY && System.nanoTime() - slot.expiresAt > 0) {
+                release(index.remove(key));
+                return null;
+            }
+            byte[] bytes = new byte[slot.length];
+            for (int i = 0; i < slot.blocks.length; i++) {
+                int offset = i * blockSize;
+                arena.get(slot.blocks[i] * blockSize, bytes, offset, Math.min(blockSize, slot.length - offset));
+            }
+            return bytes;
+        }
+
+        synchronized void write(Object key, byte[] bytes) {
+            int needed = Math.max(1, (bytes.length + blockSize - 1) / blockSize);
+            release(index.remove(key));
+            if (needed > freeBlocks.length) {
+                // Más grande que todo el segmento: no se guarda
+                return;
+            }
+            while (freeCount < needed || index.size() >= maxEntries) {
+                evictEldest();
+            }
+            int[] blocks = new int[needed];
+            for (int i = 0; i < needed; i++) {
+                blocks[i] = freeBlocks[--freeCount];
+                int offset = i * blockSize;
+                arena.put(blocks[i] * blockSize, bytes, offset, Math.min(blockSize, bytes.length - offset));
+            }
+            index.put(key, new Slot(blocks, bytes.length, System.nanoTime() + expireAfterWriteNanos));
+            usedBytes += bytes.length;
+        }
+
+        synchronized void remove(Object key) {
+            release(index.remove(key));
+        }
+
+        synchronized void clear() {
+            index.values().forEach(this::release);
+            index.clear();
+        }
+
+        synchronized int size() {
+            return index.size();
+        }
+
+        synchronized long usedBytes() {
+            return usedBytes;
+        }
+
+        synchronized int allocatedBlocks() {
+            return freeBlocks.length - freeCount;
+        }
+
+        synchronized List<Object> keys() {
+            return List.copyOf(index.keySet());
+        }
+
+        private void evictEldest() {
+            Iterator<Map.Entry<Object, Slot>> eldest = index.entrySet().iterator();
+            Slot slot = eldest.next().getValue();
+            eldest.remove();
+            release(slot);
+            evictionCount.increment();
+        }
+
+        private void release(Slot slot) {
+            if (slot == null) {
+                return;
+            }
+            for (int block : slot.blocks) {
+                freeBlocks[freeCount++] = block;
+            }
+            usedBytes -= slot.length;
+        }
+    }
+
+    private record Slot(int[] blocks, int length, long expiresAt) {
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.ecommerce.cache;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+/**
+ * Métricas Micrometer de un {@link OffHeapCache}: las comunes de cache más la memoria directa usada.
+ */
+public class OffHeapCacheMetrics extends CacheMeterBinder<OffHeapCache> {
+
+    public OffHeapCacheMetrics(OffHeapCache cache, Iterable<Tag> tags) {
+        super(cache, cache.getName(), tags);
+    }
+
+    @Override
+    protected Long size() {
+        OffHeapCache cache = getCache();
+        return cache == null ? null : (long) cache.size();
+    }
+
+    @Override
+    protected long hitCount() {
+        OffHeapCache cache = getCache();
+        return cache == null ? 0 : cache.getHitCount();
+    }
+
+    @Override
+    protected Long missCount() {
+        OffHeapCache cache = getCache();
+        return cache == null ? null : cache.getMissCount();
+    }
+
+    @Override
+    protected Long evictionCount() {
+        OffHeapCache cache = getCache();
+        return cache == null ? null : cache.getEvictionCount();
+    }
+
+    @Override
+    protected long putCount() {
+        OffHeapCache cache = getCache();
+        return cache == null ? 0 : cache.getPutCount();
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        Gauge.builder("cache.offheap.used", getCache(), OffHeapCache::getUsedBytes)
+                .tags(getTagsWithCacheName())
+                .description("Bytes of serialized values stored in direct memory")
+                .baseUnit(BaseUnits.BYTES)
+                .register(registry);
+        Gauge.builder("cache.offheap.allocated", getCache(), OffHeapCache::getAllocatedBytes)
+                .tags(getTagsWithCacheName())
+                .description("Direct memory blocks in use, including padding")
+                .baseUnit(BaseUnits.BYTES)
+                .register(registry);
+        Gauge.builder("cache.offheap.capacity", getCache(), OffHeapCache::getCapacityBytes)
+                .tags(getTagsWithCacheName())
+                .description("Direct memory reserved by the cache")
+                .baseUnit(BaseUnits.BYTES)
+                .register(registry);
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.ecommerce.cache;
+
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Cache de lectura con recarga anticipada (refresh-ahead).
+ *
+ * Las entradas que superan refreshAfterWrite se recargan de forma asíncrona en el pool de
+ * refresco la primera vez que se leen; mientras tanto se sigue sirviendo el valor actual.
+ * Solo una entrada ya caducada (expireAfterWrite) o ausente se carga en el hilo de la petición.
+ */
+public class RefreshAheadCache<K, V> {
+
+    private final String name;
+    private final LoadingCache<K, V> cache;
+    private final HotKeyTracker hotKeyTracker;
+
+    public RefreshAheadCache(String name, LoadingCache<K, V> cache, HotKeyTracker hotKeyTracker) {
+        this.name = name;
+        this.cache = cache;
+        this.hotKeyTracker = hotKeyTracker;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LoadingCache<K, V> getNativeCache() {
+        return cache;
+    }
+
+    /**
+     * Vista como Cache de Spring, para métricas e inspección.
+     */
+    @SuppressWarnings("unchecked")
+    public Cache asSpringCache() {
+        return new CaffeineCache(name, (com.github.benmanes.caffeine.cache.Cache<Object, Object>) cache, false);
+    }
+
+    /**
+     * Lee una entrada; el loader devuelve null cuando la clave no existe y entonces no se cachea.
+     */
+    public Optional<V> get(K key) {
+        if (hotKeyTracker != null) {
+            hotKeyTracker.record(name, key);
+        }
+        return Optional.ofNullable(cache.get(key));
+    }
+
+    /**
+     * Lee una entrada solo si ya está cacheada, sin cargarla.
+     */
+    public Optional<V> getIfPresent(K key) {
+        return Optional.ofNullable(cache.getIfPresent(key));
+    }
+
+    /**
+     * Sustituye una entrada tras el commit de la transacción en curso.
+     */
+    public void put(K key, V value) {
+        DtoCache.afterCommit(() -> cache.put(key, value));
+    }
+
+    /**
+     * Elimina una entrada tras el commit de la transacción en curso.
+     */
+    public void evict(K key) {
+        DtoCache.afterCommit(() -> cache.invalidate(key));
+    }
+
+    public CacheWarmupSource warmupSource(Function<String, K> keyParser, Function<List<K>, Map<K, V>> batchLoader) {
+        return warmupSourceFrom(name, keys -> batchLoader.apply(keys.stream().map(keyParser).toList()));
+    }
+
+    /**
+     * Precarga a partir de las claves más pedidas de otro cache, p. ej. los ids de "user" para
+     * un cache por email cuyas claves no se guardan en el historial. El loader devuelve las
+     * entradas ya indexadas por la clave de este cache.
+     */
+    public CacheWarmupSource warmupSourceFrom(String hotKeysCacheName, Function<List<String>, Map<K, V>> batchLoader) {
+        return new CacheWarmupSource() {
+            @Override
+            public String getCacheName() {
+                return hotKeysCacheName;
+            }
+
+            @Override
+            public int warm(List<String> keys) {
+                Map<K, V> loaded = batchLoader.apply(keys);
+                cache.putAll(loaded);
+                return loaded.size();
+            }
+        };
+    }
+}
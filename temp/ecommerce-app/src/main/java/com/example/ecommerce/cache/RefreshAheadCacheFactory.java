@@ -0,0 +1,53 @@
+package com.example.ecommerce.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+
+/**
+ * Crea los caches refresh-ahead con la configuración de su nombre y el pool de refresco compartido.
+ * Al cerrarse detiene el pool.
+ */
+public class RefreshAheadCacheFactory implements AutoCloseable {
+
+    private final Function<String, Caffeine<Object, Object>> builders;
+    private final Function<String, Duration> refreshIntervals;
+    private final ExecutorService refreshExecutor;
+    private final HotKeyTracker hotKeyTracker;
+    private final List<RefreshAheadCache<?, ?>> caches = new CopyOnWriteArrayList<>();
+
+    public RefreshAheadCacheFactory(Function<String, Caffeine<Object, Object>> builders,
+                                    Function<String, Duration> refreshIntervals,
+                                    ExecutorService refreshExecutor, HotKeyTracker hotKeyTracker) {
+        this.builders = builders;
+        this.refreshIntervals = refreshIntervals;
+        this.refreshExecutor = refreshExecutor;
+        this.hotKeyTracker = hotKeyTracker;
+    }
+
+    public <K, V> RefreshAheadCache<K, V> create(String name, Function<K, V> loader) {
+        Duration refreshAfterWrite = Objects.requireNonNull(refreshIntervals.apply(name),
+                () -> "app.cache.specs." + name + ".refresh-after-write is not set");
+        RefreshAheadCache<K, V> cache = new RefreshAheadCache<>(name,
+                builders.apply(name)
+                        .refreshAfterWrite(refreshAfterWrite)
+                        .executor(refreshExecutor)
+                        .build(loader::apply),
+                hotKeyTracker);
+        caches.add(cache);
+        return cache;
+    }
+
+    public List<RefreshAheadCache<?, ?>> getCaches() {
+        return List.copyOf(caches);
+    }
+
+    @Override
+    public void close() {
+        refreshExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.ecommerce.cache;
+
+import org.springframework.cache.Cache;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache de dos niveles creado por {@link TwoTierCacheManager}.
+ *
+ * Un valor leído de L2 solo se copia en L1 si ninguna invalidación (de otra réplica o de una
+ * escritura local) llegó entre la lectura y la copia: la época se toma antes de leer L2 y se
+ * comprueba después de guardar en L1. Si cambió, la copia se descarta, porque la invalidación
+ * pudo borrar L1 antes de que se guardara un valor ya obsoleto.
+ */
+public class TwoTierCache implements Cache {
+
+    private final String name;
+    private final Cache local;
+    private final Cache shared;
+    private final TwoTierCacheManager cacheManager;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    TwoTierCache(String name, Cache local, Cache shared, TwoTierCacheManager cacheManager) {
+        this.name = name;
+        this.local = local;
+        this.shared = shared;
+        this.cacheManager = cacheManager;
+    }
+
+    public Cache getLocal() {
+        return local;
+    }
+
+    public Cache getShared() {
+        return shared;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return shared.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper value = local.get(key);
+        if (value != null) {
+            return value;
+        }
+        long epoch = invalidations.get();
+        value = shared.get(key);
+        if (value != null) {
+            fillLocal(key, value.get(), epoch);
+        }
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper value = get(key);
+        if (value == null || value.get() == null) {
+            return null;
+        }
+        if (type != null && !type.isInstance(value.get())) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value.get());
+        }
+        return (T) value.get();
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper value = local.get(key);
+        if (value != null) {
+            @SuppressWarnings("unchecked")
+            T cached = (T) value.get();
+            return cached;
+        }
+        long epoch = invalidations.get();
+        T loaded = shared.get(key, valueLoader);
+        fillLocal(key, loaded, epoch);
+        return loaded;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        invalidations.incrementAndGet();
+        shared.put(key, value);
+        local.put(key, value);
+        cacheManager.publishInvalidation(name, key);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        long epoch = invalidations.get();
+        ValueWrapper existing = shared.putIfAbsent(key, value);
+        if (existing != null) {
+            fillLocal(key, existing.get(), epoch);
+            return existing;
+        }
+        invalidations.incrementAndGet();
+        local.put(key, value);
+        cacheManager.publishInvalidation(name, key);
+        return null;
+    }
+
+    @Override
+    public void evict(Object key) {
+        shared.evict(key);
+        evictLocal(key);
+        cacheManager.publishInvalidation(name, key);
+    }
+
+    @Override
+    public void clear() {
+        shared.clear();
+        clearLocal();
+        cacheManager.publishInvalidation(name, null);
+    }
+
+    /**
+     * Descarta la copia L1 de una clave; la época cambia antes de borrar para que una copia
+     * desde L2 en curso se descarte también.
+     */
+    void evictLocal(Object key) {
+        invalidations.incrementAndGet();
+        local.evict(key);
+    }
+
+    void clearLocal() {
+        invalidations.incrementAndGet();
+        local.clear();
+    }
+
+    private void fillLocal(Object key, Object value, long epoch) {
+        if (invalidations.get() != epoch) {
+            return;
+        }
+        local.put(key, value);
+        if (invalidations.get() != epoch) {
+            local.evict(key);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.ecommerce.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * CacheManager de dos niveles: un L1 en proceso delante de un L2 compartido entre réplicas.
+ *
+ * Las escrituras actualizan ambos niveles y publican una invalidación para que el resto de
+ * instancias descarten su copia L1; la siguiente lectura en esas instancias se sirve desde L2.
+ */
+public class TwoTierCacheManager implements CacheManager {
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final CacheManager localCacheManager;
+    private final CacheManager sharedCacheManager;
+    private final CacheInvalidationBus invalidationBus;
+    private final ConcurrentMap<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+
+    public TwoTierCacheManager(CacheManager localCacheManager, CacheManager sharedCacheManager,
+                               CacheInvalidationBus invalidationBus) {
+        this.localCacheManager = localCacheManager;
+        this.sharedCacheManager = sharedCacheManager;
+        this.invalidationBus = invalidationBus;
+        invalidationBus.subscribe(this::onInvalidation);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, cacheName -> {
+            Cache local = localCacheManager.getCache(cacheName);
+            Cache shared = sharedCacheManager.getCache(cacheName);
+            if (local == null || shared == null) {
+                return null;
+            }
+            return new TwoTierCache(cacheName, local, shared, this);
+        });
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    void publishInvalidation(String cacheName, Object key) {
+        invalidationBus.publish(new CacheInvalidation(nodeId, cacheName, key));
+    }
+
+    private void onInvalidation(CacheInvalidation invalidation) {
+        if (nodeId.equals(invalidation.origin())) {
+            return;
+        }
+        TwoTierCache cache = caches.get(invalidation.cacheName());
+        if (cache == null) {
+            return;
+        }
+        if (invalidation.isClear()) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(invalidation.key());
+        }
+    }
+}
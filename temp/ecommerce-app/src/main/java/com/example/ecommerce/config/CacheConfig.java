@@ -1,30 +1,106 @@
-package com.example.ecommerce.config;
-
-import org.springframework.cache.CacheManager;
-import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
-import org.springframework.context.annotation.Primary;
-import java.util.Arrays;
-
-@Configuration
-@EnableCaching
-public class CacheConfig {
-
-    @Bean
-    @Primary
-    public CacheManager cacheManager() {
-        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
-        cacheManager.setCacheNames(Arrays.asList(
-            "s",
-            "",
-            "userByEmail",
-            "productsByCategory"
-        ));
-        return cacheManager;
-    }
-}
-
-
-
+package com.example.ecommerce.config;
+
+import com.example.ecommerce.cache.HotKeyTracker;
+import com.example.ecommerce.cache.OffHeapCache;
+import com.example.ecommerce.cache.RefreshAheadCacheFactory;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.CompositeCacheManager;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(prefix = "app.cache.two-tier", name = "enabled", havingValue = "false", matchIfMissing = true)
+    public CacheManager cacheManager(CacheProperties cacheProperties) {
+        return localCacheManager(cacheProperties);
+    }
+
+    /**
+     * CacheManager en proceso; también actúa como L1 del cache de dos niveles.
+     * Los caches con off-heap=true guardan sus valores en memoria directa, el resto en Caffeine.
+     */
+    static CacheManager localCacheManager(CacheProperties cacheProperties) {
+        CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager() {
+            // Caches no declarados en app.cache.specs usan defaults (o negative para los caches negativos)
+            @Override
+            protected com.github.benmanes.caffeine.cache.Cache<Object, Object> createNativeCaffeineCache(String name) {
+                return caffeine(cacheProperties.resolve(name)).build();
+            }
+        };
+        List<Cache> offHeapCaches = new ArrayList<>();
+        cacheProperties.getSpecs().keySet().forEach(name -> {
+            CacheProperties.Spec spec = cacheProperties.resolve(name);
+            if (Boolean.TRUE.equals(spec.getOffHeap())) {
+                offHeapCaches.add(new OffHeapCache(name, spec.getMaximumMemory().toBytes(),
+                        spec.getMaximumSize() != null ? spec.getMaximumSize() : OffHeapCache.UNBOUNDED,
+                        spec.getExpireAfterWrite()));
+            } else {
+                caffeineCacheManager.registerCustomCache(name, caffeine(spec).build());
+            }
+        });
+        if (offHeapCaches.isEmpty()) {
+            return caffeineCacheManager;
+        }
+        SimpleCacheManager offHeapCacheManager = new SimpleCacheManager();
+        offHeapCacheManager.setCaches(offHeapCaches);
+        offHeapCacheManager.initializeCaches();
+        return new CompositeCacheManager(offHeapCacheManager, caffeineCacheManager);
+    }
+
+    /**
+     * Caches refresh-ahead (p. ej. búsquedas de usuario por email). Las recargas corren en un
+     * pool acotado; si su cola está llena la recarga se descarta y se sigue sirviendo el valor cacheado.
+     */
+    @Bean
+    public RefreshAheadCacheFactory refreshAheadCacheFactory(CacheProperties cacheProperties, HotKeyTracker hotKeyTracker) {
+        CacheProperties.RefreshAhead refreshAhead = cacheProperties.getRefreshAhead();
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("cache-refresh-");
+        threadFactory.setDaemon(true);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(refreshAhead.getThreads(), refreshAhead.getThreads(),
+                60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(refreshAhead.getQueueCapacity()), threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+        return new RefreshAheadCacheFactory(
+                name -> caffeine(cacheProperties.resolve(name)),
+                name -> cacheProperties.resolve(name).getRefreshAfterWrite(),
+                executor, hotKeyTracker);
+    }
+
+    /**
+     * Construye un builder Caffeine acotado en tamaño, con expiración y estadísticas.
+     */
+    static Caffeine<Object, Object> caffeine(CacheProperties.Spec spec) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder();
+        if (spec.getMaximumSize() != null) {
+            builder.maximumSize(spec.getMaximumSize());
+        }
+        if (spec.getExpireAfterWrite() != null) {
+            builder.expireAfterWrite(spec.getExpireAfterWrite());
+        }
+        if (spec.getExpireAfterAccess() != null) {
+            builder.expireAfterAccess(spec.getExpireAfterAccess());
+        }
+        if (Boolean.TRUE.equals(spec.getRecordStats())) {
+            builder.recordStats();
+        }
+        return builder;
+    }
+}
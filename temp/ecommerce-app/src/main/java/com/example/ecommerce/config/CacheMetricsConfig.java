@@ -0,0 +1,95 @@
+package com.example.ecommerce.config;
+
+import com.example.ecommerce.cache.CacheInspector;
+import com.example.ecommerce.cache.CachesDetailEndpoint;
+import com.example.ecommerce.cache.HotKeyTracker;
+import com.example.ecommerce.cache.OffHeapCache;
+import com.example.ecommerce.cache.OffHeapCacheMetrics;
+import com.example.ecommerce.cache.RefreshAheadCacheFactory;
+import com.example.ecommerce.cache.TwoTierCache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.boot.actuate.metrics.cache.CacheMetricsRegistrar;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+/**
+ * Métricas Micrometer por cache (cache.gets, cache.evictions, cache.size, cache.load.duration...)
+ * y el endpoint cachesdetail (solo JMX).
+ *
+ * Spring Boot solo registra las métricas de los caches que existen al arrancar y de tipos que
+ * conoce; aquí se añaden los caches off-heap, de dos niveles, refresh-ahead y los creados después,
+ * más la proporción de aciertos y los bytes estimados de cada uno. Las cargas de DtoCache se
+ * miden en el propio DtoCache (cache.loader.duration).
+ */
+@Configuration
+public class CacheMetricsConfig {
+
+    private static final Tag CACHE_MANAGER_TAG = Tag.of("cache.manager", "cacheManager");
+
+    @Bean
+    public CacheInspector cacheInspector(CacheManager cacheManager, RefreshAheadCacheFactory refreshAheadCacheFactory,
+                                         HotKeyTracker hotKeyTracker) {
+        return new CacheInspector(cacheManager, refreshAheadCacheFactory, hotKeyTracker);
+    }
+
+    @Bean
+    public CachesDetailEndpoint cachesDetailEndpoint(CacheInspector cacheInspector, CacheProperties cacheProperties) {
+        return new CachesDetailEndpoint(cacheInspector, cacheProperties.isEvictByPattern());
+    }
+
+    @Bean
+    public CacheMeterBinderProvider<OffHeapCache> offHeapCacheMeterBinderProvider() {
+        return OffHeapCacheMetrics::new;
+    }
+
+    /**
+     * Las métricas de un cache de dos niveles son las de su L1, que es el que atiende las lecturas.
+     */
+    @Bean
+    public CacheMeterBinderProvider<TwoTierCache> twoTierCacheMeterBinderProvider() {
+        return (cache, tags) -> {
+            Cache local = cache.getLocal();
+            if (local instanceof OffHeapCache offHeap) {
+                return new OffHeapCacheMetrics(offHeap, tags);
+            }
+            if (local instanceof CaffeineCache caffeine) {
+                return new CaffeineCacheMetrics<>(caffeine.getNativeCache(), cache.getName(), tags);
+            }
+            return null;
+        };
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bindCacheMetrics(ApplicationReadyEvent event) {
+        MeterRegistry registry = event.getApplicationContext().getBean(MeterRegistry.class);
+        CacheMetricsRegistrar registrar = event.getApplicationContext().getBean(CacheMetricsRegistrar.class);
+        CacheInspector inspector = event.getApplicationContext().getBean(CacheInspector.class);
+        inspector.caches().forEach((name, cache) -> {
+            // Los medidores ya registrados al arrancar se reutilizan
+            registrar.bindCacheToRegistry(cache, CACHE_MANAGER_TAG);
+            Tags tags = Tags.of(CACHE_MANAGER_TAG).and("cache", name);
+            Gauge.builder("cache.hit.ratio", cache, inspector::hitRatio)
+                    .tags(tags)
+                    .description("Hit ratio since startup")
+                    .strongReference(true)
+                    .register(registry);
+            Gauge.builder("cache.size.estimated", cache, inspector::recentEstimatedBytes)
+                    .tags(tags)
+                    .description("Estimated bytes of cached values, refreshed every few minutes")
+                    .baseUnit(BaseUnits.BYTES)
+                    .strongReference(true)
+                    .register(registry);
+        });
+    }
+}
@@ -0,0 +1,370 @@
+package com.example.ecommerce.config;
+
+import com.example.ecommerce.cache.NegativeCache;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Configuración de los caches Caffeine (prefijo app.cache).
+ * Los valores de "specs" sobrescriben a "defaults" por nombre de cache; los caches
+ * negativos (nombre terminado en "Missing") parten de "negative" en lugar de "defaults".
+ */
+@ConfigurationProperties(prefix = "app.cache")
+public class CacheProperties {
+
+    private Spec defaults = new Spec(10_000L, Duration.ofMinutes(10), null, true, false, DataSize.ofMegabytes(64), null);
+
+    private Spec negative = new Spec(10_000L, Duration.ofSeconds(30), null, true, false, null, null);
+
+    private Map<String, Spec> specs = new LinkedHashMap<>();
+
+    /** Regiones del cache de segundo nivel de Hibernate; también parten de "defaults" */
+    private Map<String, Spec> regions = new LinkedHashMap<>();
+
+    private TwoTier twoTier = new TwoTier();
+
+    private Warmup warmup = new Warmup();
+
+    private RefreshAhead refreshAhead = new RefreshAhead();
+
+    /** Cachea el JSON serializado de los endpoints de lectura del catálogo */
+    private boolean renderedJson = true;
+
+    /** Permite expulsar claves por patrón desde el endpoint cachesdetail (JMX) */
+    private boolean evictByPattern = false;
+
+    public Spec getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Spec defaults) {
+        this.defaults = defaults;
+    }
+
+    public Spec getNegative() {
+        return negative;
+    }
+
+    public void setNegative(Spec negative) {
+        this.negative = negative;
+    }
+
+    public Map<String, Spec> getSpecs() {
+        return specs;
+    }
+
+    public void setSpecs(Map<String, Spec> specs) {
+        this.specs = specs;
+    }
+
+    public Map<String, Spec> getRegions() {
+        return regions;
+    }
+
+    public void setRegions(Map<String, Spec> regions) {
+        this.regions = regions;
+    }
+
+    public TwoTier getTwoTier() {
+        return twoTier;
+    }
+
+    public void setTwoTier(TwoTier twoTier) {
+        this.twoTier = twoTier;
+    }
+
+    public Warmup getWarmup() {
+        return warmup;
+    }
+
+    public void setWarmup(Warmup warmup) {
+        this.warmup = warmup;
+    }
+
+    public boolean isRenderedJson() {
+        return renderedJson;
+    }
+
+    public void setRenderedJson(boolean renderedJson) {
+        this.renderedJson = renderedJson;
+    }
+
+    public boolean isEvictByPattern() {
+        return evictByPattern;
+    }
+
+    public void setEvictByPattern(boolean evictByPattern) {
+        this.evictByPattern = evictByPattern;
+    }
+
+    public RefreshAhead getRefreshAhead() {
+        return refreshAhead;
+    }
+
+    public void setRefreshAhead(RefreshAhead refreshAhead) {
+        this.refreshAhead = refreshAhead;
+    }
+
+    /**
+     * Devuelve la configuración efectiva de un cache, completando con los valores por defecto.
+     */
+    public Spec resolve(String cacheName) {
+        Spec defaults = cacheName.endsWith(NegativeCache.SUFFIX) ? negative : this.defaults;
+        return merge(specs.get(cacheName), defaults);
+    }
+
+    /**
+     * Configuración efectiva de una región del cache de segundo nivel de Hibernate.
+     */
+    public Spec resolveRegion(String regionName) {
+        return merge(regions.get(regionName), defaults);
+    }
+
+    private static Spec merge(Spec spec, Spec defaults) {
+        if (spec == null) {
+            return defaults;
+        }
+        return new Spec(
+                spec.getMaximumSize() != null ? spec.getMaximumSize() : defaults.getMaximumSize(),
+                spec.getExpireAfterWrite() != null ? spec.getExpireAfterWrite() : defaults.getExpireAfterWrite(),
+                spec.getExpireAfterAccess() != null ? spec.getExpireAfterAccess() : defaults.getExpireAfterAccess(),
+                spec.getRecordStats() != null ? spec.getRecordStats() : defaults.getRecordStats(),
+                spec.getOffHeap() != null ? spec.getOffHeap() : defaults.getOffHeap(),
+                spec.getMaximumMemory() != null ? spec.getMaximumMemory() : defaults.getMaximumMemory(),
+                spec.getRefreshAfterWrite() != null ? spec.getRefreshAfterWrite() : defaults.getRefreshAfterWrite());
+    }
+
+    public static class Spec {
+
+        private Long maximumSize;
+        private Duration expireAfterWrite;
+        private Duration expireAfterAccess;
+        private Boolean recordStats;
+        /** Guarda los valores serializados fuera del heap (ver OffHeapCache) */
+        private Boolean offHeap;
+        /** Memoria directa reservada por un cache off-heap */
+        private DataSize maximumMemory;
+        /** Recarga asíncrona de entradas con esta antigüedad (solo caches refresh-ahead) */
+        private Duration refreshAfterWrite;
+
+        public Spec() {}
+
+        public Spec(Long maximumSize, Duration expireAfterWrite, Duration expireAfterAccess, Boolean recordStats,
+                    Boolean offHeap, DataSize maximumMemory, Duration refreshAfterWrite) {
+            this.maximumSize = maximumSize;
+            this.expireAfterWrite = expireAfterWrite;
+            this.expireAfterAccess = expireAfterAccess;
+            this.recordStats = recordStats;
+            this.offHeap = offHeap;
+            this.maximumMemory = maximumMemory;
+            this.refreshAfterWrite = refreshAfterWrite;
+        }
+
+        public Long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(Long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public Duration getExpireAfterWrite() {
+            return expireAfterWrite;
+        }
+
+        public void setExpireAfterWrite(Duration expireAfterWrite) {
+            this.expireAfterWrite = expireAfterWrite;
+        }
+
+        public Duration getExpireAfterAccess() {
+            return expireAfterAccess;
+        }
+
+        public void setExpireAfterAccess(Duration expireAfterAccess) {
+            this.expireAfterAccess = expireAfterAccess;
+        }
+
+        public Boolean getRecordStats() {
+            return recordStats;
+        }
+
+        public void setRecordStats(Boolean recordStats) {
+            this.recordStats = recordStats;
+        }
+
+        public Boolean getOffHeap() {
+            return offHeap;
+        }
+
+        public void setOffHeap(Boolean offHeap) {
+            this.offHeap = offHeap;
+        }
+
+        public DataSize getMaximumMemory() {
+            return maximumMemory;
+        }
+
+        public void setMaximumMemory(DataSize maximumMemory) {
+            this.maximumMemory = maximumMemory;
+        }
+
+        public Duration getRefreshAfterWrite() {
+            return refreshAfterWrite;
+        }
+
+        public void setRefreshAfterWrite(Duration refreshAfterWrite) {
+            this.refreshAfterWrite = refreshAfterWrite;
+        }
+    }
+
+    /**
+     * Cache de dos niveles (L1 Caffeine + L2 Hazelcast compartido) para despliegues con réplicas.
+     */
+    public static class TwoTier {
+
+        private boolean enabled = false;
+        private String clusterName = "ecommerce-cache";
+        private List<String> members = new ArrayList<>();
+        private String invalidationTopic = "cache-invalidation";
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getClusterName() {
+            return clusterName;
+        }
+
+        public void setClusterName(String clusterName) {
+            this.clusterName = clusterName;
+        }
+
+        public List<String> getMembers() {
+            return members;
+        }
+
+        public void setMembers(List<String> members) {
+            this.members = members;
+        }
+
+        public String getInvalidationTopic() {
+            return invalidationTopic;
+        }
+
+        public void setInvalidationTopic(String invalidationTopic) {
+            this.invalidationTopic = invalidationTopic;
+        }
+    }
+
+    /**
+     * Precarga de caches al arrancar a partir del historial de claves más pedidas.
+     */
+    public static class Warmup {
+
+        private boolean enabled = true;
+        /** Claves más pedidas a precargar por cache */
+        private int topKeys = 1000;
+        /** Claves por consulta findAllById */
+        private int batchSize = 200;
+        /** Tiempo máximo de precarga antes de aceptar tráfico */
+        private Duration timeBudget = Duration.ofSeconds(30);
+        /** Claves seguidas por cache en el contador de accesos */
+        private long trackerCapacity = 10_000;
+        /** Caches cuyas claves son datos personales (emails...): no se guardan en el historial */
+        private Set<String> privateCaches = new HashSet<>();
+        private Duration historyFlushInterval = Duration.ofMinutes(5);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getTopKeys() {
+            return topKeys;
+        }
+
+        public void setTopKeys(int topKeys) {
+            this.topKeys = topKeys;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getTimeBudget() {
+            return timeBudget;
+        }
+
+        public void setTimeBudget(Duration timeBudget) {
+            this.timeBudget = timeBudget;
+        }
+
+        public long getTrackerCapacity() {
+            return trackerCapacity;
+        }
+
+        public void setTrackerCapacity(long trackerCapacity) {
+            this.trackerCapacity = trackerCapacity;
+        }
+
+        public Set<String> getPrivateCaches() {
+            return privateCaches;
+        }
+
+        public void setPrivateCaches(Set<String> privateCaches) {
+            this.privateCaches = privateCaches;
+        }
+
+        public Duration getHistoryFlushInterval() {
+            return historyFlushInterval;
+        }
+
+        public void setHistoryFlushInterval(Duration historyFlushInterval) {
+            this.historyFlushInterval = historyFlushInterval;
+        }
+    }
+
+    /**
+     * Pool acotado que recarga en segundo plano las entradas de los caches refresh-ahead.
+     */
+    public static class RefreshAhead {
+
+        private int threads = 4;
+        /** Recargas pendientes admitidas; las que no caben se descartan y se sirve el valor actual */
+        private int queueCapacity = 1000;
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+    }
+}
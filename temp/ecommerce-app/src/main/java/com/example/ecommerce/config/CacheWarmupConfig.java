@@ -0,0 +1,93 @@
+package com.example.ecommerce.config;
+
+import com.example.ecommerce.cache.CacheWarmer;
+import com.example.ecommerce.cache.HotKeyHistoryStore;
+import com.example.ecommerce.cache.HotKeyTracker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Precarga de caches tras un despliegue.
+ *
+ * El warm-up se ejecuta como ApplicationRunner, antes de que Spring Boot marque la aplicación
+ * como lista (readiness ACCEPTING_TRAFFIC), así que la sonda de readiness no pasa a verde
+ * hasta que termina o agota su presupuesto de tiempo. El historial de claves se guarda en la
+ * base de datos (HotKeyHistoryStore), sin las claves de los caches privados.
+ */
+@Configuration
+@EnableScheduling
+public class CacheWarmupConfig implements SchedulingConfigurer, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheWarmupConfig.class);
+
+    private final CacheProperties.Warmup warmup;
+    private final HotKeyTracker hotKeyTracker;
+    private final HotKeyHistoryStore historyStore;
+
+    public CacheWarmupConfig(CacheProperties cacheProperties, JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager) {
+        this.warmup = cacheProperties.getWarmup();
+        this.hotKeyTracker = new HotKeyTracker(warmup.getTrackerCapacity(), warmup.getPrivateCaches());
+        this.historyStore = new HotKeyHistoryStore(jdbcTemplate, transactionManager);
+    }
+
+    @Bean
+    public HotKeyTracker hotKeyTracker() {
+        return hotKeyTracker;
+    }
+
+    @Bean
+    public CacheWarmer cacheWarmer() {
+        return new CacheWarmer(hotKeyTracker);
+    }
+
+    @Bean
+    public ApplicationRunner cacheWarmupRunner(CacheWarmer cacheWarmer) {
+        return args -> {
+            if (!warmup.isEnabled()) {
+                return;
+            }
+            try {
+                hotKeyTracker.merge(historyStore.load());
+            } catch (DataAccessException e) {
+                logger.warn("Could not read cache hot-key history: {}", e.getMessage());
+                return;
+            }
+            long start = System.nanoTime();
+            int loaded = cacheWarmer.warm(warmup.getTopKeys(), warmup.getBatchSize(), warmup.getTimeBudget());
+            logger.info("Cache warm-up loaded {} entries in {} ms", loaded, (System.nanoTime() - start) / 1_000_000);
+        };
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        if (warmup.isEnabled()) {
+            taskRegistrar.addFixedDelayTask(this::saveHistory, warmup.getHistoryFlushInterval());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (warmup.isEnabled()) {
+            saveHistory();
+        }
+    }
+
+    private void saveHistory() {
+        try {
+            historyStore.save(hotKeyTracker.history(warmup.getTopKeys()));
+        } catch (DataAccessException e) {
+            logger.warn("Could not write cache hot-key history: {}", e.getMessage());
+        }
+    }
+}
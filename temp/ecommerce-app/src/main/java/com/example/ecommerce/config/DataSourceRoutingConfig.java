@@ -0,0 +1,102 @@
+package com.example.ecommerce.config;
+
+import com.example.ecommerce.datasource.DataSourceRoutingMetrics;
+import com.example.ecommerce.datasource.ReadOnlyCacheModeListener;
+import com.example.ecommerce.datasource.ReadWriteRoutingDataSource;
+import com.example.ecommerce.datasource.ReplicaSelector;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Primario más réplicas de lectura (app.datasource.routing.replicas).
+ *
+ * Sustituye al DataSource de Spring Boot: los servicios ya ejecutan sus lecturas en
+ * transacciones readOnly, que se reparten entre las réplicas al día; el resto va al primario.
+ * Esas transacciones no usan el cache de segundo nivel.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.routing", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(DataSourceRoutingProperties.class)
+public class DataSourceRoutingConfig implements SchedulingConfigurer {
+
+    private final DataSourceRoutingProperties routingProperties;
+    private final ObjectProvider<ReplicaSelector> replicaSelector;
+
+    public DataSourceRoutingConfig(DataSourceRoutingProperties routingProperties,
+                                   ObjectProvider<ReplicaSelector> replicaSelector) {
+        this.routingProperties = routingProperties;
+        this.replicaSelector = replicaSelector;
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName(ReadWriteRoutingDataSource.PRIMARY);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaSelector replicaSelector(DataSourceProperties dataSourceProperties) {
+        List<ReplicaSelector.Replica> replicas = new ArrayList<>();
+        for (DataSourceRoutingProperties.Replica replica : routingProperties.getReplicas()) {
+            String name = "replica-" + replicas.size();
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName(name);
+            dataSource.setJdbcUrl(replica.getUrl());
+            dataSource.setUsername(replica.getUsername() != null ? replica.getUsername()
+                    : dataSourceProperties.determineUsername());
+            dataSource.setPassword(replica.getPassword() != null ? replica.getPassword()
+                    : dataSourceProperties.determinePassword());
+            dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+            dataSource.setReadOnly(true);
+            replicas.add(new ReplicaSelector.Replica(name, dataSource));
+        }
+        return new ReplicaSelector(replicas, routingProperties.getStrategy(),
+                routingProperties.getMaxLag(), routingProperties.getLagQuery());
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource readWriteRoutingDataSource(HikariDataSource primaryDataSource,
+                                                                 ReplicaSelector replicaSelector) {
+        return new ReadWriteRoutingDataSource(primaryDataSource, replicaSelector);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource readWriteRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(readWriteRoutingDataSource);
+    }
+
+    @Bean
+    public ReadOnlyCacheModeListener readOnlyCacheModeListener() {
+        return new ReadOnlyCacheModeListener();
+    }
+
+    @Bean
+    public DataSourceRoutingMetrics dataSourceRoutingMetrics(ReadWriteRoutingDataSource readWriteRoutingDataSource,
+                                                             HikariDataSource primaryDataSource) {
+        return new DataSourceRoutingMetrics(readWriteRoutingDataSource, primaryDataSource);
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.addFixedDelayTask(() -> replicaSelector.getObject().checkReplicas(),
+                routingProperties.getLagCheckInterval());
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.ecommerce.config;
+
+import com.example.ecommerce.cache.CacheInvalidationBus;
+import com.example.ecommerce.cache.HazelcastCacheInvalidationBus;
+import com.example.ecommerce.cache.NegativeCache;
+import com.example.ecommerce.cache.TwoTierCacheManager;
+import com.hazelcast.config.Config;
+import com.hazelcast.config.EvictionConfig;
+import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.config.JoinConfig;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.MaxSizePolicy;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.spring.cache.HazelcastCacheManager;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Cache de dos niveles para varias réplicas: L1 Caffeine por instancia y L2 Hazelcast
+ * embebido, compartido por las réplicas que forman el cluster (app.cache.two-tier.members).
+ * Sin miembros configurados la instancia arranca en modo local, útil para tests.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.cache.two-tier", name = "enabled", havingValue = "true")
+public class TwoTierCacheConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public HazelcastInstance cacheHazelcastInstance(CacheProperties cacheProperties) {
+        CacheProperties.TwoTier twoTier = cacheProperties.getTwoTier();
+        Config config = new Config();
+        config.setClusterName(twoTier.getClusterName());
+        config.setProperty("hazelcast.phone.home.enabled", "false");
+        JoinConfig join = config.getNetworkConfig().getJoin();
+        join.getMulticastConfig().setEnabled(false);
+        join.getTcpIpConfig()
+                .setEnabled(!twoTier.getMembers().isEmpty())
+                .setMembers(twoTier.getMembers());
+        // El L2 respeta la misma expiración y el mismo tamaño máximo que el L1 de cada cache
+        cacheProperties.getSpecs().keySet().forEach(name ->
+                config.addMapConfig(mapConfig(name, cacheProperties.resolve(name))));
+        config.addMapConfig(mapConfig("*" + NegativeCache.SUFFIX, cacheProperties.getNegative()));
+        return Hazelcast.newHazelcastInstance(config);
+    }
+
+    /**
+     * maximumSize se aplica por miembro del cluster (PER_NODE), expulsando las entradas usadas
+     * menos recientemente. Hazelcast lo reparte entre particiones (271 por defecto), así que un
+     * límite menor que ese número deja como mucho una entrada por partición.
+     */
+    private static MapConfig mapConfig(String name, CacheProperties.Spec spec) {
+        MapConfig mapConfig = new MapConfig(name);
+        if (spec.getExpireAfterWrite() != null) {
+            mapConfig.setTimeToLiveSeconds((int) spec.getExpireAfterWrite().toSeconds());
+        }
+        if (spec.getMaximumSize() != null) {
+            mapConfig.setEvictionConfig(new EvictionConfig()
+                    .setEvictionPolicy(EvictionPolicy.LRU)
+                    .setMaxSizePolicy(MaxSizePolicy.PER_NODE)
+                    .setSize((int) Math.min(Integer.MAX_VALUE, spec.getMaximumSize())));
+        }
+        return mapConfig;
+    }
+
+    @Bean
+    public CacheInvalidationBus cacheInvalidationBus(HazelcastInstance cacheHazelcastInstance,
+                                                     CacheProperties cacheProperties) {
+        return new HazelcastCacheInvalidationBus(cacheHazelcastInstance,
+                cacheProperties.getTwoTier().getInvalidationTopic());
+    }
+
+    @Bean
+    @Primary
+    public CacheManager cacheManager(CacheProperties cacheProperties, HazelcastInstance cacheHazelcastInstance,
+                                     CacheInvalidationBus cacheInvalidationBus) {
+        return new TwoTierCacheManager(
+                CacheConfig.localCacheManager(cacheProperties),
+                new HazelcastCacheManager(cacheHazelcastInstance),
+                cacheInvalidationBus);
+    }
+}
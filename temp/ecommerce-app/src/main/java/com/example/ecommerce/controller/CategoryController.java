@@ -1,11 +1,18 @@
 package com.example.ecommerce.controller;
 
 import com.example.ecommerce.dto.CategoryDTO;
+import com.example.ecommerce.dto.ScrollDTO;
 import com.example.ecommerce.service.CategoryService;
+import com.fasterxml.jackson.databind.JsonNode;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
@@ -43,11 +50,25 @@ public class CategoryController {
         return ResponseEntity.ok(categorys);
     }
 
+    @GetMapping("/scroll")
+    public ResponseEntity<ScrollDTO<CategoryDTO>> scrollCategorys(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String sort) {
+        logger.info("Scrolling categorys after {} sorted by {}", after, sort);
+        try {
+            return ResponseEntity.ok(categoryService.scroll(after, size, sort));
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid scroll request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<CategoryDTO> getCategoryById(@PathVariable Long id) {
         logger.info("Getting  by id: {}", id);
         Optional<CategoryDTO> category = categoryService.findById(id);
-        return category.map(ResponseEntity::ok)
+        return category.map(dto -> ResponseEntity.ok().eTag(VersionETag.of(dto.getVersion())).body(dto))
                            .orElse(ResponseEntity.notFound().build());
     }
 
@@ -68,37 +89,141 @@ public class CategoryController {
 
     @PutMapping("/{id}")
     public ResponseEntity<CategoryDTO> updateCategory(@PathVariable Long id, 
+                                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                                              @Valid @RequestBody CategoryDTO categoryDTO) {
         logger.info("Updating  with id: {}", id);
         try {
+            // If-Match (el ETag de GET) prevalece sobre la versión del cuerpo
+            if (ifMatch != null) {
+                categoryDTO.setVersion(VersionETag.parseIfMatch(ifMatch));
+            }
             CategoryDTO updatedCategory = categoryService.update(id, categoryDTO);
-            return ResponseEntity.ok(updatedCategory);
+            return ResponseEntity.ok().eTag(VersionETag.of(updatedCategory.getVersion())).body(updatedCategory);
         } catch (IllegalArgumentException e) {
             logger.error("Validation error updating : {}", e.getMessage());
             return ResponseEntity.badRequest().build();
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("Version conflict updating : {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Constraint violation updating : {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             logger.error("Error updating : {}", e.getMessage());
             return ResponseEntity.notFound().build();
         }
     }
 
+    /**
+     * JSON Merge Patch (RFC 7396): solo se modifican los campos enviados; null borra el valor.
+     */
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<CategoryDTO> patchCategory(@PathVariable Long id,
+                                                     @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                     @RequestBody JsonNode patch) {
+        logger.info("Patching  with id: {}", id);
+        try {
+            Long expectedVersion = ifMatch != null ? VersionETag.parseIfMatch(ifMatch) : null;
+            CategoryDTO patchedCategory = categoryService.patch(id, patch, expectedVersion);
+            return ResponseEntity.ok().eTag(VersionETag.of(patchedCategory.getVersion())).body(patchedCategory);
+        } catch (IllegalArgumentException e) {
+            logger.error("Validation error patching : {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("Version conflict patching : {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Constraint violation patching : {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RuntimeException e) {
+            logger.error("Error patching : {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteCategory(@PathVariable Long id) {
         logger.info("Deleting  with id: {}", id);
         try {
             categoryService.deleteById(id);
             return ResponseEntity.noContent().build();
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Constraint violation deleting : {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             logger.error("Error deleting : {}", e.getMessage());
             return ResponseEntity.notFound().build();
         }
     }
 
+    // Batch operations: validan el lote completo y lo escriben en una sola transacción
+    @PostMapping("/batch")
+    public ResponseEntity<List<CategoryDTO>> createCategorys(@RequestBody List<@Valid CategoryDTO> categoryDTOs) {
+        logger.info("Creating {} categorys", categoryDTOs.size());
+        try {
+            List<CategoryDTO> savedCategorys = categoryService.saveAll(categoryDTOs);
+            return ResponseEntity.status(HttpStatus.CREATED).body(savedCategorys);
+        } catch (IllegalArgumentException e) {
+            logger.error("Validation error creating categorys: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PutMapping("/batch")
+    public ResponseEntity<List<CategoryDTO>> updateCategorys(@RequestBody List<@Valid CategoryDTO> categoryDTOs) {
+        logger.info("Updating {} categorys", categoryDTOs.size());
+        try {
+            List<CategoryDTO> updatedCategorys = categoryService.updateAll(categoryDTOs);
+            return ResponseEntity.ok(updatedCategorys);
+        } catch (IllegalArgumentException e) {
+            logger.error("Validation error updating categorys: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("Version conflict updating categorys: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Constraint violation updating categorys: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RuntimeException e) {
+            logger.error("Error updating categorys: {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @DeleteMapping("/batch")
+    public ResponseEntity<Void> deleteCategorys(@RequestBody List<Long> ids) {
+        logger.info("Deleting {} categorys", ids.size());
+        try {
+            categoryService.deleteAllById(ids);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            logger.error("Validation error deleting categorys: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Constraint violation deleting categorys: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RuntimeException e) {
+            logger.error("Error deleting categorys: {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // Export: vuelca la tabla completa como NDJSON en streaming
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportCategorys() {
+        logger.info("Exporting all categorys");
+        StreamingResponseBody body = out -> categoryService.exportTo(out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
     // Custom endpoints
-    @GetMapping("/status/{status}")
-    public ResponseEntity<List<CategoryDTO>> getByStatus(@PathVariable String status) {
-        logger.info("Getting s by status: {}", status);
-        List<CategoryDTO> categorys = categoryService.findByStatus(status);
+    @GetMapping("/active/{active}")
+    public ResponseEntity<Page<CategoryDTO>> getByActive(@PathVariable Boolean active,
+            @PageableDefault(size = 10) Pageable pageable) {
+        logger.info("Getting categorys by active: {}", active);
+        Page<CategoryDTO> categorys = categoryService.findByActive(active, pageable);
         return ResponseEntity.ok(categorys);
     }
 
@@ -1,11 +1,19 @@
 package com.example.ecommerce.controller;
 
 import com.example.ecommerce.dto.OrderDTO;
+import com.example.ecommerce.dto.OrderDetailDTO;
+import com.example.ecommerce.dto.ScrollDTO;
 import com.example.ecommerce.service.OrderService;
+import com.fasterxml.jackson.databind.JsonNode;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
@@ -43,14 +51,37 @@ public class OrderController {
         return ResponseEntity.ok(orders);
     }
 
+    @GetMapping("/scroll")
+    public ResponseEntity<ScrollDTO<OrderDTO>> scrollOrders(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String sort) {
+        logger.info("Scrolling orders after {} sorted by {}", after, sort);
+        try {
+            return ResponseEntity.ok(orderService.scroll(after, size, sort));
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid scroll request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<OrderDTO> getOrderById(@PathVariable Long id) {
         logger.info("Getting  by id: {}", id);
         Optional<OrderDTO> order = orderService.findById(id);
-        return order.map(ResponseEntity::ok)
+        return order.map(dto -> ResponseEntity.ok().eTag(VersionETag.of(dto.getVersion())).body(dto))
                            .orElse(ResponseEntity.notFound().build());
     }
 
+    // Pedido, líneas y productos en una sola respuesta
+    @GetMapping("/{id}/detail")
+    public ResponseEntity<OrderDetailDTO> getOrderDetail(@PathVariable Long id) {
+        logger.info("Getting order detail by id: {}", id);
+        return orderService.findDetailById(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @PostMapping
     public ResponseEntity<OrderDTO> createOrder(@Valid @RequestBody OrderDTO orderDTO) {
         logger.info("Creating new : {}", orderDTO);
@@ -68,37 +99,141 @@ public class OrderController {
 
     @PutMapping("/{id}")
     public ResponseEntity<OrderDTO> updateOrder(@PathVariable Long id, 
+                                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                                              @Valid @RequestBody OrderDTO orderDTO) {
         logger.info("Updating  with id: {}", id);
         try {
+            // If-Match (el ETag de GET) prevalece sobre la versión del cuerpo
+            if (ifMatch != null) {
+                orderDTO.setVersion(VersionETag.parseIfMatch(ifMatch));
+            }
             OrderDTO updatedOrder = orderService.update(id, orderDTO);
-            return ResponseEntity.ok(updatedOrder);
+            return ResponseEntity.ok().eTag(VersionETag.of(updatedOrder.getVersion())).body(updatedOrder);
         } catch (IllegalArgumentException e) {
             logger.error("Validation error updating : {}", e.getMessage());
             return ResponseEntity.badRequest().build();
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("Version conflict updating : {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Constraint violation updating : {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             logger.error("Error updating : {}", e.getMessage());
             return ResponseEntity.notFound().build();
         }
     }
 
+    /**
+     * JSON Merge Patch (RFC 7396): solo se modifican los campos enviados; null borra el valor.
+     */
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<OrderDTO> patchOrder(@PathVariable Long id,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                               @RequestBody JsonNode patch) {
+        logger.info("Patching  with id: {}", id);
+        try {
+            Long expectedVersion = ifMatch != null ? VersionETag.parseIfMatch(ifMatch) : null;
+            OrderDTO patchedOrder = orderService.patch(id, patch, expectedVersion);
+            return ResponseEntity.ok().eTag(VersionETag.of(patchedOrder.getVersion())).body(patchedOrder);
+        } catch (IllegalArgumentException e) {
+            logger.error("Validation error patching : {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("Version conflict patching : {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Constraint violation patching : {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RuntimeException e) {
+            logger.error("Error patching : {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteOrder(@PathVariable Long id) {
         logger.info("Deleting  with id: {}", id);
         try {
             orderService.deleteById(id);
             return ResponseEntity.noContent().build();
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Constraint violation deleting : {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             logger.error("Error deleting : {}", e.getMessage());
             return ResponseEntity.notFound().build();
         }
     }
 
+    // Batch operations: validan el lote completo y lo escriben en una sola transacción
+    @PostMapping("/batch")
+    public ResponseEntity<List<OrderDTO>> createOrders(@RequestBody List<@Valid OrderDTO> orderDTOs) {
+        logger.info("Creating {} orders", orderDTOs.size());
+        try {
+            List<OrderDTO> savedOrders = orderService.saveAll(orderDTOs);
+            return ResponseEntity.status(HttpStatus.CREATED).body(savedOrders);
+        } catch (IllegalArgumentException e) {
+            logger.error("Validation error creating orders: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PutMapping("/batch")
+    public ResponseEntity<List<OrderDTO>> updateOrders(@RequestBody List<@Valid OrderDTO> orderDTOs) {
+        logger.info("Updating {} orders", orderDTOs.size());
+        try {
+            List<OrderDTO> updatedOrders = orderService.updateAll(orderDTOs);
+            return ResponseEntity.ok(updatedOrders);
+        } catch (IllegalArgumentException e) {
+            logger.error("Validation error updating orders: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("Version conflict updating orders: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Constraint violation updating orders: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RuntimeException e) {
+            logger.error("Error updating orders: {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @DeleteMapping("/batch")
+    public ResponseEntity<Void> deleteOrders(@RequestBody List<Long> ids) {
+        logger.info("Deleting {} orders", ids.size());
+        try {
+            orderService.deleteAllById(ids);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            logger.error("Validation error deleting orders: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Constraint violation deleting orders: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RuntimeException e) {
+            logger.error("Error deleting orders: {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // Export: vuelca la tabla completa como NDJSON en streaming
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportOrders() {
+        logger.info("Exporting all orders");
+        StreamingResponseBody body = out -> orderService.exportTo(out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
     // Custom endpoints
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<OrderDTO>> getByStatus(@PathVariable String status) {
-        logger.info("Getting s by status: {}", status);
-        List<OrderDTO> orders = orderService.findByStatus(status);
+    public ResponseEntity<Page<OrderDTO>> getByStatus(@PathVariable String status,
+            @PageableDefault(size = 10) Pageable pageable) {
+        logger.info("Getting orders by status: {}", status);
+        Page<OrderDTO> orders = orderService.findByStatus(status, pageable);
         return ResponseEntity.ok(orders);
     }
 
@@ -1,11 +1,18 @@
 package com.example.ecommerce.controller;
 
 import com.example.ecommerce.dto.OrderItemDTO;
+import com.example.ecommerce.dto.ScrollDTO;
 import com.example.ecommerce.service.OrderItemService;
+import com.fasterxml.jackson.databind.JsonNode;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
@@ -43,11 +50,25 @@ public class OrderItemController {
         return ResponseEntity.ok(orderitems);
     }
 
+    @GetMapping("/scroll")
+    public ResponseEntity<ScrollDTO<OrderItemDTO>> scrollOrderItems(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String sort) {
+        logger.info("Scrolling orderitems after {} sorted by {}", after, sort);
+        try {
+            return ResponseEntity.ok(orderitemService.scroll(after, size, sort));
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid scroll request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<OrderItemDTO> getOrderItemById(@PathVariable Long id) {
         logger.info("Getting  by id: {}", id);
         Optional<OrderItemDTO> orderitem = orderitemService.findById(id);
-        return orderitem.map(ResponseEntity::ok)
+        return orderitem.map(dto -> ResponseEntity.ok().eTag(VersionETag.of(dto.getVersion())).body(dto))
                            .orElse(ResponseEntity.notFound().build());
     }
 
@@ -68,38 +89,133 @@ public class OrderItemController {
 
     @PutMapping("/{id}")
     public ResponseEntity<OrderItemDTO> updateOrderItem(@PathVariable Long id, 
+                                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                                              @Valid @RequestBody OrderItemDTO orderitemDTO) {
         logger.info("Updating  with id: {}", id);
         try {
+            // If-Match (el ETag de GET) prevalece sobre la versión del cuerpo
+            if (ifMatch != null) {
+                orderitemDTO.setVersion(VersionETag.parseIfMatch(ifMatch));
+            }
             OrderItemDTO updatedOrderItem = orderitemService.update(id, orderitemDTO);
-            return ResponseEntity.ok(updatedOrderItem);
+            return ResponseEntity.ok().eTag(VersionETag.of(updatedOrderItem.getVersion())).body(updatedOrderItem);
         } catch (IllegalArgumentException e) {
             logger.error("Validation error updating : {}", e.getMessage());
             return ResponseEntity.badRequest().build();
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("Version conflict updating : {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Constraint violation updating : {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             logger.error("Error updating : {}", e.getMessage());
             return ResponseEntity.notFound().build();
         }
     }
 
+    /**
+     * JSON Merge Patch (RFC 7396): solo se modifican los campos enviados; null borra el valor.
+     */
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<OrderItemDTO> patchOrderItem(@PathVariable Long id,
+                                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                       @RequestBody JsonNode patch) {
+        logger.info("Patching  with id: {}", id);
+        try {
+            Long expectedVersion = ifMatch != null ? VersionETag.parseIfMatch(ifMatch) : null;
+            OrderItemDTO patchedOrderItem = orderitemService.patch(id, patch, expectedVersion);
+            return ResponseEntity.ok().eTag(VersionETag.of(patchedOrderItem.getVersion())).body(patchedOrderItem);
+        } catch (IllegalArgumentException e) {
+            logger.error("Validation error patching : {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("Version conflict patching : {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Constraint violation patching : {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RuntimeException e) {
+            logger.error("Error patching : {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteOrderItem(@PathVariable Long id) {
         logger.info("Deleting  with id: {}", id);
         try {
             orderitemService.deleteById(id);
             return ResponseEntity.noContent().build();
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Constraint violation deleting : {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             logger.error("Error deleting : {}", e.getMessage());
             return ResponseEntity.notFound().build();
         }
     }
 
-    // Custom endpoints
-    @GetMapping("/status/{status}")
-    public ResponseEntity<List<OrderItemDTO>> getByStatus(@PathVariable String status) {
-        logger.info("Getting s by status: {}", status);
-        List<OrderItemDTO> orderitems = orderitemService.findByStatus(status);
-        return ResponseEntity.ok(orderitems);
+    // Batch operations: validan el lote completo y lo escriben en una sola transacción
+    @PostMapping("/batch")
+    public ResponseEntity<List<OrderItemDTO>> createOrderItems(@RequestBody List<@Valid OrderItemDTO> orderItemDTOs) {
+        logger.info("Creating {} orderitems", orderItemDTOs.size());
+        try {
+            List<OrderItemDTO> savedOrderItems = orderitemService.saveAll(orderItemDTOs);
+            return ResponseEntity.status(HttpStatus.CREATED).body(savedOrderItems);
+        } catch (IllegalArgumentException e) {
+            logger.error("Validation error creating orderitems: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PutMapping("/batch")
+    public ResponseEntity<List<OrderItemDTO>> updateOrderItems(@RequestBody List<@Valid OrderItemDTO> orderItemDTOs) {
+        logger.info("Updating {} orderitems", orderItemDTOs.size());
+        try {
+            List<OrderItemDTO> updatedOrderItems = orderitemService.updateAll(orderItemDTOs);
+            return ResponseEntity.ok(updatedOrderItems);
+        } catch (IllegalArgumentException e) {
+            logger.error("Validation error updating orderitems: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("Version conflict updating orderitems: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Constraint violation updating orderitems: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RuntimeException e) {
+            logger.error("Error updating orderitems: {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @DeleteMapping("/batch")
+    public ResponseEntity<Void> deleteOrderItems(@RequestBody List<Long> ids) {
+        logger.info("Deleting {} orderitems", ids.size());
+        try {
+            orderitemService.deleteAllById(ids);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            logger.error("Validation error deleting orderitems: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Constraint violation deleting orderitems: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RuntimeException e) {
+            logger.error("Error deleting orderitems: {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // Export: vuelca la tabla completa como NDJSON en streaming
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportOrderItems() {
+        logger.info("Exporting all orderitems");
+        StreamingResponseBody body = out -> orderitemService.exportTo(out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     // Health check endpoint
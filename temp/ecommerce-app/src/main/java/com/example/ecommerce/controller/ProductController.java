@@ -1,11 +1,20 @@
 package com.example.ecommerce.controller;
 
 import com.example.ecommerce.dto.ProductDTO;
+import com.example.ecommerce.dto.ScrollDTO;
+import com.example.ecommerce.dto.StockReservationDTO;
+import com.example.ecommerce.dto.StockReservationResultDTO;
 import com.example.ecommerce.service.ProductService;
+import com.fasterxml.jackson.databind.JsonNode;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
@@ -13,7 +22,6 @@ import org.springframework.validation.annotation.Validated;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.util.List;
-import java.util.Optional;
 import jakarta.validation.Valid;
 
 @RestController
@@ -28,11 +36,13 @@ public class ProductController {
     private ProductService productService;
 
     // Basic CRUD Operations
+    // Las lecturas del catálogo devuelven el JSON ya serializado y cacheado por ProductService
     @GetMapping
-    public ResponseEntity<List<ProductDTO>> getAllProducts() {
+    public ResponseEntity<byte[]> getAllProducts() {
         logger.info("Getting all s");
-        List<ProductDTO> products = productService.findAll();
-        return ResponseEntity.ok(products);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(productService.findAllAsJson());
     }
 
     @GetMapping("/paginated")
@@ -43,12 +53,30 @@ public class ProductController {
         return ResponseEntity.ok(products);
     }
 
+    @GetMapping("/scroll")
+    public ResponseEntity<ScrollDTO<ProductDTO>> scrollProducts(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String sort) {
+        logger.info("Scrolling products after {} sorted by {}", after, sort);
+        try {
+            return ResponseEntity.ok(productService.scroll(after, size, sort));
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid scroll request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<ProductDTO> getProductById(@PathVariable Long id) {
+    public ResponseEntity<byte[]> getProductById(@PathVariable Long id) {
         logger.info("Getting  by id: {}", id);
-        Optional<ProductDTO> product = productService.findById(id);
-        return product.map(ResponseEntity::ok)
-                           .orElse(ResponseEntity.notFound().build());
+        // El ETag sale de la versión guardada junto al JSON que se envía
+        return productService.findByIdAsJson(id)
+                .map(product -> ResponseEntity.ok()
+                        .eTag(VersionETag.of(product.version()))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(product.json()))
+                .orElse(ResponseEntity.notFound().build());
     }
 
     @PostMapping
@@ -68,40 +96,175 @@ public class ProductController {
 
     @PutMapping("/{id}")
     public ResponseEntity<ProductDTO> updateProduct(@PathVariable Long id, 
+                                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                                              @Valid @RequestBody ProductDTO productDTO) {
         logger.info("Updating  with id: {}", id);
         try {
+            // If-Match (el ETag de GET) prevalece sobre la versión del cuerpo
+            if (ifMatch != null) {
+                productDTO.setVersion(VersionETag.parseIfMatch(ifMatch));
+            }
             ProductDTO updatedProduct = productService.update(id, productDTO);
-            return ResponseEntity.ok(updatedProduct);
+            return ResponseEntity.ok().eTag(VersionETag.of(updatedProduct.getVersion())).body(updatedProduct);
         } catch (IllegalArgumentException e) {
             logger.error("Validation error updating : {}", e.getMessage());
             return ResponseEntity.badRequest().build();
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("Version conflict updating : {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Constraint violation updating : {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             logger.error("Error updating : {}", e.getMessage());
             return ResponseEntity.notFound().build();
         }
     }
 
+    /**
+     * JSON Merge Patch (RFC 7396): solo se modifican los campos enviados; null borra el valor.
+     */
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<ProductDTO> patchProduct(@PathVariable Long id,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                   @RequestBody JsonNode patch) {
+        logger.info("Patching  with id: {}", id);
+        try {
+            Long expectedVersion = ifMatch != null ? VersionETag.parseIfMatch(ifMatch) : null;
+            ProductDTO patchedProduct = productService.patch(id, patch, expectedVersion);
+            return ResponseEntity.ok().eTag(VersionETag.of(patchedProduct.getVersion())).body(patchedProduct);
+        } catch (IllegalArgumentException e) {
+            logger.error("Validation error patching : {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("Version conflict patching : {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Constraint violation patching : {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RuntimeException e) {
+            logger.error("Error patching : {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
         logger.info("Deleting  with id: {}", id);
         try {
             productService.deleteById(id);
             return ResponseEntity.noContent().build();
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Constraint violation deleting : {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             logger.error("Error deleting : {}", e.getMessage());
             return ResponseEntity.notFound().build();
         }
     }
 
+    // Batch operations: validan el lote completo y lo escriben en una sola transacción
+    @PostMapping("/batch")
+    public ResponseEntity<List<ProductDTO>> createProducts(@RequestBody List<@Valid ProductDTO> productDTOs) {
+        logger.info("Creating {} products", productDTOs.size());
+        try {
+            List<ProductDTO> savedProducts = productService.saveAll(productDTOs);
+            return ResponseEntity.status(HttpStatus.CREATED).body(savedProducts);
+        } catch (IllegalArgumentException e) {
+            logger.error("Validation error creating products: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PutMapping("/batch")
+    public ResponseEntity<List<ProductDTO>> updateProducts(@RequestBody List<@Valid ProductDTO> productDTOs) {
+        logger.info("Updating {} products", productDTOs.size());
+        try {
+            List<ProductDTO> updatedProducts = productService.updateAll(productDTOs);
+            return ResponseEntity.ok(updatedProducts);
+        } catch (IllegalArgumentException e) {
+            logger.error("Validation error updating products: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("Version conflict updating products: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Constraint violation updating products: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RuntimeException e) {
+            logger.error("Error updating products: {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @DeleteMapping("/batch")
+    public ResponseEntity<Void> deleteProducts(@RequestBody List<Long> ids) {
+        logger.info("Deleting {} products", ids.size());
+        try {
+            productService.deleteAllById(ids);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            logger.error("Validation error deleting products: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Constraint violation deleting products: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RuntimeException e) {
+            logger.error("Error deleting products: {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // Export: vuelca la tabla completa como NDJSON en streaming
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportProducts() {
+        logger.info("Exporting all products");
+        StreamingResponseBody body = out -> productService.exportTo(out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
     // Custom endpoints
-    @GetMapping("/status/{status}")
-    public ResponseEntity<List<ProductDTO>> getByStatus(@PathVariable String status) {
-        logger.info("Getting s by status: {}", status);
-        List<ProductDTO> products = productService.findByStatus(status);
+    @GetMapping("/active/{active}")
+    public ResponseEntity<Page<ProductDTO>> getByActive(@PathVariable Boolean active,
+            @PageableDefault(size = 10) Pageable pageable) {
+        logger.info("Getting products by active: {}", active);
+        Page<ProductDTO> products = productService.findByActive(active, pageable);
         return ResponseEntity.ok(products);
     }
 
+    // Stock reservation: descuento atómico en la base de datos, sin leer y reescribir el producto
+    @PostMapping("/{id}/reserve")
+    public ResponseEntity<StockReservationResultDTO> reserveStock(@PathVariable Long id,
+            @RequestParam(defaultValue = "1") Integer quantity) {
+        logger.info("Reserving {} units of product {}", quantity, id);
+        try {
+            StockReservationResultDTO result = productService.reserveStock(id, quantity);
+            return switch (result.getStatus()) {
+                case RESERVED -> ResponseEntity.ok(result);
+                case INSUFFICIENT_STOCK -> ResponseEntity.status(HttpStatus.CONFLICT).body(result);
+                case NOT_FOUND -> ResponseEntity.notFound().build();
+            };
+        } catch (IllegalArgumentException e) {
+            logger.error("Validation error reserving stock: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Resultado por línea: una sin stock no impide reservar las demás
+    @PostMapping("/reserve")
+    public ResponseEntity<List<StockReservationResultDTO>> reserveStocks(
+            @RequestBody List<@Valid StockReservationDTO> reservations) {
+        logger.info("Reserving stock for {} items", reservations.size());
+        try {
+            return ResponseEntity.ok(productService.reserveStock(reservations));
+        } catch (IllegalArgumentException e) {
+            logger.error("Validation error reserving stock: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     // Health check endpoint
     @GetMapping("/health")
     public ResponseEntity<String> health() {
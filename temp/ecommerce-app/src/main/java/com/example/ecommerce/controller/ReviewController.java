@@ -1,11 +1,18 @@
 package com.example.ecommerce.controller;
 
 import com.example.ecommerce.dto.ReviewDTO;
+import com.example.ecommerce.dto.ScrollDTO;
 import com.example.ecommerce.service.ReviewService;
+import com.fasterxml.jackson.databind.JsonNode;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
@@ -43,11 +50,25 @@ public class ReviewController {
         return ResponseEntity.ok(reviews);
     }
 
+    @GetMapping("/scroll")
+    public ResponseEntity<ScrollDTO<ReviewDTO>> scrollReviews(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String sort) {
+        logger.info("Scrolling reviews after {} sorted by {}", after, sort);
+        try {
+            return ResponseEntity.ok(reviewService.scroll(after, size, sort));
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid scroll request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ReviewDTO> getReviewById(@PathVariable Long id) {
         logger.info("Getting  by id: {}", id);
         Optional<ReviewDTO> review = reviewService.findById(id);
-        return review.map(ResponseEntity::ok)
+        return review.map(dto -> ResponseEntity.ok().eTag(VersionETag.of(dto.getVersion())).body(dto))
                            .orElse(ResponseEntity.notFound().build());
     }
 
@@ -68,38 +89,133 @@ public class ReviewController {
 
     @PutMapping("/{id}")
     public ResponseEntity<ReviewDTO> updateReview(@PathVariable Long id, 
+                                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                                              @Valid @RequestBody ReviewDTO reviewDTO) {
         logger.info("Updating  with id: {}", id);
         try {
+            // If-Match (el ETag de GET) prevalece sobre la versión del cuerpo
+            if (ifMatch != null) {
+                reviewDTO.setVersion(VersionETag.parseIfMatch(ifMatch));
+            }
             ReviewDTO updatedReview = reviewService.update(id, reviewDTO);
-            return ResponseEntity.ok(updatedReview);
+            return ResponseEntity.ok().eTag(VersionETag.of(updatedReview.getVersion())).body(updatedReview);
         } catch (IllegalArgumentException e) {
             logger.error("Validation error updating : {}", e.getMessage());
             return ResponseEntity.badRequest().build();
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("Version conflict updating : {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Constraint violation updating : {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             logger.error("Error updating : {}", e.getMessage());
             return ResponseEntity.notFound().build();
         }
     }
 
+    /**
+     * JSON Merge Patch (RFC 7396): solo se modifican los campos enviados; null borra el valor.
+     */
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<ReviewDTO> patchReview(@PathVariable Long id,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                 @RequestBody JsonNode patch) {
+        logger.info("Patching  with id: {}", id);
+        try {
+            Long expectedVersion = ifMatch != null ? VersionETag.parseIfMatch(ifMatch) : null;
+            ReviewDTO patchedReview = reviewService.patch(id, patch, expectedVersion);
+            return ResponseEntity.ok().eTag(VersionETag.of(patchedReview.getVersion())).body(patchedReview);
+        } catch (IllegalArgumentException e) {
+            logger.error("Validation error patching : {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("Version conflict patching : {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Constraint violation patching : {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RuntimeException e) {
+            logger.error("Error patching : {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteReview(@PathVariable Long id) {
         logger.info("Deleting  with id: {}", id);
         try {
             reviewService.deleteById(id);
             return ResponseEntity.noContent().build();
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Constraint violation deleting : {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             logger.error("Error deleting : {}", e.getMessage());
             return ResponseEntity.notFound().build();
         }
     }
 
-    // Custom endpoints
-    @GetMapping("/status/{status}")
-    public ResponseEntity<List<ReviewDTO>> getByStatus(@PathVariable String status) {
-        logger.info("Getting s by status: {}", status);
-        List<ReviewDTO> reviews = reviewService.findByStatus(status);
-        return ResponseEntity.ok(reviews);
+    // Batch operations: validan el lote completo y lo escriben en una sola transacción
+    @PostMapping("/batch")
+    public ResponseEntity<List<ReviewDTO>> createReviews(@RequestBody List<@Valid ReviewDTO> reviewDTOs) {
+        logger.info("Creating {} reviews", reviewDTOs.size());
+        try {
+            List<ReviewDTO> savedReviews = reviewService.saveAll(reviewDTOs);
+            return ResponseEntity.status(HttpStatus.CREATED).body(savedReviews);
+        } catch (IllegalArgumentException e) {
+            logger.error("Validation error creating reviews: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PutMapping("/batch")
+    public ResponseEntity<List<ReviewDTO>> updateReviews(@RequestBody List<@Valid ReviewDTO> reviewDTOs) {
+        logger.info("Updating {} reviews", reviewDTOs.size());
+        try {
+            List<ReviewDTO> updatedReviews = reviewService.updateAll(reviewDTOs);
+            return ResponseEntity.ok(updatedReviews);
+        } catch (IllegalArgumentException e) {
+            logger.error("Validation error updating reviews: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("Version conflict updating reviews: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Constraint violation updating reviews: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RuntimeException e) {
+            logger.error("Error updating reviews: {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @DeleteMapping("/batch")
+    public ResponseEntity<Void> deleteReviews(@RequestBody List<Long> ids) {
+        logger.info("Deleting {} reviews", ids.size());
+        try {
+            reviewService.deleteAllById(ids);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            logger.error("Validation error deleting reviews: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Constraint violation deleting reviews: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RuntimeException e) {
+            logger.error("Error deleting reviews: {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // Export: vuelca la tabla completa como NDJSON en streaming
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportReviews() {
+        logger.info("Exporting all reviews");
+        StreamingResponseBody body = out -> reviewService.exportTo(out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     // Health check endpoint
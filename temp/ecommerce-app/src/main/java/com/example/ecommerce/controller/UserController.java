@@ -1,11 +1,18 @@
 package com.example.ecommerce.controller;
 
 import com.example.ecommerce.dto.UserDTO;
+import com.example.ecommerce.dto.ScrollDTO;
 import com.example.ecommerce.service.UserService;
+import com.fasterxml.jackson.databind.JsonNode;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
@@ -43,11 +50,25 @@ public class UserController {
         return ResponseEntity.ok(users);
     }
 
+    @GetMapping("/scroll")
+    public ResponseEntity<ScrollDTO<UserDTO>> scrollUsers(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String sort) {
+        logger.info("Scrolling users after {} sorted by {}", after, sort);
+        try {
+            return ResponseEntity.ok(userService.scroll(after, size, sort));
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid scroll request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<UserDTO> getUserById(@PathVariable Long id) {
         logger.info("Getting  by id: {}", id);
         Optional<UserDTO> user = userService.findById(id);
-        return user.map(ResponseEntity::ok)
+        return user.map(dto -> ResponseEntity.ok().eTag(VersionETag.of(dto.getVersion())).body(dto))
                            .orElse(ResponseEntity.notFound().build());
     }
 
@@ -68,37 +89,141 @@ public class UserController {
 
     @PutMapping("/{id}")
     public ResponseEntity<UserDTO> updateUser(@PathVariable Long id, 
+                                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                                              @Valid @RequestBody UserDTO userDTO) {
         logger.info("Updating  with id: {}", id);
         try {
+            // If-Match (el ETag de GET) prevalece sobre la versión del cuerpo
+            if (ifMatch != null) {
+                userDTO.setVersion(VersionETag.parseIfMatch(ifMatch));
+            }
             UserDTO updatedUser = userService.update(id, userDTO);
-            return ResponseEntity.ok(updatedUser);
+            return ResponseEntity.ok().eTag(VersionETag.of(updatedUser.getVersion())).body(updatedUser);
         } catch (IllegalArgumentException e) {
             logger.error("Validation error updating : {}", e.getMessage());
             return ResponseEntity.badRequest().build();
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("Version conflict updating : {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Constraint violation updating : {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             logger.error("Error updating : {}", e.getMessage());
             return ResponseEntity.notFound().build();
         }
     }
 
+    /**
+     * JSON Merge Patch (RFC 7396): solo se modifican los campos enviados; null borra el valor.
+     */
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<UserDTO> patchUser(@PathVariable Long id,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                             @RequestBody JsonNode patch) {
+        logger.info("Patching  with id: {}", id);
+        try {
+            Long expectedVersion = ifMatch != null ? VersionETag.parseIfMatch(ifMatch) : null;
+            UserDTO patchedUser = userService.patch(id, patch, expectedVersion);
+            return ResponseEntity.ok().eTag(VersionETag.of(patchedUser.getVersion())).body(patchedUser);
+        } catch (IllegalArgumentException e) {
+            logger.error("Validation error patching : {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("Version conflict patching : {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Constraint violation patching : {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RuntimeException e) {
+            logger.error("Error patching : {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteUser(@PathVariable Long id) {
         logger.info("Deleting  with id: {}", id);
         try {
             userService.deleteById(id);
             return ResponseEntity.noContent().build();
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Constraint violation deleting : {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             logger.error("Error deleting : {}", e.getMessage());
             return ResponseEntity.notFound().build();
         }
     }
 
+    // Batch operations: validan el lote completo y lo escriben en una sola transacción
+    @PostMapping("/batch")
+    public ResponseEntity<List<UserDTO>> createUsers(@RequestBody List<@Valid UserDTO> userDTOs) {
+        logger.info("Creating {} users", userDTOs.size());
+        try {
+            List<UserDTO> savedUsers = userService.saveAll(userDTOs);
+            return ResponseEntity.status(HttpStatus.CREATED).body(savedUsers);
+        } catch (IllegalArgumentException e) {
+            logger.error("Validation error creating users: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PutMapping("/batch")
+    public ResponseEntity<List<UserDTO>> updateUsers(@RequestBody List<@Valid UserDTO> userDTOs) {
+        logger.info("Updating {} users", userDTOs.size());
+        try {
+            List<UserDTO> updatedUsers = userService.updateAll(userDTOs);
+            return ResponseEntity.ok(updatedUsers);
+        } catch (IllegalArgumentException e) {
+            logger.error("Validation error updating users: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("Version conflict updating users: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Constraint violation updating users: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RuntimeException e) {
+            logger.error("Error updating users: {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @DeleteMapping("/batch")
+    public ResponseEntity<Void> deleteUsers(@RequestBody List<Long> ids) {
+        logger.info("Deleting {} users", ids.size());
+        try {
+            userService.deleteAllById(ids);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            logger.error("Validation error deleting users: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Constraint violation deleting users: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RuntimeException e) {
+            logger.error("Error deleting users: {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // Export: vuelca la tabla completa como NDJSON en streaming
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        logger.info("Exporting all users");
+        StreamingResponseBody body = out -> userService.exportTo(out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
     // Custom endpoints
-    @GetMapping("/status/{status}")
-    public ResponseEntity<List<UserDTO>> getByStatus(@PathVariable String status) {
-        logger.info("Getting s by status: {}", status);
-        List<UserDTO> users = userService.findByStatus(status);
+    @GetMapping("/active/{active}")
+    public ResponseEntity<Page<UserDTO>> getByActive(@PathVariable Boolean active,
+            @PageableDefault(size = 10) Pageable pageable) {
+        logger.info("Getting users by active: {}", active);
+        Page<UserDTO> users = userService.findByActive(active, pageable);
         return ResponseEntity.ok(users);
     }
 
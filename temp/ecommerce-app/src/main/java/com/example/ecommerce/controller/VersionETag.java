@@ -0,0 +1,36 @@
+package com.example.ecommerce.controller;
+
+/**
+ * ETag fuerte a partir de la columna @Version: la versión 3 se envía como "3".
+ * El cliente lo devuelve en If-Match al actualizar y el servicio rechaza el cambio
+ * si otra escritura incrementó la versión entretanto.
+ */
+final class VersionETag {
+
+    private VersionETag() {
+    }
+
+    static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Versión esperada según If-Match; null para "*" (cualquier versión).
+     *
+     * @throws IllegalArgumentException si no es un único ETag de versión
+     */
+    static Long parseIfMatch(String ifMatch) {
+        String tag = ifMatch.trim();
+        if (tag.equals("*")) {
+            return null;
+        }
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.valueOf(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException e) {
+                // cae al error de abajo
+            }
+        }
+        throw new IllegalArgumentException("If-Match must be a single version ETag such as \"3\", got: " + ifMatch);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.ecommerce.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.function.ToIntFunction;
+
+/**
+ * Métricas Micrometer del enrutado: conexiones servidas por destino, lecturas devueltas al
+ * primario, retraso y disponibilidad de cada réplica y ocupación de cada pool.
+ */
+public class DataSourceRoutingMetrics implements MeterBinder {
+
+    private final ReadWriteRoutingDataSource routingDataSource;
+    private final HikariDataSource primary;
+
+    public DataSourceRoutingMetrics(ReadWriteRoutingDataSource routingDataSource, HikariDataSource primary) {
+        this.routingDataSource = routingDataSource;
+        this.primary = primary;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        ReplicaSelector selector = routingDataSource.getReplicaSelector();
+        FunctionCounter.builder("datasource.routing.connections", routingDataSource,
+                        ReadWriteRoutingDataSource::getPrimaryCount)
+                .tags("target", ReadWriteRoutingDataSource.PRIMARY)
+                .description("Connections routed to each target")
+                .register(registry);
+        FunctionCounter.builder("datasource.routing.fallbacks", selector, ReplicaSelector::getFallbackCount)
+                .description("Read-only transactions sent to the primary because no replica was eligible")
+                .register(registry);
+        bindPool(registry, ReadWriteRoutingDataSource.PRIMARY, primary);
+        for (ReplicaSelector.Replica replica : selector.getReplicas()) {
+            FunctionCounter.builder("datasource.routing.connections", replica, ReplicaSelector.Replica::getRoutedCount)
+                    .tags("target", replica.getName())
+                    .description("Connections routed to each target")
+                    .register(registry);
+            Gauge.builder("datasource.routing.replica.lag", replica, ReplicaSelector.Replica::getLagMillis)
+                    .tags("replica", replica.getName())
+                    .description("Last measured replication lag")
+                    .baseUnit(BaseUnits.MILLISECONDS)
+                    .register(registry);
+            Gauge.builder("datasource.routing.replica.eligible", replica, r -> selector.isEligible(r) ? 1 : 0)
+                    .tags("replica", replica.getName())
+                    .description("1 when the replica is reachable and within the maximum lag")
+                    .register(registry);
+            bindPool(registry, replica.getName(), replica.getDataSource());
+        }
+    }
+
+    private void bindPool(MeterRegistry registry, String name, HikariDataSource dataSource) {
+        Tags tags = Tags.of("pool", name);
+        poolGauge(registry, "datasource.routing.pool.active", tags, dataSource, HikariPoolMXBean::getActiveConnections);
+        poolGauge(registry, "datasource.routing.pool.idle", tags, dataSource, HikariPoolMXBean::getIdleConnections);
+        poolGauge(registry, "datasource.routing.pool.pending", tags, dataSource,
+                HikariPoolMXBean::getThreadsAwaitingConnection);
+    }
+
+    private void poolGauge(MeterRegistry registry, String meter, Tags tags, HikariDataSource dataSource,
+                           ToIntFunction<HikariPoolMXBean> value) {
+        // El pool de Hikari arranca con la primera conexión; hasta entonces no hay MXBean
+        Gauge.builder(meter, dataSource, ds -> {
+                    HikariPoolMXBean pool = ds.getHikariPoolMXBean();
+                    return pool == null ? 0 : value.applyAsInt(pool);
+                })
+                .tags(tags)
+                .baseUnit(BaseUnits.CONNECTIONS)
+                .register(registry);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.ecommerce.datasource;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Las transacciones readOnly no escriben en el cache de segundo nivel: pueden servirse desde
+ * una réplica atrasada, y sus filas (o páginas del query cache) volverían a poblar las regiones
+ * con datos que una escritura acaba de invalidar.
+ *
+ * Se decide al empezar la transacción porque Hibernate fija si guarda en el query cache antes
+ * de pedir la conexión, cuando aún no se sabe a qué base irá. Se usa CacheMode.IGNORE y no GET:
+ * Hibernate 6.3 guarda igualmente en el query cache la página que no encontró con GET. Con
+ * open-in-view la sesión sobrevive a la transacción, así que el modo anterior se restaura al terminar.
+ */
+public class ReadOnlyCacheModeListener implements TransactionExecutionListener {
+
+    @Override
+    public void afterBegin(TransactionExecution transaction, Throwable beginFailure) {
+        if (beginFailure != null || !transaction.isNewTransaction() || !transaction.isReadOnly()
+                || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        for (Object resource : TransactionSynchronizationManager.getResourceMap().values()) {
+            if (resource instanceof EntityManagerHolder holder) {
+                bypassSecondLevelCache(holder.getEntityManager().unwrap(Session.class));
+            }
+        }
+    }
+
+    private static void bypassSecondLevelCache(Session session) {
+        CacheMode previous = session.getCacheMode();
+        if (!previous.isPutEnabled()) {
+            return;
+        }
+        session.setCacheMode(CacheMode.IGNORE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (session.isOpen()) {
+                    session.setCacheMode(previous);
+                }
+            }
+        });
+    }
+}
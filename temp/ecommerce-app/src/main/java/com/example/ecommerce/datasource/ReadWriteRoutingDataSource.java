@@ -0,0 +1,83 @@
+package com.example.ecommerce.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Envía las transacciones readOnly a una réplica y todo lo demás (escrituras, DDL, accesos
+ * sin transacción) al primario.
+ *
+ * La decisión se toma al pedir la conexión, así que debe usarse detrás de un
+ * LazyConnectionDataSourceProxy: JpaTransactionManager pide la conexión antes de marcar
+ * la transacción como readOnly, y el proxy retrasa la petición hasta la primera sentencia.
+ *
+ * Una réplica puede ir por detrás del primario, así que lo que se lee de ella no se guarda en
+ * ningún cache: las cargas que rellenan un cache de DTO van al primario con
+ * {@link #onPrimary(Supplier)} y las transacciones readOnly no usan el cache de segundo
+ * nivel ({@link ReadOnlyCacheModeListener}).
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    private static final ThreadLocal<Boolean> PRIMARY_READS = new ThreadLocal<>();
+
+    private final ReplicaSelector replicaSelector;
+    private final LongAdder primaryCount = new LongAdder();
+
+    public ReadWriteRoutingDataSource(DataSource primary, ReplicaSelector replicaSelector) {
+        this.replicaSelector = replicaSelector;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        replicaSelector.getReplicas().forEach(replica -> targets.put(replica.getName(), replica.getDataSource()));
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+    }
+
+    /**
+     * Ejecuta las lecturas de reads en el primario aunque la transacción sea readOnly. Solo
+     * afecta a las conexiones pedidas dentro: si la transacción ya tiene una, se sigue usando.
+     */
+    public static <T> T onPrimary(Supplier<T> reads) {
+        if (PRIMARY_READS.get() != null) {
+            return reads.get();
+        }
+        PRIMARY_READS.set(Boolean.TRUE);
+        try {
+            return reads.get();
+        } finally {
+            PRIMARY_READS.remove();
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (PRIMARY_READS.get() == null
+                && TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            ReplicaSelector.Replica replica = replicaSelector.select();
+            if (replica != null) {
+                return replica.getName();
+            }
+        }
+        primaryCount.increment();
+        return PRIMARY;
+    }
+
+    public ReplicaSelector getReplicaSelector() {
+        return replicaSelector;
+    }
+
+    /**
+     * Conexiones servidas por el primario, incluidas las lecturas que no pudieron ir a una réplica.
+     */
+    public long getPrimaryCount() {
+        return primaryCount.sum();
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.ecommerce.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Elige la réplica que atiende una transacción de solo lectura.
+ *
+ * Solo se consideran las réplicas disponibles y con un retraso menor que maxLag, medido
+ * periódicamente por {@link #checkReplicas()}. Si ninguna cumple, {@link #select()} devuelve
+ * null y la lectura va al primario.
+ */
+public class ReplicaSelector implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaSelector.class);
+
+    public enum Strategy {
+        ROUND_ROBIN,
+        /** La réplica con menos conexiones en uso en su pool */
+        LEAST_LOADED
+    }
+
+    private final List<Replica> replicas;
+    private final Strategy strategy;
+    private final long maxLagMillis;
+    private final String lagQuery;
+    private final AtomicInteger next = new AtomicInteger();
+    private final LongAdder fallbackCount = new LongAdder();
+
+    public ReplicaSelector(List<Replica> replicas, Strategy strategy, Duration maxLag, String lagQuery) {
+        this.replicas = List.copyOf(replicas);
+        this.strategy = strategy;
+        this.maxLagMillis = maxLag.toMillis();
+        this.lagQuery = lagQuery == null || lagQuery.isBlank() ? null : lagQuery;
+    }
+
+    public Replica select() {
+        List<Replica> eligible = replicas.stream().filter(this::isEligible).toList();
+        if (eligible.isEmpty()) {
+            fallbackCount.increment();
+            return null;
+        }
+        Replica replica = switch (strategy) {
+            case ROUND_ROBIN -> eligible.get(Math.floorMod(next.getAndIncrement(), eligible.size()));
+            case LEAST_LOADED -> eligible.stream().min(Comparator.comparingInt(Replica::getActiveConnections)).get();
+        };
+        replica.routedCount.increment();
+        return replica;
+    }
+
+    /**
+     * Comprueba que cada réplica responde y, si hay lag-query, su retraso respecto al primario.
+     */
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean wasEligible = isEligible(replica);
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                long lag = 0;
+                if (lagQuery != null) {
+                    try (ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                        lag = resultSet.next() ? resultSet.getLong(1) : 0;
+                    }
+                } else {
+                    statement.execute("SELECT 1");
+                }
+                replica.lagMillis = lag;
+                replica.available = true;
+            } catch (SQLException | RuntimeException e) {
+                replica.available = false;
+                logger.debug("Replica '{}' check failed: {}", replica.name, e.getMessage());
+            }
+            if (wasEligible != isEligible(replica)) {
+                logger.warn("Replica '{}' {} reads (available={}, lag={} ms, max lag={} ms)", replica.name,
+                        isEligible(replica) ? "accepts" : "no longer accepts", replica.available,
+                        replica.lagMillis, maxLagMillis);
+            }
+        }
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Lecturas enviadas al primario porque ninguna réplica estaba disponible o al día.
+     */
+    public long getFallbackCount() {
+        return fallbackCount.sum();
+    }
+
+    public boolean isEligible(Replica replica) {
+        return replica.available && replica.lagMillis <= maxLagMillis;
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+
+    public static class Replica {
+
+        private final String name;
+        private final HikariDataSource dataSource;
+        private final LongAdder routedCount = new LongAdder();
+        private volatile boolean available = true;
+        private volatile long lagMillis;
+
+        public Replica(String name, HikariDataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public HikariDataSource getDataSource() {
+            return dataSource;
+        }
+
+        public long getRoutedCount() {
+            return routedCount.sum();
+        }
+
+        public boolean isAvailable() {
+            return available;
+        }
+
+        public long getLagMillis() {
+            return lagMillis;
+        }
+
+        public int getActiveConnections() {
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            return pool == null ? 0 : pool.getActiveConnections();
+        }
+    }
+}
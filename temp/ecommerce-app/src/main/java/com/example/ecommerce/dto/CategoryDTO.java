@@ -2,10 +2,13 @@ package com.example.ecommerce.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.*;
+import java.io.Serializable;
 import java.util.Objects;
 import java.time.LocalDateTime;
 
-public class CategoryDTO {
+public class CategoryDTO implements Serializable {
+    @JsonProperty("id")
+    private Long id;
     @NotBlank(message = "Name is required")
     @Size(max = 255, message = "Name must not exceed 255 characters")
     @JsonProperty("name")
@@ -17,6 +20,8 @@ public class CategoryDTO {
     @NotNull(message = "Active is required")
     @JsonProperty("active")
     private Boolean active;
+    @JsonProperty("version")
+    private Long version;
 
     // Constructors
     public CategoryDTO() {}
@@ -27,7 +32,21 @@ public class CategoryDTO {
         this.active = active;
     }
 
+    // Proyección JPQL ("select new ...CategoryDTO(...)"): el repositorio crea el DTO sin pasar por la entidad
+    public CategoryDTO(Long id, String name, String description, Boolean active, Long version) {
+        this(name, description, active);
+        this.id = id;
+        this.version = version;
+    }
+
     // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
     public String getName() {
         return name;
     }
@@ -51,6 +70,14 @@ public class CategoryDTO {
     }
 
     // Utility Methods
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -2,10 +2,13 @@ package com.example.ecommerce.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.*;
+import java.io.Serializable;
 import java.util.Objects;
 import java.time.LocalDateTime;
 
-public class OrderDTO {
+public class OrderDTO implements Serializable {
+    @JsonProperty("id")
+    private Long id;
     @NotBlank(message = "OrderNumber is required")
     @Size(max = 255, message = "OrderNumber must not exceed 255 characters")
     @JsonProperty("orderNumber")
@@ -22,6 +25,8 @@ public class OrderDTO {
     @Size(max = 255, message = "ShippingAddress must not exceed 255 characters")
     @JsonProperty("shippingAddress")
     private String shippingAddress;
+    @JsonProperty("version")
+    private Long version;
 
     // Constructors
     public OrderDTO() {}
@@ -34,7 +39,21 @@ public class OrderDTO {
         this.shippingAddress = shippingAddress;
     }
 
+    // Proyección JPQL ("select new ...OrderDTO(...)"): el repositorio crea el DTO sin pasar por la entidad
+    public OrderDTO(Long id, String orderNumber, LocalDateTime orderDate, String status, Double total, String shippingAddress, Long version) {
+        this(orderNumber, orderDate, status, total, shippingAddress);
+        this.id = id;
+        this.version = version;
+    }
+
     // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
     public String getOrderNumber() {
         return orderNumber;
     }
@@ -72,6 +91,14 @@ public class OrderDTO {
     }
 
     // Utility Methods
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,41 @@
+package com.example.ecommerce.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pedido con sus líneas y el producto de cada una (GET /api/order/{id}/detail).
+ */
+public class OrderDetailDTO implements Serializable {
+    @JsonProperty("order")
+    private OrderDTO order;
+    @JsonProperty("items")
+    private List<OrderItemDetailDTO> items = new ArrayList<>();
+
+    // Constructors
+    public OrderDetailDTO() {}
+
+    public OrderDetailDTO(OrderDTO order, List<OrderItemDetailDTO> items) {
+        this.order = order;
+        this.items = items;
+    }
+
+    // Getters and Setters
+    public OrderDTO getOrder() {
+        return order;
+    }
+
+    public void setOrder(OrderDTO order) {
+        this.order = order;
+    }
+
+    public List<OrderItemDetailDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<OrderItemDetailDTO> items) {
+        this.items = items;
+    }
+}
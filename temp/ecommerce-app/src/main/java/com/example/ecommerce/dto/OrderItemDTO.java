@@ -2,10 +2,13 @@ package com.example.ecommerce.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.*;
+import java.io.Serializable;
 import java.util.Objects;
 import java.time.LocalDateTime;
 
-public class OrderItemDTO {
+public class OrderItemDTO implements Serializable {
+    @JsonProperty("id")
+    private Long id;
     @NotNull(message = "Quantity is required")
     @Min(value = 0, message = "Quantity must be greater than or equal to 0")
     @JsonProperty("quantity")
@@ -14,6 +17,8 @@ public class OrderItemDTO {
     private Double unitPrice;
     @JsonProperty("subtotal")
     private Double subtotal;
+    @JsonProperty("version")
+    private Long version;
 
     // Constructors
     public OrderItemDTO() {}
@@ -24,7 +29,21 @@ public class OrderItemDTO {
         this.subtotal = subtotal;
     }
 
+    // Proyección JPQL ("select new ...OrderItemDTO(...)"): el repositorio crea el DTO sin pasar por la entidad
+    public OrderItemDTO(Long id, Integer quantity, Double unitPrice, Double subtotal, Long version) {
+        this(quantity, unitPrice, subtotal);
+        this.id = id;
+        this.version = version;
+    }
+
     // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
     public Integer getQuantity() {
         return quantity;
     }
@@ -48,6 +67,14 @@ public class OrderItemDTO {
     }
 
     // Utility Methods
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,39 @@
+package com.example.ecommerce.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.io.Serializable;
+
+/**
+ * Línea de un pedido junto con su producto (null si la línea no tiene producto).
+ */
+public class OrderItemDetailDTO implements Serializable {
+    @JsonProperty("item")
+    private OrderItemDTO item;
+    @JsonProperty("product")
+    private ProductDTO product;
+
+    // Constructors
+    public OrderItemDetailDTO() {}
+
+    public OrderItemDetailDTO(OrderItemDTO item, ProductDTO product) {
+        this.item = item;
+        this.product = product;
+    }
+
+    // Getters and Setters
+    public OrderItemDTO getItem() {
+        return item;
+    }
+
+    public void setItem(OrderItemDTO item) {
+        this.item = item;
+    }
+
+    public ProductDTO getProduct() {
+        return product;
+    }
+
+    public void setProduct(ProductDTO product) {
+        this.product = product;
+    }
+}
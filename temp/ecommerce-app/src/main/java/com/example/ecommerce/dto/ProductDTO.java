@@ -2,10 +2,13 @@ package com.example.ecommerce.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.*;
+import java.io.Serializable;
 import java.util.Objects;
 import java.time.LocalDateTime;
 
-public class ProductDTO {
+public class ProductDTO implements Serializable {
+    @JsonProperty("id")
+    private Long id;
     @NotBlank(message = "Name is required")
     @Size(max = 255, message = "Name must not exceed 255 characters")
     @JsonProperty("name")
@@ -27,6 +30,8 @@ public class ProductDTO {
     @NotNull(message = "Active is required")
     @JsonProperty("active")
     private Boolean active;
+    @JsonProperty("version")
+    private Long version;
 
     // Constructors
     public ProductDTO() {}
@@ -40,7 +45,21 @@ public class ProductDTO {
         this.active = active;
     }
 
+    // Proyección JPQL ("select new ...ProductDTO(...)"): el repositorio crea el DTO sin pasar por la entidad
+    public ProductDTO(Long id, String name, String description, Double price, Integer stock, String sku, Boolean active, Long version) {
+        this(name, description, price, stock, sku, active);
+        this.id = id;
+        this.version = version;
+    }
+
     // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
     public String getName() {
         return name;
     }
@@ -85,6 +104,14 @@ public class ProductDTO {
     }
 
     // Utility Methods
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -2,10 +2,13 @@ package com.example.ecommerce.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.*;
+import java.io.Serializable;
 import java.util.Objects;
 import java.time.LocalDateTime;
 
-public class ReviewDTO {
+public class ReviewDTO implements Serializable {
+    @JsonProperty("id")
+    private Long id;
     @NotNull(message = "Rating is required")
     @Min(value = 0, message = "Rating must be greater than or equal to 0")
     @JsonProperty("rating")
@@ -16,6 +19,8 @@ public class ReviewDTO {
     private String comment;
     @JsonProperty("reviewDate")
     private LocalDateTime reviewDate;
+    @JsonProperty("version")
+    private Long version;
 
     // Constructors
     public ReviewDTO() {}
@@ -26,7 +31,21 @@ public class ReviewDTO {
         this.reviewDate = reviewDate;
     }
 
+    // Proyección JPQL ("select new ...ReviewDTO(...)"): el repositorio crea el DTO sin pasar por la entidad
+    public ReviewDTO(Long id, Integer rating, String comment, LocalDateTime reviewDate, Long version) {
+        this(rating, comment, reviewDate);
+        this.id = id;
+        this.version = version;
+    }
+
     // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
     public Integer getRating() {
         return rating;
     }
@@ -50,6 +69,14 @@ public class ReviewDTO {
     }
 
     // Utility Methods
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
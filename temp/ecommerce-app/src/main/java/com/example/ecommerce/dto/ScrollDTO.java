@@ -0,0 +1,51 @@
+package com.example.ecommerce.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+
+/**
+ * Página de una consulta keyset (/scroll). nextCursor es opaco y se envía como "after"
+ * para pedir la página siguiente; es null cuando no hay más resultados.
+ */
+public class ScrollDTO<T> {
+    @JsonProperty("content")
+    private List<T> content;
+    @JsonProperty("nextCursor")
+    private String nextCursor;
+    @JsonProperty("hasNext")
+    private boolean hasNext;
+
+    // Constructors
+    public ScrollDTO() {}
+
+    public ScrollDTO(List<T> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.hasNext = nextCursor != null;
+    }
+
+    // Getters and Setters
+    public List<T> getContent() {
+        return content;
+    }
+
+    public void setContent(List<T> content) {
+        this.content = content;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    public void setHasNext(boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.ecommerce.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+/**
+ * Línea de una reserva de stock: unidades a descontar de un producto.
+ */
+public class StockReservationDTO {
+    @NotNull(message = "Product id is required")
+    @JsonProperty("productId")
+    private Long productId;
+    @NotNull(message = "Quantity is required")
+    @Positive(message = "Quantity must be greater than 0")
+    @JsonProperty("quantity")
+    private Integer quantity;
+
+    // Constructors
+    public StockReservationDTO() {}
+
+    public StockReservationDTO(Long productId, Integer quantity) {
+        this.productId = productId;
+        this.quantity = quantity;
+    }
+
+    // Getters and Setters
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
+    @Override
+    public String toString() {
+        return "StockReservationDTO{productId=" + productId + ", quantity=" + quantity + "}";
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.ecommerce.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Resultado de una línea de reserva. remainingStock es el stock tras la reserva
+ * (o el actual si no se pudo reservar); null si el producto no existe.
+ */
+public class StockReservationResultDTO {
+
+    public enum Status {
+        RESERVED,
+        INSUFFICIENT_STOCK,
+        NOT_FOUND
+    }
+
+    @JsonProperty("productId")
+    private Long productId;
+    @JsonProperty("quantity")
+    private Integer quantity;
+    @JsonProperty("status")
+    private Status status;
+    @JsonProperty("remainingStock")
+    private Integer remainingStock;
+
+    // Constructors
+    public StockReservationResultDTO() {}
+
+    public StockReservationResultDTO(Long productId, Integer quantity, Status status, Integer remainingStock) {
+        this.productId = productId;
+        this.quantity = quantity;
+        this.status = status;
+        this.remainingStock = remainingStock;
+    }
+
+    // Getters and Setters
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public Integer getRemainingStock() {
+        return remainingStock;
+    }
+
+    public void setRemainingStock(Integer remainingStock) {
+        this.remainingStock = remainingStock;
+    }
+}
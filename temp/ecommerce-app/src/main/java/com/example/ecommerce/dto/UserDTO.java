@@ -2,10 +2,13 @@ package com.example.ecommerce.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.*;
+import java.io.Serializable;
 import java.util.Objects;
 import java.time.LocalDateTime;
 
-public class UserDTO {
+public class UserDTO implements Serializable {
+    @JsonProperty("id")
+    private Long id;
     @NotBlank(message = "Email is required")
     @Size(max = 255, message = "Email must not exceed 255 characters")
     @JsonProperty("email")
@@ -33,6 +36,8 @@ public class UserDTO {
     @NotNull(message = "Active is required")
     @JsonProperty("active")
     private Boolean active;
+    @JsonProperty("version")
+    private Long version;
 
     // Constructors
     public UserDTO() {}
@@ -47,7 +52,21 @@ public class UserDTO {
         this.active = active;
     }
 
+    // Proyección JPQL ("select new ...UserDTO(...)"): el repositorio crea el DTO sin pasar por la entidad
+    public UserDTO(Long id, String email, String username, String password, String firstName, String lastName, String phone, Boolean active, Long version) {
+        this(email, username, password, firstName, lastName, phone, active);
+        this.id = id;
+        this.version = version;
+    }
+
     // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
     public String getEmail() {
         return email;
     }
@@ -99,6 +118,14 @@ public class UserDTO {
     }
 
     // Utility Methods
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
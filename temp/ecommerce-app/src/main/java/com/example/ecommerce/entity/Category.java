@@ -2,16 +2,26 @@ package com.example.ecommerce.entity;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 import java.util.*;
 import java.util.Objects;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "category")
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = "categoryEntity")
+@Table(name = "category", indexes = {
+        @Index(name = "idx_category_active", columnList = "active"),
+        @Index(name = "idx_category_name_id", columnList = "name, id")
+})
 public class Category {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "category_seq")
+    @SequenceGenerator(name = "category_seq", sequenceName = "category_seq", allocationSize = 50)
     private Long id;
     @Column(nullable = false)
     @NotNull
@@ -29,6 +39,9 @@ public class Category {
     
     private Boolean active;
 
+    @Version
+    private Long version;
+
     // Constructors
     public Category() {}
 
@@ -68,6 +81,14 @@ public class Category {
         this.active = active;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // Business Methods
     public boolean isValid() {
         return true;
@@ -2,6 +2,8 @@ package com.example.ecommerce.entity;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.DynamicUpdate;
 import java.util.*;
 import java.util.Objects;
 import java.util.ArrayList;
@@ -9,10 +11,29 @@ import java.util.List;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "orders")
+@DynamicUpdate
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_status", columnList = "status"),
+        @Index(name = "idx_orders_order_date_id", columnList = "order_date, id"),
+        @Index(name = "idx_orders_total_id", columnList = "total, id")
+})
+@NamedEntityGraph(name = "Order.items", attributeNodes = @NamedAttributeNode("items"))
+// Detalle del pedido: líneas y sus productos en una sola consulta
+@NamedEntityGraph(name = "Order.detail",
+        attributeNodes = @NamedAttributeNode(value = "items", subgraph = "items.product"),
+        subgraphs = @NamedSubgraph(name = "items.product", attributeNodes = @NamedAttributeNode("product")))
+// Escrituras de una sola sentencia (OrderRepository): Hibernate compila las consultas con nombre al
+// arrancar, mientras que Spring Data 3.2 vuelve a analizar el JPQL de un @Query en cada llamada
+@NamedQuery(name = "Order.updateById", query = "update Order o set o.orderNumber = :orderNumber, "
+        + "o.orderDate = :orderDate, o.status = :status, o.total = :total, o.shippingAddress = :shippingAddress, "
+        + "o.version = o.version + 1 where o.id = :id and o.version = coalesce(:version, o.version)")
+@NamedQuery(name = "Order.removeById", query = "delete from Order o where o.id = :id")
+@NamedQuery(name = "Order.removeItemsById", query = "delete from OrderItem x where x.order.id = :id")
+@NamedQuery(name = "Order.findItemIdsById", query = "select x.id from OrderItem x where x.order.id = :id")
 public class Order {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
     @Column(nullable = false)
     @NotNull
@@ -40,6 +61,13 @@ public class Order {
     
     private String shippingAddress;
 
+    @Version
+    private Long version;
+
+    @OneToMany(mappedBy = "order", fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
+    private List<OrderItem> items = new ArrayList<>();
+
     // Constructors
     public Order() {}
 
@@ -95,6 +123,22 @@ public class Order {
         this.shippingAddress = shippingAddress;
     }
 
+    public List<OrderItem> getItems() {
+        return items;
+    }
+
+    public void setItems(List<OrderItem> items) {
+        this.items = items;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // Business Methods
     public boolean isValid() {
         return true;
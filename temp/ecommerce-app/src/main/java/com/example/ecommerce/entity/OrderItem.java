@@ -2,16 +2,31 @@ package com.example.ecommerce.entity;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import org.hibernate.annotations.DynamicUpdate;
 import java.util.*;
 import java.util.Objects;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "order_item")
+@DynamicUpdate
+@Table(name = "order_item", indexes = {
+        @Index(name = "idx_order_item_subtotal_id", columnList = "subtotal, id"),
+        @Index(name = "idx_order_item_order_id", columnList = "order_id"),
+        @Index(name = "idx_order_item_product_id", columnList = "product_id")
+})
+@NamedEntityGraph(name = "OrderItem.order", attributeNodes = @NamedAttributeNode("order"))
+@NamedEntityGraph(name = "OrderItem.product", attributeNodes = @NamedAttributeNode("product"))
+// Escrituras de una sola sentencia (OrderItemRepository): Hibernate compila las consultas con nombre al
+// arrancar, mientras que Spring Data 3.2 vuelve a analizar el JPQL de un @Query en cada llamada
+@NamedQuery(name = "OrderItem.updateById", query = "update OrderItem o set o.quantity = :quantity, "
+        + "o.unitPrice = :unitPrice, o.subtotal = :subtotal, "
+        + "o.version = o.version + 1 where o.id = :id and o.version = coalesce(:version, o.version)")
+@NamedQuery(name = "OrderItem.removeById", query = "delete from OrderItem o where o.id = :id")
 public class OrderItem {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_seq")
+    @SequenceGenerator(name = "order_item_seq", sequenceName = "order_item_seq", allocationSize = 50)
     private Long id;
     @Column(nullable = false)
     @NotNull
@@ -29,6 +44,16 @@ public class OrderItem {
     
     private Double subtotal;
 
+    @Version
+    private Long version;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "order_id")
+    private Order order;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_id")
+    private Product product;
+
     // Constructors
     public OrderItem() {}
 
@@ -68,6 +93,30 @@ public class OrderItem {
         this.subtotal = subtotal;
     }
 
+    public Order getOrder() {
+        return order;
+    }
+
+    public void setOrder(Order order) {
+        this.order = order;
+    }
+
+    public Product getProduct() {
+        return product;
+    }
+
+    public void setProduct(Product product) {
+        this.product = product;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // Business Methods
     public boolean isValid() {
         return true;
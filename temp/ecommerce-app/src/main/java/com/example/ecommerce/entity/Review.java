@@ -2,6 +2,7 @@ package com.example.ecommerce.entity;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import org.hibernate.annotations.DynamicUpdate;
 import java.util.*;
 import java.util.Objects;
 import java.util.ArrayList;
@@ -9,10 +10,23 @@ import java.util.List;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "review")
+@DynamicUpdate
+@Table(name = "review", indexes = {
+        @Index(name = "idx_review_review_date_id", columnList = "review_date, id"),
+        @Index(name = "idx_review_rating_id", columnList = "rating, id"),
+        @Index(name = "idx_review_product_id", columnList = "product_id")
+})
+@NamedEntityGraph(name = "Review.product", attributeNodes = @NamedAttributeNode("product"))
+// Escrituras de una sola sentencia (ReviewRepository): Hibernate compila las consultas con nombre al
+// arrancar, mientras que Spring Data 3.2 vuelve a analizar el JPQL de un @Query en cada llamada
+@NamedQuery(name = "Review.updateById", query = "update Review r set r.rating = :rating, "
+        + "r.comment = :comment, r.reviewDate = :reviewDate, "
+        + "r.version = r.version + 1 where r.id = :id and r.version = coalesce(:version, r.version)")
+@NamedQuery(name = "Review.removeById", query = "delete from Review r where r.id = :id")
 public class Review {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "review_seq")
+    @SequenceGenerator(name = "review_seq", sequenceName = "review_seq", allocationSize = 50)
     private Long id;
     @Column(nullable = false)
     @NotNull
@@ -30,6 +44,13 @@ public class Review {
     
     private LocalDateTime reviewDate;
 
+    @Version
+    private Long version;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_id")
+    private Product product;
+
     // Constructors
     public Review() {}
 
@@ -69,6 +90,22 @@ public class Review {
         this.reviewDate = reviewDate;
     }
 
+    public Product getProduct() {
+        return product;
+    }
+
+    public void setProduct(Product product) {
+        this.product = product;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // Business Methods
     public boolean isValid() {
         return true;
@@ -2,16 +2,27 @@ package com.example.ecommerce.entity;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import org.hibernate.annotations.DynamicUpdate;
 import java.util.*;
 import java.util.Objects;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "users")
+@DynamicUpdate
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_active", columnList = "active")
+})
+// Escrituras de una sola sentencia (UserRepository): Hibernate compila las consultas con nombre al
+// arrancar, mientras que Spring Data 3.2 vuelve a analizar el JPQL de un @Query en cada llamada
+@NamedQuery(name = "User.updateById", query = "update User u set u.email = :email, u.username = :username, "
+        + "u.password = :password, u.firstName = :firstName, u.lastName = :lastName, u.phone = :phone, "
+        + "u.active = :active, u.version = u.version + 1 where u.id = :id and u.version = coalesce(:version, u.version)")
+@NamedQuery(name = "User.removeById", query = "delete from User u where u.id = :id")
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
     @Column(nullable = false, unique = true)
     @NotNull
@@ -49,6 +60,9 @@ public class User {
     
     private Boolean active;
 
+    @Version
+    private Long version;
+
     // Constructors
     public User() {}
 
@@ -120,6 +134,14 @@ public class User {
         this.active = active;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // Business Methods
     public boolean isValid() {
         return true;
@@ -16,6 +16,8 @@ public class CategoryMapper {
         }
 
         CategoryDTO dto = new CategoryDTO();
+        dto.setId(entity.getId());
+        dto.setVersion(entity.getVersion());
         dto.setName(entity.getName());
         dto.setDescription(entity.getDescription());
         dto.setActive(entity.getActive());
@@ -16,6 +16,8 @@ public class OrderItemMapper {
         }
 
         OrderItemDTO dto = new OrderItemDTO();
+        dto.setId(entity.getId());
+        dto.setVersion(entity.getVersion());
         dto.setQuantity(entity.getQuantity());
         dto.setUnitPrice(entity.getUnitPrice());
         dto.setSubtotal(entity.getSubtotal());
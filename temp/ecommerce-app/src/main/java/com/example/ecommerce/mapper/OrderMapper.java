@@ -16,6 +16,8 @@ public class OrderMapper {
         }
 
         OrderDTO dto = new OrderDTO();
+        dto.setId(entity.getId());
+        dto.setVersion(entity.getVersion());
         dto.setOrderNumber(entity.getOrderNumber());
         dto.setOrderDate(entity.getOrderDate());
         dto.setStatus(entity.getStatus());
@@ -16,6 +16,8 @@ public class ProductMapper {
         }
 
         ProductDTO dto = new ProductDTO();
+        dto.setId(entity.getId());
+        dto.setVersion(entity.getVersion());
         dto.setName(entity.getName());
         dto.setDescription(entity.getDescription());
         dto.setPrice(entity.getPrice());
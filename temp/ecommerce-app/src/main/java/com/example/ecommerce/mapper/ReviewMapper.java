@@ -16,6 +16,8 @@ public class ReviewMapper {
         }
 
         ReviewDTO dto = new ReviewDTO();
+        dto.setId(entity.getId());
+        dto.setVersion(entity.getVersion());
         dto.setRating(entity.getRating());
         dto.setComment(entity.getComment());
         dto.setReviewDate(entity.getReviewDate());
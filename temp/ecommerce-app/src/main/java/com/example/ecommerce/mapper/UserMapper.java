@@ -16,6 +16,8 @@ public class UserMapper {
         }
 
         UserDTO dto = new UserDTO();
+        dto.setId(entity.getId());
+        dto.setVersion(entity.getVersion());
         dto.setEmail(entity.getEmail());
         dto.setUsername(entity.getUsername());
         dto.setPassword(entity.getPassword());
@@ -1,15 +1,58 @@
 package com.example.ecommerce.repository;
 
+import com.example.ecommerce.dto.CategoryDTO;
 import com.example.ecommerce.entity.Category;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
-    
 
-}
+    // Proyecciones de solo lectura: el DTO se construye en la consulta, sin entidades gestionadas
+    String PROJECTION = "select new com.example.ecommerce.dto.CategoryDTO(c.id, c.name, c.description, c.active, c.version) from Category c";
+
+    @Query(PROJECTION)
+    List<CategoryDTO> findAllProjectedBy();
+
+    // Páginas en el query cache de Hibernate: se invalidan con cualquier escritura en la tabla
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query(value = PROJECTION, countQuery = "select count(c) from Category c")
+    Page<CategoryDTO> findAllProjectedBy(Pageable pageable);
+
+    @Query(PROJECTION + " where c.id = :id")
+    Optional<CategoryDTO> findProjectedById(@Param("id") Long id);
+
+    @Query(PROJECTION + " where c.id in :ids")
+    List<CategoryDTO> findProjectedByIdIn(@Param("ids") Collection<Long> ids);
 
+    // Filtro indexado por active, paginado; el query cache guarda los ids y las entidades salen de la región L2
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Page<Category> findByActive(Boolean active, Pageable pageable);
+
+    // Paginación keyset: WHERE sobre la última clave vista, sin OFFSET ni COUNT
+    Window<Category> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
+    // Recorre la tabla completa con un cursor; usar dentro de una transacción y cerrar el Stream
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select c from Category c")
+    Stream<Category> streamAll();
+
+}
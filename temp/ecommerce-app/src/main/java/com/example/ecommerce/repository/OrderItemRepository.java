@@ -1,15 +1,71 @@
 package com.example.ecommerce.repository;
 
+import com.example.ecommerce.dto.OrderItemDTO;
 import com.example.ecommerce.entity.OrderItem;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
-    
 
-}
+    // Proyecciones de solo lectura: el DTO se construye en la consulta, sin entidades gestionadas
+    String PROJECTION = "select new com.example.ecommerce.dto.OrderItemDTO(o.id, o.quantity, o.unitPrice, o.subtotal, o.version) from OrderItem o";
+
+    @Query(PROJECTION)
+    List<OrderItemDTO> findAllProjectedBy();
+
+    @Query(value = PROJECTION, countQuery = "select count(o) from OrderItem o")
+    Page<OrderItemDTO> findAllProjectedBy(Pageable pageable);
+
+    @Query(PROJECTION + " where o.id = :id")
+    Optional<OrderItemDTO> findProjectedById(@Param("id") Long id);
+
+    @Query(PROJECTION + " where o.id in :ids")
+    List<OrderItemDTO> findProjectedByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Carga order en la misma consulta (grafo OrderItem.order)
+    @EntityGraph("OrderItem.order")
+    Optional<OrderItem> findWithOrderById(Long id);
 
+    // Carga product en la misma consulta (grafo OrderItem.product)
+    @EntityGraph("OrderItem.product")
+    Optional<OrderItem> findWithProductById(Long id);
+
+    // Paginación keyset: WHERE sobre la última clave vista, sin OFFSET ni COUNT
+    Window<OrderItem> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
+    // Recorre la tabla completa con un cursor; usar dentro de una transacción y cerrar el Stream
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select o from OrderItem o")
+    Stream<OrderItem> streamAll();
+
+    // Escrituras de una sola sentencia, sin SELECT previo ni merge (consultas con nombre en OrderItem):
+    // devuelven las filas afectadas, 0 = no existe o, con versión esperada, otra escritura la incrementó
+    @Modifying
+    int updateById(@Param("id") Long id, @Param("version") Long version, @Param("quantity") Integer quantity,
+                   @Param("unitPrice") Double unitPrice, @Param("subtotal") Double subtotal);
+
+    @Modifying
+    int removeById(@Param("id") Long id);
+
+}
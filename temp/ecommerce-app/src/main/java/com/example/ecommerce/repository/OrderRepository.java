@@ -1,15 +1,83 @@
 package com.example.ecommerce.repository;
 
+import com.example.ecommerce.dto.OrderDTO;
 import com.example.ecommerce.entity.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
-    
 
-}
+    // Proyecciones de solo lectura: el DTO se construye en la consulta, sin entidades gestionadas
+    String PROJECTION = "select new com.example.ecommerce.dto.OrderDTO(o.id, o.orderNumber, o.orderDate, o.status, o.total, o.shippingAddress, o.version) from Order o";
+
+    @Query(PROJECTION)
+    List<OrderDTO> findAllProjectedBy();
+
+    @Query(value = PROJECTION, countQuery = "select count(o) from Order o")
+    Page<OrderDTO> findAllProjectedBy(Pageable pageable);
+
+    @Query(PROJECTION + " where o.id = :id")
+    Optional<OrderDTO> findProjectedById(@Param("id") Long id);
+
+    @Query(PROJECTION + " where o.id in :ids")
+    List<OrderDTO> findProjectedByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Filtro indexado por status, paginado
+    Page<Order> findByStatus(String status, Pageable pageable);
+
+    // Carga items en la misma consulta (grafo Order.items)
+    @EntityGraph("Order.items")
+    Optional<Order> findWithItemsById(Long id);
+
+    // Pedido con sus líneas y los productos de cada línea, en una sola consulta
+    @EntityGraph("Order.detail")
+    Optional<Order> findDetailById(Long id);
 
+    // Paginación keyset: WHERE sobre la última clave vista, sin OFFSET ni COUNT
+    Window<Order> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
+    // Recorre la tabla completa con un cursor; usar dentro de una transacción y cerrar el Stream
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select o from Order o")
+    Stream<Order> streamAll();
+
+    // Escrituras de una sola sentencia, sin SELECT previo ni merge (consultas con nombre en Order):
+    // devuelven las filas afectadas, 0 = no existe o, con versión esperada, otra escritura la incrementó
+    @Modifying
+    int updateById(@Param("id") Long id, @Param("version") Long version,
+                   @Param("orderNumber") String orderNumber, @Param("orderDate") LocalDateTime orderDate,
+                   @Param("status") String status, @Param("total") Double total,
+                   @Param("shippingAddress") String shippingAddress);
+
+    @Modifying
+    int removeById(@Param("id") Long id);
+
+    // Las líneas de la composición, sin cargarlas: el DELETE masivo no aplica el cascade
+    @Modifying
+    int removeItemsById(@Param("id") Long id);
+
+    List<Long> findItemIdsById(@Param("id") Long id);
+
+}
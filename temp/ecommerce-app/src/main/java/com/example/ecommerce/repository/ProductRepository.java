@@ -1,15 +1,67 @@
 package com.example.ecommerce.repository;
 
+import com.example.ecommerce.dto.ProductDTO;
 import com.example.ecommerce.entity.Product;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
-    
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductStockRepository {
 
-}
+    // Proyecciones de solo lectura: el DTO se construye en la consulta, sin entidades gestionadas
+    String PROJECTION = "select new com.example.ecommerce.dto.ProductDTO(p.id, p.name, p.description, p.price, p.stock, p.sku, p.active, p.version) from Product p";
+
+    @Query(PROJECTION)
+    List<ProductDTO> findAllProjectedBy();
+
+    // Páginas en el query cache de Hibernate: se invalidan con cualquier escritura en la tabla
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query(value = PROJECTION, countQuery = "select count(p) from Product p")
+    Page<ProductDTO> findAllProjectedBy(Pageable pageable);
+
+    @Query(PROJECTION + " where p.id = :id")
+    Optional<ProductDTO> findProjectedById(@Param("id") Long id);
+
+    @Query(PROJECTION + " where p.id in :ids")
+    List<ProductDTO> findProjectedByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Filtro indexado por active, paginado; el query cache guarda los ids y las entidades salen de la región L2
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Page<Product> findByActive(Boolean active, Pageable pageable);
 
+    // Carga orderItems en la misma consulta (grafo Product.orderItems)
+    @EntityGraph("Product.orderItems")
+    Optional<Product> findWithOrderItemsById(Long id);
+
+    // Carga reviews en la misma consulta (grafo Product.reviews)
+    @EntityGraph("Product.reviews")
+    Optional<Product> findWithReviewsById(Long id);
+
+    // Paginación keyset: WHERE sobre la última clave vista, sin OFFSET ni COUNT
+    Window<Product> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
+    // Recorre la tabla completa con un cursor; usar dentro de una transacción y cerrar el Stream
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select p from Product p")
+    Stream<Product> streamAll();
+
+}
@@ -0,0 +1,18 @@
+package com.example.ecommerce.repository;
+
+import com.example.ecommerce.dto.StockReservationDTO;
+import java.util.List;
+
+/**
+ * Operaciones sobre el stock que no pasan por la entidad Product (ver ProductStockRepositoryImpl).
+ */
+public interface ProductStockRepository {
+
+    /**
+     * Descuenta el stock de cada línea solo si alcanza, en un único batch de UPDATE condicionales.
+     * Debe ejecutarse dentro de una transacción.
+     *
+     * @return por cada línea, en el mismo orden, si se descontó el stock
+     */
+    boolean[] reserveStock(List<StockReservationDTO> items);
+}
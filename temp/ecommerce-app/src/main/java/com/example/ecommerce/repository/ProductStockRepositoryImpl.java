@@ -0,0 +1,90 @@
+package com.example.ecommerce.repository;
+
+import com.example.ecommerce.dto.StockReservationDTO;
+import com.example.ecommerce.entity.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reserva de stock con UPDATE ... WHERE stock >= ?: la comprobación y el descuento son una sola
+ * sentencia, así que dos reservas concurrentes sobre la misma fila se serializan en la base de
+ * datos y ninguna lee un stock ya gastado. Sin SELECT previo ni bloqueo en la aplicación.
+ * Incrementa @Version: una edición basada en una lectura anterior a la reserva da conflicto.
+ */
+public class ProductStockRepositoryImpl implements ProductStockRepository {
+
+    private static final String RESERVE_SQL = "update product set stock = stock - ?, version = version + 1 where id = ? and stock >= ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public boolean[] reserveStock(List<StockReservationDTO> items) {
+        // Cambios pendientes de la sesión antes de escribir por JDBC en la misma transacción
+        entityManager.flush();
+        int[] counts = jdbcTemplate.batchUpdate(RESERVE_SQL, items.stream()
+                .map(item -> new Object[]{item.getQuantity(), item.getProductId(), item.getQuantity()})
+                .toList());
+        boolean[] reserved = new boolean[counts.length];
+        Set<Long> changed = new HashSet<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == Statement.SUCCESS_NO_INFO) {
+                throw new IllegalStateException("JDBC driver did not report update counts for the stock batch");
+            }
+            reserved[i] = counts[i] > 0;
+            if (reserved[i]) {
+                changed.add(items.get(i).getProductId());
+            }
+        }
+        if (!changed.isEmpty()) {
+            evictSecondLevelCache(changed);
+        }
+        return reserved;
+    }
+
+    /**
+     * El UPDATE no pasa por Hibernate: la región de Product y el query cache no se enteran solos.
+     * Se expulsan solo las filas reservadas, ahora y de nuevo tras el commit por si otra transacción
+     * volvió a cargar el valor anterior entretanto. Para el query cache se marca la tabla product
+     * como modificada, igual que hace Hibernate con sus propias escrituras: las consultas de otras
+     * tablas siguen cacheadas. preInvalidate impide guardar páginas de product hasta el final de
+     * la transacción, e invalidate las da por caducadas al terminar.
+     */
+    private void evictSecondLevelCache(Set<Long> ids) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        CacheImplementor cache = session.getFactory().getCache();
+        String[] spaces = session.getFactory().getMappingMetamodel()
+                .getEntityDescriptor(Product.class).getSynchronizationSpaces();
+        Runnable evictRows = () -> ids.forEach(id -> cache.evictEntityData(Product.class, id));
+        evictRows.run();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.getTimestampsCache().invalidate(spaces, session);
+            return;
+        }
+        cache.getTimestampsCache().preInvalidate(spaces, session);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evictRows.run();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                cache.getTimestampsCache().invalidate(spaces, session);
+            }
+        });
+    }
+}
@@ -1,15 +1,68 @@
 package com.example.ecommerce.repository;
 
+import com.example.ecommerce.dto.ReviewDTO;
 import com.example.ecommerce.entity.Review;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ReviewRepository extends JpaRepository<Review, Long> {
-    
 
-}
+    // Proyecciones de solo lectura: el DTO se construye en la consulta, sin entidades gestionadas
+    String PROJECTION = "select new com.example.ecommerce.dto.ReviewDTO(r.id, r.rating, r.comment, r.reviewDate, r.version) from Review r";
+
+    @Query(PROJECTION)
+    List<ReviewDTO> findAllProjectedBy();
+
+    @Query(value = PROJECTION, countQuery = "select count(r) from Review r")
+    Page<ReviewDTO> findAllProjectedBy(Pageable pageable);
+
+    @Query(PROJECTION + " where r.id = :id")
+    Optional<ReviewDTO> findProjectedById(@Param("id") Long id);
+
+    @Query(PROJECTION + " where r.id in :ids")
+    List<ReviewDTO> findProjectedByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Carga product en la misma consulta (grafo Review.product)
+    @EntityGraph("Review.product")
+    Optional<Review> findWithProductById(Long id);
 
+    // Paginación keyset: WHERE sobre la última clave vista, sin OFFSET ni COUNT
+    Window<Review> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
+    // Recorre la tabla completa con un cursor; usar dentro de una transacción y cerrar el Stream
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select r from Review r")
+    Stream<Review> streamAll();
+
+    // Escrituras de una sola sentencia, sin SELECT previo ni merge (consultas con nombre en Review):
+    // devuelven las filas afectadas, 0 = no existe o, con versión esperada, otra escritura la incrementó
+    @Modifying
+    int updateById(@Param("id") Long id, @Param("version") Long version, @Param("rating") Integer rating,
+                   @Param("comment") String comment, @Param("reviewDate") LocalDateTime reviewDate);
+
+    @Modifying
+    int removeById(@Param("id") Long id);
+
+}
@@ -1,11 +1,25 @@
 package com.example.ecommerce.repository;
 
+import com.example.ecommerce.dto.UserDTO;
 import com.example.ecommerce.entity.User;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -15,5 +29,44 @@ public interface UserRepository extends JpaRepository<User, Long> {
     List<User> findByUsername(String username);
     boolean existsByUsername(String username);
 
-}
+    // Proyecciones de solo lectura: el DTO se construye en la consulta, sin entidades gestionadas
+    String PROJECTION = "select new com.example.ecommerce.dto.UserDTO(u.id, u.email, u.username, u.password, u.firstName, u.lastName, u.phone, u.active, u.version) from User u";
+
+    @Query(PROJECTION)
+    List<UserDTO> findAllProjectedBy();
+
+    @Query(value = PROJECTION, countQuery = "select count(u) from User u")
+    Page<UserDTO> findAllProjectedBy(Pageable pageable);
+
+    @Query(PROJECTION + " where u.id = :id")
+    Optional<UserDTO> findProjectedById(@Param("id") Long id);
+
+    @Query(PROJECTION + " where u.id in :ids")
+    List<UserDTO> findProjectedByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Filtro indexado por active, paginado
+    Page<User> findByActive(Boolean active, Pageable pageable);
 
+    // Paginación keyset: WHERE sobre la última clave vista, sin OFFSET ni COUNT
+    Window<User> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
+    // Recorre la tabla completa con un cursor; usar dentro de una transacción y cerrar el Stream
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select u from User u")
+    Stream<User> streamAll();
+
+    // Escrituras de una sola sentencia, sin SELECT previo ni merge (consultas con nombre en User):
+    // devuelven las filas afectadas, 0 = no existe o, con versión esperada, otra escritura la incrementó
+    @Modifying
+    int updateById(@Param("id") Long id, @Param("version") Long version, @Param("email") String email,
+                   @Param("username") String username, @Param("password") String password,
+                   @Param("firstName") String firstName, @Param("lastName") String lastName,
+                   @Param("phone") String phone, @Param("active") Boolean active);
+
+    @Modifying
+    int removeById(@Param("id") Long id);
+
+}
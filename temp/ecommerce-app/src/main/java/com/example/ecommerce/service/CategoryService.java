@@ -1,25 +1,47 @@
 package com.example.ecommerce.service;
 
+import com.example.ecommerce.cache.CacheWarmer;
+import com.example.ecommerce.cache.DtoCache;
+import com.example.ecommerce.cache.HotKeyTracker;
 import com.example.ecommerce.dto.CategoryDTO;
+import com.example.ecommerce.dto.ScrollDTO;
 import com.example.ecommerce.entity.Category;
 import com.example.ecommerce.mapper.CategoryMapper;
 import com.example.ecommerce.repository.CategoryRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.CachePut;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.hibernate.cfg.AvailableSettings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.Validator;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
-@Transactional
+@Transactional(readOnly = true)
 public class CategoryService {
 
     private static final Logger logger = LoggerFactory.getLogger(CategoryService.class);
@@ -30,76 +52,238 @@ public class CategoryService {
     @Autowired
     private CategoryMapper categoryMapper;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private HotKeyTracker hotKeyTracker;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CacheWarmer cacheWarmer;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private DtoCache<Long, CategoryDTO> categoryCache;
+
+    // Claves de orden admitidas por /scroll (además de id)
+    private KeysetScroll categoryScroll;
+
+    @PostConstruct
+    void initCache() {
+        categoryCache = new DtoCache<>(cacheManager, hotKeyTracker, meterRegistry, "category", "categorys", CategoryDTO::getId);
+        cacheWarmer.register(categoryCache.warmupSource(Long::valueOf, categoryRepository::findProjectedByIdIn));
+        categoryScroll = new KeysetScroll(objectMapper, Map.of("name", String.class));
+    }
+
     // Basic CRUD Operations
-    @Cacheable(value = "categorys", key = "'all'")
     public List<CategoryDTO> findAll() {
-        logger.info("Finding all categorys");
-        return categoryRepository.findAll()
-                .stream()
-                .map(categoryMapper::toDTO)
-                .collect(Collectors.toList());
+        return categoryCache.findAll(() -> {
+            logger.info("Finding all categorys");
+            return categoryRepository.findAllProjectedBy();
+        });
     }
 
-    @Cacheable(value = "category", key = "#id")
     public Optional<CategoryDTO> findById(Long id) {
-        logger.info("Finding category with id: {}", id);
-        return categoryRepository.findById(id)
-                .map(categoryMapper::toDTO);
+        return categoryCache.findById(id, () -> {
+            logger.info("Finding category with id: {}", id);
+            // Por entidad y no por proyección: así un fallo del cache de Spring lo atiende la región L2
+            return categoryRepository.findById(id).map(categoryMapper::toDTO);
+        });
     }
 
     @Transactional
-    @CacheEvict(value = {"categorys", "category"}, allEntries = true)
     public CategoryDTO save(CategoryDTO categoryDTO) {
         logger.info("Saving category: {}", categoryDTO);
         validateCategoryDTO(categoryDTO);
         Category category = categoryMapper.toEntity(categoryDTO);
         Category savedCategory = categoryRepository.save(category);
-        return categoryMapper.toDTO(savedCategory);
+        CategoryDTO saved = categoryMapper.toDTO(savedCategory);
+        categoryCache.put(saved);
+        return saved;
     }
 
     @Transactional
-    @CachePut(value = "category", key = "#id")
-    @CacheEvict(value = "categorys", allEntries = true)
     public CategoryDTO update(Long id, CategoryDTO categoryDTO) {
         logger.info("Updating category with id: {}", id);
         Category existingCategory = categoryRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Category not found with id: " + id));
         
         validateCategoryDTO(categoryDTO);
+        checkVersion(existingCategory, categoryDTO);
         categoryMapper.updateEntityFromDTO(existingCategory, categoryDTO);
-        Category updatedCategory = categoryRepository.save(existingCategory);
-        return categoryMapper.toDTO(updatedCategory);
+        Category updatedCategory = categoryRepository.saveAndFlush(existingCategory);
+        CategoryDTO updated = categoryMapper.toDTO(updatedCategory);
+        categoryCache.put(updated);
+        return updated;
+    }
+
+    /**
+     * JSON Merge Patch: solo cambian los campos presentes en el parche. Con @DynamicUpdate el UPDATE
+     * escribe únicamente las columnas modificadas, y ninguna si el parche no cambia nada.
+     */
+    @Transactional
+    public CategoryDTO patch(Long id, JsonNode patch, Long expectedVersion) {
+        logger.info("Patching category with id: {}", id);
+        Category existingCategory = categoryRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Category not found with id: " + id));
+        CategoryDTO categoryDTO = JsonMergePatch.apply(objectMapper, validator, patch,
+                categoryMapper.toDTO(existingCategory), CategoryDTO.class);
+        if (expectedVersion != null) {
+            categoryDTO.setVersion(expectedVersion);
+        }
+        validateCategoryDTO(categoryDTO);
+        checkVersion(existingCategory, categoryDTO);
+        categoryMapper.updateEntityFromDTO(existingCategory, categoryDTO);
+        Category updatedCategory = categoryRepository.saveAndFlush(existingCategory);
+        CategoryDTO updated = categoryMapper.toDTO(updatedCategory);
+        categoryCache.put(updated);
+        return updated;
     }
 
     @Transactional
-    @CacheEvict(value = {"categorys", "category"}, key = "#id")
     public void deleteById(Long id) {
         logger.info("Deleting category with id: {}", id);
-        if (!categoryRepository.existsById(id)) {
-            throw new RuntimeException("Category not found with id: " + id);
-        }
-        categoryRepository.deleteById(id);
+        // Por entidad y no con un DELETE masivo, que vaciaría toda la región L2; la carga suele ser un acierto en ella
+        Category existingCategory = categoryRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Category not found with id: " + id));
+        categoryRepository.delete(existingCategory);
+        categoryCache.evict(id);
+    }
+
+    @Transactional
+    public List<CategoryDTO> saveAll(List<CategoryDTO> categoryDTOs) {
+        logger.info("Saving {} categorys", categoryDTOs.size());
+        validateBatch(categoryDTOs);
+        List<Category> savedCategorys = categoryRepository.saveAll(categoryDTOs.stream()
+                .map(categoryMapper::toEntity)
+                .toList());
+        List<CategoryDTO> saved = savedCategorys.stream()
+                .map(categoryMapper::toDTO)
+                .toList();
+        categoryCache.putAll(saved);
+        return saved;
+    }
+
+    @Transactional
+    public List<CategoryDTO> updateAll(List<CategoryDTO> categoryDTOs) {
+        logger.info("Updating {} categorys", categoryDTOs.size());
+        validateBatch(categoryDTOs);
+        Map<Long, Category> existingCategorys = findAllForBatch(categoryDTOs.stream()
+                .map(CategoryDTO::getId)
+                .toList());
+        categoryDTOs.forEach(dto -> checkVersion(existingCategorys.get(dto.getId()), dto));
+        categoryDTOs.forEach(dto -> categoryMapper.updateEntityFromDTO(existingCategorys.get(dto.getId()), dto));
+        List<CategoryDTO> updated = categoryRepository.saveAllAndFlush(existingCategorys.values())
+                .stream()
+                .map(categoryMapper::toDTO)
+                .toList();
+        categoryCache.putAll(updated);
+        return updated;
+    }
+
+    @Transactional
+    public void deleteAllById(List<Long> ids) {
+        logger.info("Deleting {} categorys", ids.size());
+        Map<Long, Category> existingCategorys = findAllForBatch(ids);
+        categoryRepository.deleteAll(existingCategorys.values());
+        categoryCache.evictAll(existingCategorys.keySet());
     }
 
     public boolean existsById(Long id) {
-        return categoryRepository.existsById(id);
+        return categoryCache.exists(id, () -> categoryRepository.existsById(id));
     }
 
     // Advanced Operations
     public Page<CategoryDTO> findAllPaginated(Pageable pageable) {
         logger.info("Finding all categorys with pagination: {}", pageable);
-        return categoryRepository.findAll(pageable)
-                .map(categoryMapper::toDTO);
+        return categoryRepository.findAllProjectedBy(pageable);
+    }
+
+    /**
+     * Página keyset: continúa tras el cursor "after" sin OFFSET y sin consulta COUNT.
+     */
+    public ScrollDTO<CategoryDTO> scroll(String after, int size, String sort) {
+        logger.info("Scrolling categorys after cursor {} sorted by {}", after, sort);
+        Sort order = categoryScroll.sort(sort, after);
+        Window<Category> window = categoryRepository.findAllBy(categoryScroll.position(after), order, categoryScroll.limit(size));
+        return categoryScroll.page(window, order, categoryMapper::toDTO);
+    }
+
+    /**
+     * Escribe todos los categorys como NDJSON sin cargarlos en memoria: las filas se leen con un
+     * cursor y cada entidad se separa del contexto de persistencia una vez escrita.
+     */
+    public long exportTo(OutputStream out) throws IOException {
+        logger.info("Exporting all categorys");
+        // Las filas leídas no se guardan en la región L2: un volcado desplazaría las entradas calientes.
+        // Se aplica a la sesión porque el Stream se recorre después de ejecutar la consulta
+        entityManager.setProperty(AvailableSettings.JAKARTA_SHARED_CACHE_STORE_MODE, CacheStoreMode.BYPASS);
+        try (Stream<Category> categorys = categoryRepository.streamAll();
+             NdjsonWriter<CategoryDTO> writer = new NdjsonWriter<>(objectMapper, CategoryDTO.class, out)) {
+            Iterator<Category> rows = categorys.iterator();
+            while (rows.hasNext()) {
+                Category category = rows.next();
+                writer.write(categoryMapper.toDTO(category));
+                entityManager.detach(category);
+            }
+            return writer.getCount();
+        }
     }
 
     // Custom business methods
-    public List<CategoryDTO> findByStatus(String status) {
-        logger.info("Finding categorys by status: {}", status);
-        // Implementar lógica específica según el dominio
-        return categoryRepository.findAll()
+    public Page<CategoryDTO> findByActive(Boolean active, Pageable pageable) {
+        logger.info("Finding categorys by active: {} with pagination: {}", active, pageable);
+        return categoryRepository.findByActive(active, pageable)
+                .map(categoryMapper::toDTO);
+    }
+
+    // Batch Helpers
+    private Map<Long, Category> findAllForBatch(List<Long> ids) {
+        if (ids == null || ids.isEmpty() || ids.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Category batch requires the id of every item");
+        }
+        Map<Long, Category> found = categoryRepository.findAllById(ids)
                 .stream()
-                .map(categoryMapper::toDTO)
-                .collect(Collectors.toList());
+                .collect(Collectors.toMap(Category::getId, Function.identity()));
+        Map<Long, Category> ordered = new LinkedHashMap<>();
+        for (Long id : ids) {
+            Category category = found.get(id);
+            if (category == null) {
+                throw new RuntimeException("Category not found with id: " + id);
+            }
+            ordered.put(id, category);
+        }
+        return ordered;
+    }
+
+    private void validateBatch(List<CategoryDTO> categoryDTOs) {
+        if (categoryDTOs == null || categoryDTOs.isEmpty()) {
+            throw new IllegalArgumentException("Category batch cannot be empty");
+        }
+        for (int i = 0; i < categoryDTOs.size(); i++) {
+            try {
+                validateCategoryDTO(categoryDTOs.get(i));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid category at index " + i + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    // Bloqueo optimista: la versión que leyó el cliente debe seguir siendo la actual
+    private void checkVersion(Category entity, CategoryDTO dto) {
+        if (dto.getVersion() != null && !dto.getVersion().equals(entity.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Category.class, entity.getId());
+        }
     }
 
     // Validation Methods
@@ -0,0 +1,123 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.dto.ScrollDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Paginación keyset (WHERE (clave, id) > (?, ?) ORDER BY clave, id LIMIT ?) para los endpoints /scroll.
+ *
+ * Solo admite como orden las claves declaradas por el servicio (columnas indexadas y no nulas);
+ * Spring Data añade el id como desempate. El cursor es el JSON {sort, keys} de la última fila
+ * devuelta, codificado en Base64 URL, y se valida al recibirlo: lleva el orden con el que se creó.
+ */
+class KeysetScroll {
+
+    static final String ID = "id";
+    static final int MAX_SIZE = 1000;
+
+    private final ObjectMapper objectMapper;
+    private final Map<String, Class<?>> sortKeys = new LinkedHashMap<>();
+
+    KeysetScroll(ObjectMapper objectMapper, Map<String, Class<?>> sortKeys) {
+        this.objectMapper = objectMapper;
+        this.sortKeys.put(ID, Long.class);
+        this.sortKeys.putAll(sortKeys);
+    }
+
+    /**
+     * Orden efectivo: el del cursor si lo hay; "sort" ("price" o "price,desc") debe coincidir con él.
+     */
+    Sort sort(String sort, String after) {
+        if (after == null || after.isBlank()) {
+            return parse(sort);
+        }
+        Sort cursorSort = parse(decode(after).sort());
+        if (sort != null && !sort.isBlank() && !parse(sort).equals(cursorSort)) {
+            throw new IllegalArgumentException("Sort '" + sort + "' does not match the cursor");
+        }
+        return cursorSort;
+    }
+
+    ScrollPosition position(String after) {
+        if (after == null || after.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        Map<String, Object> keys = new LinkedHashMap<>();
+        decode(after).keys().forEach((name, value) -> {
+            Class<?> type = sortKeys.get(name);
+            if (type == null || value == null) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            keys.put(name, objectMapper.convertValue(value, type));
+        });
+        return ScrollPosition.forward(keys);
+    }
+
+    Limit limit(int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Size must be between 1 and " + MAX_SIZE);
+        }
+        return Limit.of(size);
+    }
+
+    <T, D> ScrollDTO<D> page(Window<T> window, Sort sort, Function<T, D> mapper) {
+        List<D> content = window.map(mapper).getContent();
+        String nextCursor = null;
+        if (window.hasNext() && !window.isEmpty()) {
+            KeysetScrollPosition last = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+            nextCursor = encode(new Cursor(format(sort), last.getKeys()));
+        }
+        return new ScrollDTO<>(content, nextCursor);
+    }
+
+    private Sort parse(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return Sort.by(ID);
+        }
+        String[] parts = sort.split(",");
+        if (!sortKeys.containsKey(parts[0]) || parts.length > 2) {
+            throw new IllegalArgumentException("Unsupported sort '" + sort + "', expected one of " + sortKeys.keySet());
+        }
+        Sort.Direction direction = parts.length == 2 ? Sort.Direction.fromString(parts[1]) : Sort.Direction.ASC;
+        return Sort.by(direction, parts[0]);
+    }
+
+    private static String format(Sort sort) {
+        Sort.Order order = sort.iterator().next();
+        return order.isAscending() ? order.getProperty() : order.getProperty() + ",desc";
+    }
+
+    private String encode(Cursor cursor) {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(objectMapper.writeValueAsBytes(cursor));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not encode scroll cursor", e);
+        }
+    }
+
+    private Cursor decode(String after) {
+        try {
+            Cursor cursor = objectMapper.readValue(Base64.getUrlDecoder().decode(after), Cursor.class);
+            if (cursor.sort() == null || cursor.keys() == null || cursor.keys().isEmpty()) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return cursor;
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    record Cursor(String sort, Map<String, Object> keys) {
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.ecommerce.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Escribe DTOs como NDJSON (un objeto JSON por línea) directamente sobre la respuesta.
+ *
+ * Usa un único JsonGenerator sin flush por valor: los bytes salen al stream cuando se llena
+ * el buffer del generador, así que la memoria usada no depende del número de filas.
+ * No cierra el OutputStream recibido.
+ */
+class NdjsonWriter<T> implements AutoCloseable {
+
+    private final JsonGenerator generator;
+    private final ObjectWriter writer;
+    private long count;
+
+    NdjsonWriter(ObjectMapper objectMapper, Class<T> type, OutputStream out) throws IOException {
+        this.generator = objectMapper.getFactory().createGenerator(out);
+        this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.generator.setRootValueSeparator(null);
+        this.writer = objectMapper.writerFor(type).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    void write(T value) throws IOException {
+        writer.writeValue(generator, value);
+        generator.writeRaw('\n');
+        count++;
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+}
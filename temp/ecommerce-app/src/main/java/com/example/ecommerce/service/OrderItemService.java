@@ -1,25 +1,46 @@
 package com.example.ecommerce.service;
 
+import com.example.ecommerce.cache.CacheWarmer;
+import com.example.ecommerce.cache.DtoCache;
+import com.example.ecommerce.cache.HotKeyTracker;
 import com.example.ecommerce.dto.OrderItemDTO;
+import com.example.ecommerce.dto.ScrollDTO;
 import com.example.ecommerce.entity.OrderItem;
 import com.example.ecommerce.mapper.OrderItemMapper;
 import com.example.ecommerce.repository.OrderItemRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.CachePut;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.Validator;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
-@Transactional
+@Transactional(readOnly = true)
 public class OrderItemService {
 
     private static final Logger logger = LoggerFactory.getLogger(OrderItemService.class);
@@ -30,76 +51,254 @@ public class OrderItemService {
     @Autowired
     private OrderItemMapper orderItemMapper;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private HotKeyTracker hotKeyTracker;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CacheWarmer cacheWarmer;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private DtoCache<Long, OrderItemDTO> orderItemCache;
+
+    // Claves de orden admitidas por /scroll (además de id)
+    private KeysetScroll orderitemScroll;
+
+    @PostConstruct
+    void initCache() {
+        orderItemCache = new DtoCache<>(cacheManager, hotKeyTracker, meterRegistry, "orderitem", "orderitems", OrderItemDTO::getId);
+        cacheWarmer.register(orderItemCache.warmupSource(Long::valueOf, orderitemRepository::findProjectedByIdIn));
+        orderitemScroll = new KeysetScroll(objectMapper, Map.of("subtotal", Double.class));
+    }
+
     // Basic CRUD Operations
-    @Cacheable(value = "orderitems", key = "'all'")
     public List<OrderItemDTO> findAll() {
-        logger.info("Finding all orderitems");
-        return orderitemRepository.findAll()
-                .stream()
-                .map(orderItemMapper::toDTO)
-                .collect(Collectors.toList());
+        return orderItemCache.findAll(() -> {
+            logger.info("Finding all orderitems");
+            return orderitemRepository.findAllProjectedBy();
+        });
     }
 
-    @Cacheable(value = "orderitem", key = "#id")
     public Optional<OrderItemDTO> findById(Long id) {
-        logger.info("Finding orderitem with id: {}", id);
-        return orderitemRepository.findById(id)
-                .map(orderItemMapper::toDTO);
+        return orderItemCache.findById(id, () -> {
+            logger.info("Finding orderitem with id: {}", id);
+            return orderitemRepository.findProjectedById(id);
+        });
     }
 
     @Transactional
-    @CacheEvict(value = {"orderitems", "orderitem"}, allEntries = true)
     public OrderItemDTO save(OrderItemDTO orderItemDTO) {
         logger.info("Saving orderitem: {}", orderItemDTO);
         validateOrderItemDTO(orderItemDTO);
         OrderItem orderItem = orderItemMapper.toEntity(orderItemDTO);
         OrderItem savedOrderItem = orderitemRepository.save(orderItem);
-        return orderItemMapper.toDTO(savedOrderItem);
+        OrderItemDTO saved = orderItemMapper.toDTO(savedOrderItem);
+        orderItemCache.put(saved);
+        return saved;
     }
 
     @Transactional
-    @CachePut(value = "orderitem", key = "#id")
-    @CacheEvict(value = "orderitems", allEntries = true)
     public OrderItemDTO update(Long id, OrderItemDTO orderItemDTO) {
         logger.info("Updating orderitem with id: {}", id);
+        validateOrderItemDTO(orderItemDTO);
+        // Un único UPDATE condicionado por id y versión, sin cargar la entidad
+        if (orderitemRepository.updateById(id, orderItemDTO.getVersion(), orderItemDTO.getQuantity(),
+                orderItemDTO.getUnitPrice(), orderItemDTO.getSubtotal()) == 0) {
+            throw updateFailure(id, orderItemDTO);
+        }
+        OrderItemDTO updated = updatedDTO(id, orderItemDTO);
+        orderItemCache.put(updated);
+        return updated;
+    }
+
+    /**
+     * JSON Merge Patch: solo cambian los campos presentes en el parche. Con @DynamicUpdate el UPDATE
+     * escribe únicamente las columnas modificadas, y ninguna si el parche no cambia nada.
+     */
+    @Transactional
+    public OrderItemDTO patch(Long id, JsonNode patch, Long expectedVersion) {
+        logger.info("Patching orderitem with id: {}", id);
         OrderItem existingOrderItem = orderitemRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("OrderItem not found with id: " + id));
-        
+        OrderItemDTO orderItemDTO = JsonMergePatch.apply(objectMapper, validator, patch,
+                orderItemMapper.toDTO(existingOrderItem), OrderItemDTO.class);
+        if (expectedVersion != null) {
+            orderItemDTO.setVersion(expectedVersion);
+        }
         validateOrderItemDTO(orderItemDTO);
+        checkVersion(existingOrderItem, orderItemDTO);
         orderItemMapper.updateEntityFromDTO(existingOrderItem, orderItemDTO);
-        OrderItem updatedOrderItem = orderitemRepository.save(existingOrderItem);
-        return orderItemMapper.toDTO(updatedOrderItem);
+        OrderItem updatedOrderItem = orderitemRepository.saveAndFlush(existingOrderItem);
+        OrderItemDTO updated = orderItemMapper.toDTO(updatedOrderItem);
+        orderItemCache.put(updated);
+        return updated;
     }
 
     @Transactional
-    @CacheEvict(value = {"orderitems", "orderitem"}, key = "#id")
     public void deleteById(Long id) {
         logger.info("Deleting orderitem with id: {}", id);
-        if (!orderitemRepository.existsById(id)) {
+        if (orderitemRepository.removeById(id) == 0) {
             throw new RuntimeException("OrderItem not found with id: " + id);
         }
-        orderitemRepository.deleteById(id);
+        orderItemCache.evict(id);
+    }
+
+    @Transactional
+    public List<OrderItemDTO> saveAll(List<OrderItemDTO> orderItemDTOs) {
+        logger.info("Saving {} orderitems", orderItemDTOs.size());
+        validateBatch(orderItemDTOs);
+        List<OrderItem> savedOrderItems = orderitemRepository.saveAll(orderItemDTOs.stream()
+                .map(orderItemMapper::toEntity)
+                .toList());
+        List<OrderItemDTO> saved = savedOrderItems.stream()
+                .map(orderItemMapper::toDTO)
+                .toList();
+        orderItemCache.putAll(saved);
+        return saved;
+    }
+
+    @Transactional
+    public List<OrderItemDTO> updateAll(List<OrderItemDTO> orderItemDTOs) {
+        logger.info("Updating {} orderitems", orderItemDTOs.size());
+        validateBatch(orderItemDTOs);
+        Map<Long, OrderItem> existingOrderItems = findAllForBatch(orderItemDTOs.stream()
+                .map(OrderItemDTO::getId)
+                .toList());
+        orderItemDTOs.forEach(dto -> checkVersion(existingOrderItems.get(dto.getId()), dto));
+        orderItemDTOs.forEach(dto -> orderItemMapper.updateEntityFromDTO(existingOrderItems.get(dto.getId()), dto));
+        List<OrderItemDTO> updated = orderitemRepository.saveAllAndFlush(existingOrderItems.values())
+                .stream()
+                .map(orderItemMapper::toDTO)
+                .toList();
+        orderItemCache.putAll(updated);
+        return updated;
+    }
+
+    @Transactional
+    public void deleteAllById(List<Long> ids) {
+        logger.info("Deleting {} orderitems", ids.size());
+        Map<Long, OrderItem> existingOrderItems = findAllForBatch(ids);
+        orderitemRepository.deleteAll(existingOrderItems.values());
+        orderItemCache.evictAll(existingOrderItems.keySet());
+    }
+
+    /**
+     * Registra líneas borradas sin pasar por este servicio (el borrado de su pedido).
+     */
+    public void evictCached(Collection<Long> ids) {
+        if (!ids.isEmpty()) {
+            orderItemCache.evictAll(ids);
+        }
     }
 
     public boolean existsById(Long id) {
-        return orderitemRepository.existsById(id);
+        return orderItemCache.exists(id, () -> orderitemRepository.existsById(id));
     }
 
     // Advanced Operations
     public Page<OrderItemDTO> findAllPaginated(Pageable pageable) {
         logger.info("Finding all orderitems with pagination: {}", pageable);
-        return orderitemRepository.findAll(pageable)
-                .map(orderItemMapper::toDTO);
+        return orderitemRepository.findAllProjectedBy(pageable);
+    }
+
+    /**
+     * Página keyset: continúa tras el cursor "after" sin OFFSET y sin consulta COUNT.
+     */
+    public ScrollDTO<OrderItemDTO> scroll(String after, int size, String sort) {
+        logger.info("Scrolling orderitems after cursor {} sorted by {}", after, sort);
+        Sort order = orderitemScroll.sort(sort, after);
+        Window<OrderItem> window = orderitemRepository.findAllBy(orderitemScroll.position(after), order, orderitemScroll.limit(size));
+        return orderitemScroll.page(window, order, orderItemMapper::toDTO);
+    }
+
+    /**
+     * Escribe todos los orderitems como NDJSON sin cargarlos en memoria: las filas se leen con un
+     * cursor y cada entidad se separa del contexto de persistencia una vez escrita.
+     */
+    public long exportTo(OutputStream out) throws IOException {
+        logger.info("Exporting all orderitems");
+        try (Stream<OrderItem> orderitems = orderitemRepository.streamAll();
+             NdjsonWriter<OrderItemDTO> writer = new NdjsonWriter<>(objectMapper, OrderItemDTO.class, out)) {
+            Iterator<OrderItem> rows = orderitems.iterator();
+            while (rows.hasNext()) {
+                OrderItem orderItem = rows.next();
+                writer.write(orderItemMapper.toDTO(orderItem));
+                entityManager.detach(orderItem);
+            }
+            return writer.getCount();
+        }
     }
 
     // Custom business methods
-    public List<OrderItemDTO> findByStatus(String status) {
-        logger.info("Finding orderitems by status: {}", status);
-        // Implementar lógica específica según el dominio
-        return orderitemRepository.findAll()
+
+    // Batch Helpers
+    private Map<Long, OrderItem> findAllForBatch(List<Long> ids) {
+        if (ids == null || ids.isEmpty() || ids.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("OrderItem batch requires the id of every item");
+        }
+        Map<Long, OrderItem> found = orderitemRepository.findAllById(ids)
                 .stream()
-                .map(orderItemMapper::toDTO)
-                .collect(Collectors.toList());
+                .collect(Collectors.toMap(OrderItem::getId, Function.identity()));
+        Map<Long, OrderItem> ordered = new LinkedHashMap<>();
+        for (Long id : ids) {
+            OrderItem orderItem = found.get(id);
+            if (orderItem == null) {
+                throw new RuntimeException("OrderItem not found with id: " + id);
+            }
+            ordered.put(id, orderItem);
+        }
+        return ordered;
+    }
+
+    private void validateBatch(List<OrderItemDTO> orderItemDTOs) {
+        if (orderItemDTOs == null || orderItemDTOs.isEmpty()) {
+            throw new IllegalArgumentException("OrderItem batch cannot be empty");
+        }
+        for (int i = 0; i < orderItemDTOs.size(); i++) {
+            try {
+                validateOrderItemDTO(orderItemDTOs.get(i));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid orderitem at index " + i + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    // Bloqueo optimista: la versión que leyó el cliente debe seguir siendo la actual
+    private void checkVersion(OrderItem entity, OrderItemDTO dto) {
+        if (dto.getVersion() != null && !dto.getVersion().equals(entity.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(OrderItem.class, entity.getId());
+        }
+    }
+
+    // Sin filas actualizadas: la fila no existe (404) o la versión esperada ya no es la actual (409)
+    private RuntimeException updateFailure(Long id, OrderItemDTO orderItemDTO) {
+        if (orderItemDTO.getVersion() != null && orderitemRepository.existsById(id)) {
+            return new ObjectOptimisticLockingFailureException(OrderItem.class, id);
+        }
+        return new RuntimeException("OrderItem not found with id: " + id);
+    }
+
+    // Estado escrito por updateById: con versión esperada es el DTO con la siguiente; sin ella se relee
+    private OrderItemDTO updatedDTO(Long id, OrderItemDTO orderItemDTO) {
+        if (orderItemDTO.getVersion() == null) {
+            return orderitemRepository.findProjectedById(id).orElseThrow();
+        }
+        orderItemDTO.setId(id);
+        orderItemDTO.setVersion(orderItemDTO.getVersion() + 1);
+        return orderItemDTO;
     }
 
     // Validation Methods
@@ -1,25 +1,51 @@
 package com.example.ecommerce.service;
 
+import com.example.ecommerce.cache.CacheWarmer;
+import com.example.ecommerce.cache.DtoCache;
+import com.example.ecommerce.cache.HotKeyTracker;
 import com.example.ecommerce.dto.OrderDTO;
+import com.example.ecommerce.dto.OrderDetailDTO;
+import com.example.ecommerce.dto.OrderItemDetailDTO;
+import com.example.ecommerce.dto.ScrollDTO;
 import com.example.ecommerce.entity.Order;
+import com.example.ecommerce.entity.OrderItem;
+import com.example.ecommerce.mapper.OrderItemMapper;
 import com.example.ecommerce.mapper.OrderMapper;
+import com.example.ecommerce.mapper.ProductMapper;
 import com.example.ecommerce.repository.OrderRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.CachePut;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.Validator;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
-@Transactional
+@Transactional(readOnly = true)
 public class OrderService {
 
     private static final Logger logger = LoggerFactory.getLogger(OrderService.class);
@@ -30,76 +56,284 @@ public class OrderService {
     @Autowired
     private OrderMapper orderMapper;
 
+    @Autowired
+    private OrderItemService orderItemService;
+
+    @Autowired
+    private OrderItemMapper orderItemMapper;
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private HotKeyTracker hotKeyTracker;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CacheWarmer cacheWarmer;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private DtoCache<Long, OrderDTO> orderCache;
+
+    // Claves de orden admitidas por /scroll (además de id)
+    private KeysetScroll orderScroll;
+
+    @PostConstruct
+    void initCache() {
+        orderCache = new DtoCache<>(cacheManager, hotKeyTracker, meterRegistry, "order", "orders", OrderDTO::getId);
+        cacheWarmer.register(orderCache.warmupSource(Long::valueOf, orderRepository::findProjectedByIdIn));
+        orderScroll = new KeysetScroll(objectMapper, Map.of("orderDate", LocalDateTime.class, "total", Double.class));
+    }
+
     // Basic CRUD Operations
-    @Cacheable(value = "orders", key = "'all'")
     public List<OrderDTO> findAll() {
-        logger.info("Finding all orders");
-        return orderRepository.findAll()
-                .stream()
-                .map(orderMapper::toDTO)
-                .collect(Collectors.toList());
+        return orderCache.findAll(() -> {
+            logger.info("Finding all orders");
+            return orderRepository.findAllProjectedBy();
+        });
     }
 
-    @Cacheable(value = "order", key = "#id")
     public Optional<OrderDTO> findById(Long id) {
-        logger.info("Finding order with id: {}", id);
-        return orderRepository.findById(id)
-                .map(orderMapper::toDTO);
+        return orderCache.findById(id, () -> {
+            logger.info("Finding order with id: {}", id);
+            return orderRepository.findProjectedById(id);
+        });
+    }
+
+    /**
+     * Pedido con sus líneas y productos, cargado en una sola consulta con el grafo Order.detail.
+     * No se cachea: cambia con cualquier escritura de sus líneas o productos.
+     */
+    public Optional<OrderDetailDTO> findDetailById(Long id) {
+        logger.info("Finding order detail with id: {}", id);
+        return orderRepository.findDetailById(id)
+                .map(order -> new OrderDetailDTO(orderMapper.toDTO(order), order.getItems().stream()
+                        .map(item -> new OrderItemDetailDTO(orderItemMapper.toDTO(item),
+                                productMapper.toDTO(item.getProduct())))
+                        .toList()));
     }
 
     @Transactional
-    @CacheEvict(value = {"orders", "order"}, allEntries = true)
     public OrderDTO save(OrderDTO orderDTO) {
         logger.info("Saving order: {}", orderDTO);
         validateOrderDTO(orderDTO);
         Order order = orderMapper.toEntity(orderDTO);
         Order savedOrder = orderRepository.save(order);
-        return orderMapper.toDTO(savedOrder);
+        OrderDTO saved = orderMapper.toDTO(savedOrder);
+        orderCache.put(saved);
+        return saved;
     }
 
     @Transactional
-    @CachePut(value = "order", key = "#id")
-    @CacheEvict(value = "orders", allEntries = true)
     public OrderDTO update(Long id, OrderDTO orderDTO) {
         logger.info("Updating order with id: {}", id);
+        validateOrderDTO(orderDTO);
+        // Un único UPDATE condicionado por id y versión, sin cargar la entidad
+        if (orderRepository.updateById(id, orderDTO.getVersion(), orderDTO.getOrderNumber(),
+                orderDTO.getOrderDate(), orderDTO.getStatus(), orderDTO.getTotal(),
+                orderDTO.getShippingAddress()) == 0) {
+            throw updateFailure(id, orderDTO);
+        }
+        OrderDTO updated = updatedDTO(id, orderDTO);
+        orderCache.put(updated);
+        return updated;
+    }
+
+    /**
+     * JSON Merge Patch: solo cambian los campos presentes en el parche. Con @DynamicUpdate el UPDATE
+     * escribe únicamente las columnas modificadas, y ninguna si el parche no cambia nada.
+     */
+    @Transactional
+    public OrderDTO patch(Long id, JsonNode patch, Long expectedVersion) {
+        logger.info("Patching order with id: {}", id);
         Order existingOrder = orderRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
-        
+        OrderDTO orderDTO = JsonMergePatch.apply(objectMapper, validator, patch,
+                orderMapper.toDTO(existingOrder), OrderDTO.class);
+        if (expectedVersion != null) {
+            orderDTO.setVersion(expectedVersion);
+        }
         validateOrderDTO(orderDTO);
+        checkVersion(existingOrder, orderDTO);
         orderMapper.updateEntityFromDTO(existingOrder, orderDTO);
-        Order updatedOrder = orderRepository.save(existingOrder);
-        return orderMapper.toDTO(updatedOrder);
+        Order updatedOrder = orderRepository.saveAndFlush(existingOrder);
+        OrderDTO updated = orderMapper.toDTO(updatedOrder);
+        orderCache.put(updated);
+        return updated;
     }
 
     @Transactional
-    @CacheEvict(value = {"orders", "order"}, key = "#id")
     public void deleteById(Long id) {
         logger.info("Deleting order with id: {}", id);
-        if (!orderRepository.existsById(id)) {
+        // Sin cargar el pedido no hay cascade de items: sus líneas se borran antes, en otra sentencia,
+        // y sus ids se leen primero para sacarlas del cache de OrderItemService
+        List<Long> itemIds = orderRepository.findItemIdsById(id);
+        orderRepository.removeItemsById(id);
+        if (orderRepository.removeById(id) == 0) {
             throw new RuntimeException("Order not found with id: " + id);
         }
-        orderRepository.deleteById(id);
+        orderCache.evict(id);
+        orderItemService.evictCached(itemIds);
+    }
+
+    @Transactional
+    public List<OrderDTO> saveAll(List<OrderDTO> orderDTOs) {
+        logger.info("Saving {} orders", orderDTOs.size());
+        validateBatch(orderDTOs);
+        List<Order> savedOrders = orderRepository.saveAll(orderDTOs.stream()
+                .map(orderMapper::toEntity)
+                .toList());
+        List<OrderDTO> saved = savedOrders.stream()
+                .map(orderMapper::toDTO)
+                .toList();
+        orderCache.putAll(saved);
+        return saved;
+    }
+
+    @Transactional
+    public List<OrderDTO> updateAll(List<OrderDTO> orderDTOs) {
+        logger.info("Updating {} orders", orderDTOs.size());
+        validateBatch(orderDTOs);
+        Map<Long, Order> existingOrders = findAllForBatch(orderDTOs.stream()
+                .map(OrderDTO::getId)
+                .toList());
+        orderDTOs.forEach(dto -> checkVersion(existingOrders.get(dto.getId()), dto));
+        orderDTOs.forEach(dto -> orderMapper.updateEntityFromDTO(existingOrders.get(dto.getId()), dto));
+        List<OrderDTO> updated = orderRepository.saveAllAndFlush(existingOrders.values())
+                .stream()
+                .map(orderMapper::toDTO)
+                .toList();
+        orderCache.putAll(updated);
+        return updated;
+    }
+
+    @Transactional
+    public void deleteAllById(List<Long> ids) {
+        logger.info("Deleting {} orders", ids.size());
+        Map<Long, Order> existingOrders = findAllForBatch(ids);
+        // El cascade borra las líneas; sus ids se toman antes para sacarlas del cache de OrderItemService
+        List<Long> itemIds = existingOrders.values().stream()
+                .flatMap(order -> order.getItems().stream())
+                .map(OrderItem::getId)
+                .toList();
+        orderRepository.deleteAll(existingOrders.values());
+        orderCache.evictAll(existingOrders.keySet());
+        orderItemService.evictCached(itemIds);
     }
 
     public boolean existsById(Long id) {
-        return orderRepository.existsById(id);
+        return orderCache.exists(id, () -> orderRepository.existsById(id));
     }
 
     // Advanced Operations
     public Page<OrderDTO> findAllPaginated(Pageable pageable) {
         logger.info("Finding all orders with pagination: {}", pageable);
-        return orderRepository.findAll(pageable)
-                .map(orderMapper::toDTO);
+        return orderRepository.findAllProjectedBy(pageable);
+    }
+
+    /**
+     * Página keyset: continúa tras el cursor "after" sin OFFSET y sin consulta COUNT.
+     */
+    public ScrollDTO<OrderDTO> scroll(String after, int size, String sort) {
+        logger.info("Scrolling orders after cursor {} sorted by {}", after, sort);
+        Sort order = orderScroll.sort(sort, after);
+        Window<Order> window = orderRepository.findAllBy(orderScroll.position(after), order, orderScroll.limit(size));
+        return orderScroll.page(window, order, orderMapper::toDTO);
+    }
+
+    /**
+     * Escribe todos los orders como NDJSON sin cargarlos en memoria: las filas se leen con un
+     * cursor y cada entidad se separa del contexto de persistencia una vez escrita.
+     */
+    public long exportTo(OutputStream out) throws IOException {
+        logger.info("Exporting all orders");
+        try (Stream<Order> orders = orderRepository.streamAll();
+             NdjsonWriter<OrderDTO> writer = new NdjsonWriter<>(objectMapper, OrderDTO.class, out)) {
+            Iterator<Order> rows = orders.iterator();
+            while (rows.hasNext()) {
+                Order order = rows.next();
+                writer.write(orderMapper.toDTO(order));
+                entityManager.detach(order);
+            }
+            return writer.getCount();
+        }
     }
 
     // Custom business methods
-    public List<OrderDTO> findByStatus(String status) {
-        logger.info("Finding orders by status: {}", status);
-        // Implementar lógica específica según el dominio
-        return orderRepository.findAll()
+    public Page<OrderDTO> findByStatus(String status, Pageable pageable) {
+        logger.info("Finding orders by status: {} with pagination: {}", status, pageable);
+        return orderRepository.findByStatus(status, pageable)
+                .map(orderMapper::toDTO);
+    }
+
+    // Batch Helpers
+    private Map<Long, Order> findAllForBatch(List<Long> ids) {
+        if (ids == null || ids.isEmpty() || ids.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Order batch requires the id of every item");
+        }
+        Map<Long, Order> found = orderRepository.findAllById(ids)
                 .stream()
-                .map(orderMapper::toDTO)
-                .collect(Collectors.toList());
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+        Map<Long, Order> ordered = new LinkedHashMap<>();
+        for (Long id : ids) {
+            Order order = found.get(id);
+            if (order == null) {
+                throw new RuntimeException("Order not found with id: " + id);
+            }
+            ordered.put(id, order);
+        }
+        return ordered;
+    }
+
+    private void validateBatch(List<OrderDTO> orderDTOs) {
+        if (orderDTOs == null || orderDTOs.isEmpty()) {
+            throw new IllegalArgumentException("Order batch cannot be empty");
+        }
+        for (int i = 0; i < orderDTOs.size(); i++) {
+            try {
+                validateOrderDTO(orderDTOs.get(i));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid order at index " + i + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    // Bloqueo optimista: la versión que leyó el cliente debe seguir siendo la actual
+    private void checkVersion(Order entity, OrderDTO dto) {
+        if (dto.getVersion() != null && !dto.getVersion().equals(entity.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Order.class, entity.getId());
+        }
+    }
+
+    // Sin filas actualizadas: la fila no existe (404) o la versión esperada ya no es la actual (409)
+    private RuntimeException updateFailure(Long id, OrderDTO orderDTO) {
+        if (orderDTO.getVersion() != null && orderRepository.existsById(id)) {
+            return new ObjectOptimisticLockingFailureException(Order.class, id);
+        }
+        return new RuntimeException("Order not found with id: " + id);
+    }
+
+    // Estado escrito por updateById: con versión esperada es el DTO con la siguiente; sin ella se relee
+    private OrderDTO updatedDTO(Long id, OrderDTO orderDTO) {
+        if (orderDTO.getVersion() == null) {
+            return orderRepository.findProjectedById(id).orElseThrow();
+        }
+        orderDTO.setId(id);
+        orderDTO.setVersion(orderDTO.getVersion() + 1);
+        return orderDTO;
     }
 
     // Validation Methods
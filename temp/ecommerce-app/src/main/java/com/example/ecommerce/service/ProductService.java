@@ -1,25 +1,54 @@
 package com.example.ecommerce.service;
 
+import com.example.ecommerce.cache.CacheWarmer;
+import com.example.ecommerce.cache.DtoCache;
+import com.example.ecommerce.cache.HotKeyTracker;
+import com.example.ecommerce.cache.JsonBytesCache;
+import com.example.ecommerce.config.CacheProperties;
 import com.example.ecommerce.dto.ProductDTO;
+import com.example.ecommerce.dto.ScrollDTO;
+import com.example.ecommerce.dto.StockReservationDTO;
+import com.example.ecommerce.dto.StockReservationResultDTO;
 import com.example.ecommerce.entity.Product;
 import com.example.ecommerce.mapper.ProductMapper;
 import com.example.ecommerce.repository.ProductRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.CachePut;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.hibernate.cfg.AvailableSettings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.Validator;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
-@Transactional
+@Transactional(readOnly = true)
 public class ProductService {
 
     private static final Logger logger = LoggerFactory.getLogger(ProductService.class);
@@ -30,76 +59,318 @@ public class ProductService {
     @Autowired
     private ProductMapper productMapper;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private HotKeyTracker hotKeyTracker;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CacheWarmer cacheWarmer;
+
+    @Autowired
+    private CacheProperties cacheProperties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private DtoCache<Long, ProductDTO> productCache;
+
+    // Claves de orden admitidas por /scroll (además de id)
+    private KeysetScroll productScroll;
+
+    // JSON ya serializado de getProductById / getAllProducts
+    private JsonBytesCache<Long> productJson;
+
+    @PostConstruct
+    void initCache() {
+        productCache = new DtoCache<>(cacheManager, hotKeyTracker, meterRegistry, "product", "products", ProductDTO::getId);
+        cacheWarmer.register(productCache.warmupSource(Long::valueOf, productRepository::findProjectedByIdIn));
+        productJson = new JsonBytesCache<>(cacheManager, "productJson", "productsJson", objectMapper,
+                cacheProperties.isRenderedJson());
+        productCache.setRenderedJson(productJson);
+        productScroll = new KeysetScroll(objectMapper, Map.of("price", Double.class, "name", String.class));
+    }
+
     // Basic CRUD Operations
-    @Cacheable(value = "products", key = "'all'")
     public List<ProductDTO> findAll() {
-        logger.info("Finding all products");
-        return productRepository.findAll()
-                .stream()
-                .map(productMapper::toDTO)
-                .collect(Collectors.toList());
+        return productCache.findAll(() -> {
+            logger.info("Finding all products");
+            return productRepository.findAllProjectedBy();
+        });
+    }
+
+    /**
+     * findAll() como JSON UTF-8 listo para escribir en la respuesta.
+     */
+    public byte[] findAllAsJson() {
+        return productJson.getList(this::findAll);
     }
 
-    @Cacheable(value = "product", key = "#id")
     public Optional<ProductDTO> findById(Long id) {
-        logger.info("Finding product with id: {}", id);
-        return productRepository.findById(id)
-                .map(productMapper::toDTO);
+        return productCache.findById(id, () -> {
+            logger.info("Finding product with id: {}", id);
+            // Por entidad y no por proyección: así un fallo del cache de Spring lo atiende la región L2
+            return productRepository.findById(id).map(productMapper::toDTO);
+        });
+    }
+
+    /**
+     * findById() como JSON UTF-8 listo para escribir en la respuesta, con la versión del DTO serializado.
+     */
+    public Optional<JsonBytesCache.Rendered> findByIdAsJson(Long id) {
+        return productJson.getItem(id, () -> findById(id), ProductDTO::getVersion);
     }
 
     @Transactional
-    @CacheEvict(value = {"products", "product"}, allEntries = true)
     public ProductDTO save(ProductDTO productDTO) {
         logger.info("Saving product: {}", productDTO);
         validateProductDTO(productDTO);
         Product product = productMapper.toEntity(productDTO);
         Product savedProduct = productRepository.save(product);
-        return productMapper.toDTO(savedProduct);
+        ProductDTO saved = productMapper.toDTO(savedProduct);
+        productCache.put(saved);
+        return saved;
     }
 
     @Transactional
-    @CachePut(value = "product", key = "#id")
-    @CacheEvict(value = "products", allEntries = true)
     public ProductDTO update(Long id, ProductDTO productDTO) {
         logger.info("Updating product with id: {}", id);
         Product existingProduct = productRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
         
         validateProductDTO(productDTO);
+        checkVersion(existingProduct, productDTO);
+        productMapper.updateEntityFromDTO(existingProduct, productDTO);
+        Product updatedProduct = productRepository.saveAndFlush(existingProduct);
+        ProductDTO updated = productMapper.toDTO(updatedProduct);
+        productCache.put(updated);
+        return updated;
+    }
+
+    /**
+     * JSON Merge Patch: solo cambian los campos presentes en el parche. Con @DynamicUpdate el UPDATE
+     * escribe únicamente las columnas modificadas, y ninguna si el parche no cambia nada.
+     */
+    @Transactional
+    public ProductDTO patch(Long id, JsonNode patch, Long expectedVersion) {
+        logger.info("Patching product with id: {}", id);
+        Product existingProduct = productRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
+        ProductDTO productDTO = JsonMergePatch.apply(objectMapper, validator, patch,
+                productMapper.toDTO(existingProduct), ProductDTO.class);
+        if (expectedVersion != null) {
+            productDTO.setVersion(expectedVersion);
+        }
+        validateProductDTO(productDTO);
+        checkVersion(existingProduct, productDTO);
         productMapper.updateEntityFromDTO(existingProduct, productDTO);
-        Product updatedProduct = productRepository.save(existingProduct);
-        return productMapper.toDTO(updatedProduct);
+        Product updatedProduct = productRepository.saveAndFlush(existingProduct);
+        ProductDTO updated = productMapper.toDTO(updatedProduct);
+        productCache.put(updated);
+        return updated;
     }
 
     @Transactional
-    @CacheEvict(value = {"products", "product"}, key = "#id")
     public void deleteById(Long id) {
         logger.info("Deleting product with id: {}", id);
-        if (!productRepository.existsById(id)) {
-            throw new RuntimeException("Product not found with id: " + id);
-        }
-        productRepository.deleteById(id);
+        // Por entidad y no con un DELETE masivo, que vaciaría toda la región L2; la carga suele ser un acierto en ella
+        Product existingProduct = productRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
+        productRepository.delete(existingProduct);
+        productCache.evict(id);
+    }
+
+    @Transactional
+    public List<ProductDTO> saveAll(List<ProductDTO> productDTOs) {
+        logger.info("Saving {} products", productDTOs.size());
+        validateBatch(productDTOs);
+        List<Product> savedProducts = productRepository.saveAll(productDTOs.stream()
+                .map(productMapper::toEntity)
+                .toList());
+        List<ProductDTO> saved = savedProducts.stream()
+                .map(productMapper::toDTO)
+                .toList();
+        productCache.putAll(saved);
+        return saved;
+    }
+
+    @Transactional
+    public List<ProductDTO> updateAll(List<ProductDTO> productDTOs) {
+        logger.info("Updating {} products", productDTOs.size());
+        validateBatch(productDTOs);
+        Map<Long, Product> existingProducts = findAllForBatch(productDTOs.stream()
+                .map(ProductDTO::getId)
+                .toList());
+        productDTOs.forEach(dto -> checkVersion(existingProducts.get(dto.getId()), dto));
+        productDTOs.forEach(dto -> productMapper.updateEntityFromDTO(existingProducts.get(dto.getId()), dto));
+        List<ProductDTO> updated = productRepository.saveAllAndFlush(existingProducts.values())
+                .stream()
+                .map(productMapper::toDTO)
+                .toList();
+        productCache.putAll(updated);
+        return updated;
+    }
+
+    @Transactional
+    public void deleteAllById(List<Long> ids) {
+        logger.info("Deleting {} products", ids.size());
+        Map<Long, Product> existingProducts = findAllForBatch(ids);
+        productRepository.deleteAll(existingProducts.values());
+        productCache.evictAll(existingProducts.keySet());
     }
 
     public boolean existsById(Long id) {
-        return productRepository.existsById(id);
+        return productCache.exists(id, () -> productRepository.existsById(id));
     }
 
     // Advanced Operations
     public Page<ProductDTO> findAllPaginated(Pageable pageable) {
         logger.info("Finding all products with pagination: {}", pageable);
-        return productRepository.findAll(pageable)
-                .map(productMapper::toDTO);
+        return productRepository.findAllProjectedBy(pageable);
+    }
+
+    /**
+     * Página keyset: continúa tras el cursor "after" sin OFFSET y sin consulta COUNT.
+     */
+    public ScrollDTO<ProductDTO> scroll(String after, int size, String sort) {
+        logger.info("Scrolling products after cursor {} sorted by {}", after, sort);
+        Sort order = productScroll.sort(sort, after);
+        Window<Product> window = productRepository.findAllBy(productScroll.position(after), order, productScroll.limit(size));
+        return productScroll.page(window, order, productMapper::toDTO);
+    }
+
+    /**
+     * Escribe todos los products como NDJSON sin cargarlos en memoria: las filas se leen con un
+     * cursor y cada entidad se separa del contexto de persistencia una vez escrita.
+     */
+    public long exportTo(OutputStream out) throws IOException {
+        logger.info("Exporting all products");
+        // Las filas leídas no se guardan en la región L2: un volcado desplazaría las entradas calientes.
+        // Se aplica a la sesión porque el Stream se recorre después de ejecutar la consulta
+        entityManager.setProperty(AvailableSettings.JAKARTA_SHARED_CACHE_STORE_MODE, CacheStoreMode.BYPASS);
+        try (Stream<Product> products = productRepository.streamAll();
+             NdjsonWriter<ProductDTO> writer = new NdjsonWriter<>(objectMapper, ProductDTO.class, out)) {
+            Iterator<Product> rows = products.iterator();
+            while (rows.hasNext()) {
+                Product product = rows.next();
+                writer.write(productMapper.toDTO(product));
+                entityManager.detach(product);
+            }
+            return writer.getCount();
+        }
     }
 
     // Custom business methods
-    public List<ProductDTO> findByStatus(String status) {
-        logger.info("Finding products by status: {}", status);
-        // Implementar lógica específica según el dominio
-        return productRepository.findAll()
+    public Page<ProductDTO> findByActive(Boolean active, Pageable pageable) {
+        logger.info("Finding products by active: {} with pagination: {}", active, pageable);
+        return productRepository.findByActive(active, pageable)
+                .map(productMapper::toDTO);
+    }
+
+    /**
+     * Reserva stock de varios productos en un solo batch de UPDATE condicionales. Cada línea se
+     * resuelve por separado: una sin stock suficiente no se aplica ni impide las demás. Las
+     * líneas repetidas de un mismo producto se descuentan una tras otra.
+     */
+    @Transactional
+    public List<StockReservationResultDTO> reserveStock(List<StockReservationDTO> items) {
+        logger.info("Reserving stock for {} items", items == null ? 0 : items.size());
+        validateReservations(items);
+        boolean[] reserved = productRepository.reserveStock(items);
+        // Stock resultante; un producto ausente aquí no existe
+        Map<Long, ProductDTO> current = productRepository.findProjectedByIdIn(items.stream()
+                        .map(StockReservationDTO::getProductId)
+                        .distinct()
+                        .toList())
                 .stream()
-                .map(productMapper::toDTO)
-                .collect(Collectors.toList());
+                .collect(Collectors.toMap(ProductDTO::getId, Function.identity()));
+        List<StockReservationResultDTO> results = new ArrayList<>(items.size());
+        Set<Long> changed = new HashSet<>();
+        for (int i = 0; i < items.size(); i++) {
+            StockReservationDTO item = items.get(i);
+            ProductDTO product = current.get(item.getProductId());
+            StockReservationResultDTO.Status status;
+            if (reserved[i]) {
+                status = StockReservationResultDTO.Status.RESERVED;
+                changed.add(item.getProductId());
+            } else {
+                status = product == null ? StockReservationResultDTO.Status.NOT_FOUND
+                        : StockReservationResultDTO.Status.INSUFFICIENT_STOCK;
+            }
+            results.add(new StockReservationResultDTO(item.getProductId(), item.getQuantity(), status,
+                    product == null ? null : product.getStock()));
+        }
+        productCache.invalidate(changed);
+        return results;
+    }
+
+    @Transactional
+    public StockReservationResultDTO reserveStock(Long id, Integer quantity) {
+        return reserveStock(List.of(new StockReservationDTO(id, quantity))).get(0);
+    }
+
+    // Batch Helpers
+    private Map<Long, Product> findAllForBatch(List<Long> ids) {
+        if (ids == null || ids.isEmpty() || ids.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Product batch requires the id of every item");
+        }
+        Map<Long, Product> found = productRepository.findAllById(ids)
+                .stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        Map<Long, Product> ordered = new LinkedHashMap<>();
+        for (Long id : ids) {
+            Product product = found.get(id);
+            if (product == null) {
+                throw new RuntimeException("Product not found with id: " + id);
+            }
+            ordered.put(id, product);
+        }
+        return ordered;
+    }
+
+    private void validateBatch(List<ProductDTO> productDTOs) {
+        if (productDTOs == null || productDTOs.isEmpty()) {
+            throw new IllegalArgumentException("Product batch cannot be empty");
+        }
+        for (int i = 0; i < productDTOs.size(); i++) {
+            try {
+                validateProductDTO(productDTOs.get(i));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid product at index " + i + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private void validateReservations(List<StockReservationDTO> items) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("Stock reservation cannot be empty");
+        }
+        for (int i = 0; i < items.size(); i++) {
+            StockReservationDTO item = items.get(i);
+            if (item == null || item.getProductId() == null) {
+                throw new IllegalArgumentException("Invalid reservation at index " + i + ": product id is required");
+            }
+            if (item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Invalid reservation at index " + i + ": quantity must be greater than 0");
+            }
+        }
+    }
+
+    // Bloqueo optimista: la versión que leyó el cliente debe seguir siendo la actual
+    private void checkVersion(Product entity, ProductDTO dto) {
+        if (dto.getVersion() != null && !dto.getVersion().equals(entity.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Product.class, entity.getId());
+        }
     }
 
     // Validation Methods
@@ -1,25 +1,46 @@
 package com.example.ecommerce.service;
 
+import com.example.ecommerce.cache.CacheWarmer;
+import com.example.ecommerce.cache.DtoCache;
+import com.example.ecommerce.cache.HotKeyTracker;
 import com.example.ecommerce.dto.ReviewDTO;
+import com.example.ecommerce.dto.ScrollDTO;
 import com.example.ecommerce.entity.Review;
 import com.example.ecommerce.mapper.ReviewMapper;
 import com.example.ecommerce.repository.ReviewRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.CachePut;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.Validator;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
-@Transactional
+@Transactional(readOnly = true)
 public class ReviewService {
 
     private static final Logger logger = LoggerFactory.getLogger(ReviewService.class);
@@ -30,76 +51,245 @@ public class ReviewService {
     @Autowired
     private ReviewMapper reviewMapper;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private HotKeyTracker hotKeyTracker;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CacheWarmer cacheWarmer;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private DtoCache<Long, ReviewDTO> reviewCache;
+
+    // Claves de orden admitidas por /scroll (además de id)
+    private KeysetScroll reviewScroll;
+
+    @PostConstruct
+    void initCache() {
+        reviewCache = new DtoCache<>(cacheManager, hotKeyTracker, meterRegistry, "review", "reviews", ReviewDTO::getId);
+        cacheWarmer.register(reviewCache.warmupSource(Long::valueOf, reviewRepository::findProjectedByIdIn));
+        reviewScroll = new KeysetScroll(objectMapper, Map.of("reviewDate", LocalDateTime.class, "rating", Integer.class));
+    }
+
     // Basic CRUD Operations
-    @Cacheable(value = "reviews", key = "'all'")
     public List<ReviewDTO> findAll() {
-        logger.info("Finding all reviews");
-        return reviewRepository.findAll()
-                .stream()
-                .map(reviewMapper::toDTO)
-                .collect(Collectors.toList());
+        return reviewCache.findAll(() -> {
+            logger.info("Finding all reviews");
+            return reviewRepository.findAllProjectedBy();
+        });
     }
 
-    @Cacheable(value = "review", key = "#id")
     public Optional<ReviewDTO> findById(Long id) {
-        logger.info("Finding review with id: {}", id);
-        return reviewRepository.findById(id)
-                .map(reviewMapper::toDTO);
+        return reviewCache.findById(id, () -> {
+            logger.info("Finding review with id: {}", id);
+            return reviewRepository.findProjectedById(id);
+        });
     }
 
     @Transactional
-    @CacheEvict(value = {"reviews", "review"}, allEntries = true)
     public ReviewDTO save(ReviewDTO reviewDTO) {
         logger.info("Saving review: {}", reviewDTO);
         validateReviewDTO(reviewDTO);
         Review review = reviewMapper.toEntity(reviewDTO);
         Review savedReview = reviewRepository.save(review);
-        return reviewMapper.toDTO(savedReview);
+        ReviewDTO saved = reviewMapper.toDTO(savedReview);
+        reviewCache.put(saved);
+        return saved;
     }
 
     @Transactional
-    @CachePut(value = "review", key = "#id")
-    @CacheEvict(value = "reviews", allEntries = true)
     public ReviewDTO update(Long id, ReviewDTO reviewDTO) {
         logger.info("Updating review with id: {}", id);
+        validateReviewDTO(reviewDTO);
+        // Un único UPDATE condicionado por id y versión, sin cargar la entidad
+        if (reviewRepository.updateById(id, reviewDTO.getVersion(), reviewDTO.getRating(),
+                reviewDTO.getComment(), reviewDTO.getReviewDate()) == 0) {
+            throw updateFailure(id, reviewDTO);
+        }
+        ReviewDTO updated = updatedDTO(id, reviewDTO);
+        reviewCache.put(updated);
+        return updated;
+    }
+
+    /**
+     * JSON Merge Patch: solo cambian los campos presentes en el parche. Con @DynamicUpdate el UPDATE
+     * escribe únicamente las columnas modificadas, y ninguna si el parche no cambia nada.
+     */
+    @Transactional
+    public ReviewDTO patch(Long id, JsonNode patch, Long expectedVersion) {
+        logger.info("Patching review with id: {}", id);
         Review existingReview = reviewRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Review not found with id: " + id));
-        
+        ReviewDTO reviewDTO = JsonMergePatch.apply(objectMapper, validator, patch,
+                reviewMapper.toDTO(existingReview), ReviewDTO.class);
+        if (expectedVersion != null) {
+            reviewDTO.setVersion(expectedVersion);
+        }
         validateReviewDTO(reviewDTO);
+        checkVersion(existingReview, reviewDTO);
         reviewMapper.updateEntityFromDTO(existingReview, reviewDTO);
-        Review updatedReview = reviewRepository.save(existingReview);
-        return reviewMapper.toDTO(updatedReview);
+        Review updatedReview = reviewRepository.saveAndFlush(existingReview);
+        ReviewDTO updated = reviewMapper.toDTO(updatedReview);
+        reviewCache.put(updated);
+        return updated;
     }
 
     @Transactional
-    @CacheEvict(value = {"reviews", "review"}, key = "#id")
     public void deleteById(Long id) {
         logger.info("Deleting review with id: {}", id);
-        if (!reviewRepository.existsById(id)) {
+        if (reviewRepository.removeById(id) == 0) {
             throw new RuntimeException("Review not found with id: " + id);
         }
-        reviewRepository.deleteById(id);
+        reviewCache.evict(id);
+    }
+
+    @Transactional
+    public List<ReviewDTO> saveAll(List<ReviewDTO> reviewDTOs) {
+        logger.info("Saving {} reviews", reviewDTOs.size());
+        validateBatch(reviewDTOs);
+        List<Review> savedReviews = reviewRepository.saveAll(reviewDTOs.stream()
+                .map(reviewMapper::toEntity)
+                .toList());
+        List<ReviewDTO> saved = savedReviews.stream()
+                .map(reviewMapper::toDTO)
+                .toList();
+        reviewCache.putAll(saved);
+        return saved;
+    }
+
+    @Transactional
+    public List<ReviewDTO> updateAll(List<ReviewDTO> reviewDTOs) {
+        logger.info("Updating {} reviews", reviewDTOs.size());
+        validateBatch(reviewDTOs);
+        Map<Long, Review> existingReviews = findAllForBatch(reviewDTOs.stream()
+                .map(ReviewDTO::getId)
+                .toList());
+        reviewDTOs.forEach(dto -> checkVersion(existingReviews.get(dto.getId()), dto));
+        reviewDTOs.forEach(dto -> reviewMapper.updateEntityFromDTO(existingReviews.get(dto.getId()), dto));
+        List<ReviewDTO> updated = reviewRepository.saveAllAndFlush(existingReviews.values())
+                .stream()
+                .map(reviewMapper::toDTO)
+                .toList();
+        reviewCache.putAll(updated);
+        return updated;
+    }
+
+    @Transactional
+    public void deleteAllById(List<Long> ids) {
+        logger.info("Deleting {} reviews", ids.size());
+        Map<Long, Review> existingReviews = findAllForBatch(ids);
+        reviewRepository.deleteAll(existingReviews.values());
+        reviewCache.evictAll(existingReviews.keySet());
     }
 
     public boolean existsById(Long id) {
-        return reviewRepository.existsById(id);
+        return reviewCache.exists(id, () -> reviewRepository.existsById(id));
     }
 
     // Advanced Operations
     public Page<ReviewDTO> findAllPaginated(Pageable pageable) {
         logger.info("Finding all reviews with pagination: {}", pageable);
-        return reviewRepository.findAll(pageable)
-                .map(reviewMapper::toDTO);
+        return reviewRepository.findAllProjectedBy(pageable);
+    }
+
+    /**
+     * Página keyset: continúa tras el cursor "after" sin OFFSET y sin consulta COUNT.
+     */
+    public ScrollDTO<ReviewDTO> scroll(String after, int size, String sort) {
+        logger.info("Scrolling reviews after cursor {} sorted by {}", after, sort);
+        Sort order = reviewScroll.sort(sort, after);
+        Window<Review> window = reviewRepository.findAllBy(reviewScroll.position(after), order, reviewScroll.limit(size));
+        return reviewScroll.page(window, order, reviewMapper::toDTO);
+    }
+
+    /**
+     * Escribe todos los reviews como NDJSON sin cargarlos en memoria: las filas se leen con un
+     * cursor y cada entidad se separa del contexto de persistencia una vez escrita.
+     */
+    public long exportTo(OutputStream out) throws IOException {
+        logger.info("Exporting all reviews");
+        try (Stream<Review> reviews = reviewRepository.streamAll();
+             NdjsonWriter<ReviewDTO> writer = new NdjsonWriter<>(objectMapper, ReviewDTO.class, out)) {
+            Iterator<Review> rows = reviews.iterator();
+            while (rows.hasNext()) {
+                Review review = rows.next();
+                writer.write(reviewMapper.toDTO(review));
+                entityManager.detach(review);
+            }
+            return writer.getCount();
+        }
     }
 
     // Custom business methods
-    public List<ReviewDTO> findByStatus(String status) {
-        logger.info("Finding reviews by status: {}", status);
-        // Implementar lógica específica según el dominio
-        return reviewRepository.findAll()
+
+    // Batch Helpers
+    private Map<Long, Review> findAllForBatch(List<Long> ids) {
+        if (ids == null || ids.isEmpty() || ids.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Review batch requires the id of every item");
+        }
+        Map<Long, Review> found = reviewRepository.findAllById(ids)
                 .stream()
-                .map(reviewMapper::toDTO)
-                .collect(Collectors.toList());
+                .collect(Collectors.toMap(Review::getId, Function.identity()));
+        Map<Long, Review> ordered = new LinkedHashMap<>();
+        for (Long id : ids) {
+            Review review = found.get(id);
+            if (review == null) {
+                throw new RuntimeException("Review not found with id: " + id);
+            }
+            ordered.put(id, review);
+        }
+        return ordered;
+    }
+
+    private void validateBatch(List<ReviewDTO> reviewDTOs) {
+        if (reviewDTOs == null || reviewDTOs.isEmpty()) {
+            throw new IllegalArgumentException("Review batch cannot be empty");
+        }
+        for (int i = 0; i < reviewDTOs.size(); i++) {
+            try {
+                validateReviewDTO(reviewDTOs.get(i));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid review at index " + i + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    // Bloqueo optimista: la versión que leyó el cliente debe seguir siendo la actual
+    private void checkVersion(Review entity, ReviewDTO dto) {
+        if (dto.getVersion() != null && !dto.getVersion().equals(entity.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Review.class, entity.getId());
+        }
+    }
+
+    // Sin filas actualizadas: la fila no existe (404) o la versión esperada ya no es la actual (409)
+    private RuntimeException updateFailure(Long id, ReviewDTO reviewDTO) {
+        if (reviewDTO.getVersion() != null && reviewRepository.existsById(id)) {
+            return new ObjectOptimisticLockingFailureException(Review.class, id);
+        }
+        return new RuntimeException("Review not found with id: " + id);
+    }
+
+    // Estado escrito por updateById: con versión esperada es el DTO con la siguiente; sin ella se relee
+    private ReviewDTO updatedDTO(Long id, ReviewDTO reviewDTO) {
+        if (reviewDTO.getVersion() == null) {
+            return reviewRepository.findProjectedById(id).orElseThrow();
+        }
+        reviewDTO.setId(id);
+        reviewDTO.setVersion(reviewDTO.getVersion() + 1);
+        return reviewDTO;
     }
 
     // Validation Methods
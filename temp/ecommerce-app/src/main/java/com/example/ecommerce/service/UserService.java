@@ -1,25 +1,49 @@
 package com.example.ecommerce.service;
 
+import com.example.ecommerce.cache.CacheWarmer;
+import com.example.ecommerce.cache.DtoCache;
+import com.example.ecommerce.cache.HotKeyTracker;
+import com.example.ecommerce.cache.NegativeCache;
+import com.example.ecommerce.cache.RefreshAheadCache;
+import com.example.ecommerce.cache.RefreshAheadCacheFactory;
 import com.example.ecommerce.dto.UserDTO;
+import com.example.ecommerce.dto.ScrollDTO;
 import com.example.ecommerce.entity.User;
 import com.example.ecommerce.mapper.UserMapper;
 import com.example.ecommerce.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.CachePut;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.Validator;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
-@Transactional
+@Transactional(readOnly = true)
 public class UserService {
 
     private static final Logger logger = LoggerFactory.getLogger(UserService.class);
@@ -30,76 +54,361 @@ public class UserService {
     @Autowired
     private UserMapper userMapper;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private HotKeyTracker hotKeyTracker;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CacheWarmer cacheWarmer;
+
+    @Autowired
+    private RefreshAheadCacheFactory refreshAheadCacheFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private DtoCache<Long, UserDTO> userCache;
+
+    // Claves de orden admitidas por /scroll (además de id)
+    private KeysetScroll userScroll;
+
+    // Búsquedas de autenticación: se recargan en segundo plano antes de caducar
+    private RefreshAheadCache<String, UserDTO> userByEmailCache;
+    private RefreshAheadCache<String, UserDTO> userByUsernameCache;
+    private NegativeCache<String> missingEmails;
+    private NegativeCache<String> missingUsernames;
+
+    @PostConstruct
+    void initCache() {
+        userCache = new DtoCache<>(cacheManager, hotKeyTracker, meterRegistry, "user", "users", UserDTO::getId);
+        cacheWarmer.register(userCache.warmupSource(Long::valueOf, userRepository::findProjectedByIdIn));
+
+        missingEmails = new NegativeCache<>(cacheManager, "userByEmail");
+        missingUsernames = new NegativeCache<>(cacheManager, "userByUsername");
+        userByEmailCache = refreshAheadCacheFactory.create("userByEmail", email -> {
+            // Sin el email en el log: es un dato personal
+            logger.info("Finding user by email");
+            return userRepository.findByEmail(email).stream().findFirst().map(userMapper::toDTO).orElse(null);
+        });
+        // Los emails no entran en el historial: se precarga desde los ids de usuario más pedidos
+        cacheWarmer.register(userByEmailCache.warmupSourceFrom("user", ids -> hotUsersBy(ids, UserDTO::getEmail)));
+
+        userByUsernameCache = refreshAheadCacheFactory.create("userByUsername", username -> {
+            logger.info("Finding user by username");
+            return userRepository.findByUsername(username).stream().findFirst().map(userMapper::toDTO).orElse(null);
+        });
+        cacheWarmer.register(userByUsernameCache.warmupSourceFrom("user", ids -> hotUsersBy(ids, UserDTO::getUsername)));
+        userScroll = new KeysetScroll(objectMapper, Map.of("email", String.class, "username", String.class));
+    }
+
+    /**
+     * Usuarios de un lote de ids del historial, indexados por su email o username actual.
+     */
+    private Map<String, UserDTO> hotUsersBy(List<String> ids, Function<UserDTO, String> key) {
+        return userRepository.findProjectedByIdIn(ids.stream().map(Long::valueOf).toList()).stream()
+                .collect(Collectors.toMap(key, Function.identity(), (first, second) -> first));
+    }
+
     // Basic CRUD Operations
-    @Cacheable(value = "users", key = "'all'")
     public List<UserDTO> findAll() {
-        logger.info("Finding all users");
-        return userRepository.findAll()
-                .stream()
-                .map(userMapper::toDTO)
-                .collect(Collectors.toList());
+        return userCache.findAll(() -> {
+            logger.info("Finding all users");
+            return userRepository.findAllProjectedBy();
+        });
     }
 
-    @Cacheable(value = "user", key = "#id")
     public Optional<UserDTO> findById(Long id) {
-        logger.info("Finding user with id: {}", id);
-        return userRepository.findById(id)
-                .map(userMapper::toDTO);
+        return userCache.findById(id, () -> {
+            logger.info("Finding user with id: {}", id);
+            return userRepository.findProjectedById(id);
+        });
+    }
+
+    public Optional<UserDTO> findByEmail(String email) {
+        return findLookup(userByEmailCache, missingEmails, email);
+    }
+
+    public Optional<UserDTO> findByUsername(String username) {
+        return findLookup(userByUsernameCache, missingUsernames, username);
+    }
+
+    public boolean existsByEmail(String email) {
+        return existsLookup(userByEmailCache, missingEmails, email, () -> userRepository.existsByEmail(email));
+    }
+
+    public boolean existsByUsername(String username) {
+        return existsLookup(userByUsernameCache, missingUsernames, username,
+                () -> userRepository.existsByUsername(username));
     }
 
     @Transactional
-    @CacheEvict(value = {"users", "user"}, allEntries = true)
     public UserDTO save(UserDTO userDTO) {
         logger.info("Saving user: {}", userDTO);
         validateUserDTO(userDTO);
         User user = userMapper.toEntity(userDTO);
         User savedUser = userRepository.save(user);
-        return userMapper.toDTO(savedUser);
+        UserDTO saved = userMapper.toDTO(savedUser);
+        userCache.put(saved);
+        putLookups(saved);
+        return saved;
     }
 
     @Transactional
-    @CachePut(value = "user", key = "#id")
-    @CacheEvict(value = "users", allEntries = true)
     public UserDTO update(Long id, UserDTO userDTO) {
         logger.info("Updating user with id: {}", id);
+        validateUserDTO(userDTO);
+        // El email y el username actuales son claves de los caches de búsqueda que el UPDATE puede
+        // cambiar: se leen por proyección, sin cargar la entidad
+        UserDTO current = userRepository.findProjectedById(id)
+                .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
+        // Un único UPDATE condicionado por id y versión
+        if (userRepository.updateById(id, userDTO.getVersion(), userDTO.getEmail(), userDTO.getUsername(),
+                userDTO.getPassword(), userDTO.getFirstName(), userDTO.getLastName(), userDTO.getPhone(),
+                userDTO.getActive()) == 0) {
+            throw new ObjectOptimisticLockingFailureException(User.class, id);
+        }
+        evictLookups(current.getEmail(), current.getUsername());
+        UserDTO updated = updatedDTO(id, userDTO);
+        userCache.put(updated);
+        putLookups(updated);
+        return updated;
+    }
+
+    /**
+     * JSON Merge Patch: solo cambian los campos presentes en el parche. Con @DynamicUpdate el UPDATE
+     * escribe únicamente las columnas modificadas, y ninguna si el parche no cambia nada.
+     */
+    @Transactional
+    public UserDTO patch(Long id, JsonNode patch, Long expectedVersion) {
+        logger.info("Patching user with id: {}", id);
         User existingUser = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
-        
+        UserDTO userDTO = JsonMergePatch.apply(objectMapper, validator, patch,
+                userMapper.toDTO(existingUser), UserDTO.class);
+        if (expectedVersion != null) {
+            userDTO.setVersion(expectedVersion);
+        }
         validateUserDTO(userDTO);
+        checkVersion(existingUser, userDTO);
+        evictLookups(existingUser);
         userMapper.updateEntityFromDTO(existingUser, userDTO);
-        User updatedUser = userRepository.save(existingUser);
-        return userMapper.toDTO(updatedUser);
+        User updatedUser = userRepository.saveAndFlush(existingUser);
+        UserDTO updated = userMapper.toDTO(updatedUser);
+        userCache.put(updated);
+        putLookups(updated);
+        return updated;
     }
 
     @Transactional
-    @CacheEvict(value = {"users", "user"}, key = "#id")
     public void deleteById(Long id) {
         logger.info("Deleting user with id: {}", id);
-        if (!userRepository.existsById(id)) {
+        // Las claves de los caches de búsqueda por proyección; el DELETE, en una sola sentencia
+        UserDTO current = userRepository.findProjectedById(id)
+                .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
+        if (userRepository.removeById(id) == 0) {
             throw new RuntimeException("User not found with id: " + id);
         }
-        userRepository.deleteById(id);
+        userCache.evict(id);
+        evictLookups(current.getEmail(), current.getUsername());
+    }
+
+    @Transactional
+    public List<UserDTO> saveAll(List<UserDTO> userDTOs) {
+        logger.info("Saving {} users", userDTOs.size());
+        validateBatch(userDTOs);
+        List<User> savedUsers = userRepository.saveAll(userDTOs.stream()
+                .map(userMapper::toEntity)
+                .toList());
+        List<UserDTO> saved = savedUsers.stream()
+                .map(userMapper::toDTO)
+                .toList();
+        userCache.putAll(saved);
+        saved.forEach(this::putLookups);
+        return saved;
+    }
+
+    @Transactional
+    public List<UserDTO> updateAll(List<UserDTO> userDTOs) {
+        logger.info("Updating {} users", userDTOs.size());
+        validateBatch(userDTOs);
+        Map<Long, User> existingUsers = findAllForBatch(userDTOs.stream()
+                .map(UserDTO::getId)
+                .toList());
+        existingUsers.values().forEach(this::evictLookups);
+        userDTOs.forEach(dto -> checkVersion(existingUsers.get(dto.getId()), dto));
+        userDTOs.forEach(dto -> userMapper.updateEntityFromDTO(existingUsers.get(dto.getId()), dto));
+        List<UserDTO> updated = userRepository.saveAllAndFlush(existingUsers.values())
+                .stream()
+                .map(userMapper::toDTO)
+                .toList();
+        userCache.putAll(updated);
+        updated.forEach(this::putLookups);
+        return updated;
+    }
+
+    @Transactional
+    public void deleteAllById(List<Long> ids) {
+        logger.info("Deleting {} users", ids.size());
+        Map<Long, User> existingUsers = findAllForBatch(ids);
+        userRepository.deleteAll(existingUsers.values());
+        userCache.evictAll(existingUsers.keySet());
+        existingUsers.values().forEach(this::evictLookups);
     }
 
     public boolean existsById(Long id) {
-        return userRepository.existsById(id);
+        return userCache.exists(id, () -> userRepository.existsById(id));
     }
 
     // Advanced Operations
     public Page<UserDTO> findAllPaginated(Pageable pageable) {
         logger.info("Finding all users with pagination: {}", pageable);
-        return userRepository.findAll(pageable)
-                .map(userMapper::toDTO);
+        return userRepository.findAllProjectedBy(pageable);
+    }
+
+    /**
+     * Página keyset: continúa tras el cursor "after" sin OFFSET y sin consulta COUNT.
+     */
+    public ScrollDTO<UserDTO> scroll(String after, int size, String sort) {
+        logger.info("Scrolling users after cursor {} sorted by {}", after, sort);
+        Sort order = userScroll.sort(sort, after);
+        Window<User> window = userRepository.findAllBy(userScroll.position(after), order, userScroll.limit(size));
+        return userScroll.page(window, order, userMapper::toDTO);
+    }
+
+    /**
+     * Escribe todos los users como NDJSON sin cargarlos en memoria: las filas se leen con un
+     * cursor y cada entidad se separa del contexto de persistencia una vez escrita.
+     */
+    public long exportTo(OutputStream out) throws IOException {
+        logger.info("Exporting all users");
+        try (Stream<User> users = userRepository.streamAll();
+             NdjsonWriter<UserDTO> writer = new NdjsonWriter<>(objectMapper, UserDTO.class, out)) {
+            Iterator<User> rows = users.iterator();
+            while (rows.hasNext()) {
+                User user = rows.next();
+                writer.write(userMapper.toDTO(user));
+                entityManager.detach(user);
+            }
+            return writer.getCount();
+        }
     }
 
     // Custom business methods
-    public List<UserDTO> findByStatus(String status) {
-        logger.info("Finding users by status: {}", status);
-        // Implementar lógica específica según el dominio
-        return userRepository.findAll()
+    public Page<UserDTO> findByActive(Boolean active, Pageable pageable) {
+        logger.info("Finding users by active: {} with pagination: {}", active, pageable);
+        return userRepository.findByActive(active, pageable)
+                .map(userMapper::toDTO);
+    }
+
+    private Optional<UserDTO> findLookup(RefreshAheadCache<String, UserDTO> cache, NegativeCache<String> missing,
+                                         String key) {
+        if (missing.isMissing(key)) {
+            return Optional.empty();
+        }
+        Optional<UserDTO> user = cache.get(key);
+        if (user.isEmpty()) {
+            missing.markMissing(key);
+        }
+        return user;
+    }
+
+    private boolean existsLookup(RefreshAheadCache<String, UserDTO> cache, NegativeCache<String> missing,
+                                 String key, BooleanSupplier query) {
+        if (cache.getIfPresent(key).isPresent()) {
+            return true;
+        }
+        if (missing.isMissing(key)) {
+            return false;
+        }
+        boolean exists = query.getAsBoolean();
+        if (!exists) {
+            missing.markMissing(key);
+        }
+        return exists;
+    }
+
+    private void putLookups(UserDTO user) {
+        if (user.getEmail() != null) {
+            missingEmails.invalidate(user.getEmail());
+            userByEmailCache.put(user.getEmail(), user);
+        }
+        if (user.getUsername() != null) {
+            missingUsernames.invalidate(user.getUsername());
+            userByUsernameCache.put(user.getUsername(), user);
+        }
+    }
+
+    private void evictLookups(User user) {
+        evictLookups(user.getEmail(), user.getUsername());
+    }
+
+    private void evictLookups(String email, String username) {
+        if (email != null) {
+            userByEmailCache.evict(email);
+        }
+        if (username != null) {
+            userByUsernameCache.evict(username);
+        }
+    }
+
+    // Estado escrito por updateById: con versión esperada es el DTO con la siguiente; sin ella se relee
+    private UserDTO updatedDTO(Long id, UserDTO userDTO) {
+        if (userDTO.getVersion() == null) {
+            return userRepository.findProjectedById(id).orElseThrow();
+        }
+        userDTO.setId(id);
+        userDTO.setVersion(userDTO.getVersion() + 1);
+        return userDTO;
+    }
+
+    // Batch Helpers
+    private Map<Long, User> findAllForBatch(List<Long> ids) {
+        if (ids == null || ids.isEmpty() || ids.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("User batch requires the id of every item");
+        }
+        Map<Long, User> found = userRepository.findAllById(ids)
                 .stream()
-                .map(userMapper::toDTO)
-                .collect(Collectors.toList());
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        Map<Long, User> ordered = new LinkedHashMap<>();
+        for (Long id : ids) {
+            User user = found.get(id);
+            if (user == null) {
+                throw new RuntimeException("User not found with id: " + id);
+            }
+            ordered.put(id, user);
+        }
+        return ordered;
+    }
+
+    private void validateBatch(List<UserDTO> userDTOs) {
+        if (userDTOs == null || userDTOs.isEmpty()) {
+            throw new IllegalArgumentException("User batch cannot be empty");
+        }
+        for (int i = 0; i < userDTOs.size(); i++) {
+            try {
+                validateUserDTO(userDTOs.get(i));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid user at index " + i + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    // Bloqueo optimista: la versión que leyó el cliente debe seguir siendo la actual
+    private void checkVersion(User entity, UserDTO dto) {
+        if (dto.getVersion() != null && !dto.getVersion().equals(entity.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(User.class, entity.getId());
+        }
     }
 
     // Validation Methods
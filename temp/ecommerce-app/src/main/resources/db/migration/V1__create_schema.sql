@@ -0,0 +1,97 @@
+-- Initial schema generated from the UML model. Hibernate only validates it (ddl-auto=validate):
+-- any change to an entity needs a new V<n>__*.sql migration next to this one.
+
+create sequence category_seq start with 1 increment by 50;
+create sequence orders_seq start with 1 increment by 50;
+create sequence order_item_seq start with 1 increment by 50;
+create sequence product_seq start with 1 increment by 50;
+create sequence review_seq start with 1 increment by 50;
+create sequence users_seq start with 1 increment by 50;
+
+create table category (
+    id bigint not null,
+    name varchar(255) not null,
+    description varchar(255),
+    active boolean not null,
+    version bigint not null default 0,
+    constraint pk_category primary key (id)
+);
+
+create table orders (
+    id bigint not null,
+    order_number varchar(255) not null,
+    order_date timestamp(6) not null,
+    status varchar(255) not null,
+    total double precision not null,
+    shipping_address varchar(255) not null,
+    version bigint not null default 0,
+    constraint pk_orders primary key (id)
+);
+
+create table product (
+    id bigint not null,
+    name varchar(255) not null,
+    description varchar(255),
+    price double precision not null,
+    stock integer not null,
+    sku varchar(255) not null,
+    active boolean not null,
+    version bigint not null default 0,
+    constraint pk_product primary key (id)
+);
+
+create table order_item (
+    id bigint not null,
+    quantity integer not null,
+    unit_price double precision not null,
+    subtotal double precision not null,
+    version bigint not null default 0,
+    order_id bigint,
+    product_id bigint,
+    constraint pk_order_item primary key (id)
+);
+
+create table review (
+    id bigint not null,
+    rating integer not null,
+    comment varchar(255),
+    review_date timestamp(6) not null,
+    version bigint not null default 0,
+    product_id bigint,
+    constraint pk_review primary key (id)
+);
+
+create table users (
+    id bigint not null,
+    email varchar(255) not null,
+    username varchar(255) not null,
+    password varchar(255) not null,
+    first_name varchar(255) not null,
+    last_name varchar(255) not null,
+    phone varchar(255),
+    active boolean not null,
+    version bigint not null default 0,
+    constraint uk_users_email unique (email),
+    constraint uk_users_username unique (username),
+    constraint pk_users primary key (id)
+);
+
+alter table order_item add constraint fk_order_item_order foreign key (order_id) references orders (id);
+alter table order_item add constraint fk_order_item_product foreign key (product_id) references product (id);
+alter table review add constraint fk_review_product foreign key (product_id) references product (id);
+
+create index idx_category_active on category (active);
+create index idx_category_name_id on category (name, id);
+create index idx_orders_status on orders (status);
+create index idx_orders_order_date_id on orders (order_date, id);
+create index idx_orders_total_id on orders (total, id);
+create index idx_order_item_subtotal_id on order_item (subtotal, id);
+create index idx_order_item_order_id on order_item (order_id);
+create index idx_order_item_product_id on order_item (product_id);
+create index idx_product_active on product (active);
+create index idx_product_price_id on product (price, id);
+create index idx_product_name_id on product (name, id);
+create index idx_review_review_date_id on review (review_date, id);
+create index idx_review_rating_id on review (rating, id);
+create index idx_review_product_id on review (product_id);
+create index idx_users_active on users (active);
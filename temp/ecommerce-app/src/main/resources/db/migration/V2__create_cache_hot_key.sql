@@ -0,0 +1,9 @@
+-- Hot-key history for the cache warm-up (HotKeyHistoryStore). Not mapped by any entity.
+-- Only caches keyed by ids are stored: caches keyed by emails or usernames stay in memory.
+
+create table cache_hot_key (
+    cache_name varchar(255) not null,
+    cache_key varchar(255) not null,
+    hits bigint not null,
+    constraint pk_cache_hot_key primary key (cache_name, cache_key)
+);
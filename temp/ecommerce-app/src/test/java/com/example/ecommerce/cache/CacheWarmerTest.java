@@ -0,0 +1,151 @@
+package com.example.ecommerce.cache;
+
+import com.example.ecommerce.dto.ProductDTO;
+import com.example.ecommerce.dto.UserDTO;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CacheWarmerTest {
+
+    private DriverManagerDataSource dataSource;
+    private HotKeyHistoryStore historyStore;
+
+    @BeforeEach
+    void migrate() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:hot-keys;DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        historyStore = new HotKeyHistoryStore(new JdbcTemplate(dataSource), new DataSourceTransactionManager(dataSource));
+    }
+
+    @AfterEach
+    void dropDatabase() {
+        new JdbcTemplate(dataSource).execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void hotKeysSurviveARestartAndAreLoadedInBatches() {
+        HotKeyTracker before = new HotKeyTracker(1000);
+        DtoCache<Long, ProductDTO> running = new DtoCache<>(new ConcurrentMapCacheManager(), before,
+                "product", "products", ProductDTO::getId);
+        for (long id = 1; id <= 10; id++) {
+            for (int i = 0; i < id * 2; i++) {
+                running.findById(id, () -> Optional.empty());
+            }
+        }
+        historyStore.save(before.history(100));
+
+        HotKeyTracker after = new HotKeyTracker(1000);
+        after.merge(historyStore.load());
+        assertEquals(List.of("10", "9", "8"), after.topKeys("product", 3));
+
+        CacheManager cacheManager = new ConcurrentMapCacheManager();
+        DtoCache<Long, ProductDTO> restarted = new DtoCache<>(cacheManager, after, "product", "products", ProductDTO::getId);
+        List<List<Long>> batches = new ArrayList<>();
+        CacheWarmer warmer = new CacheWarmer(after);
+        warmer.register(restarted.warmupSource(Long::valueOf, ids -> {
+            batches.add(ids);
+            return ids.stream().map(CacheWarmerTest::product).toList();
+        }));
+
+        int loaded = warmer.warm(5, 2, Duration.ofSeconds(10));
+
+        assertEquals(5, loaded);
+        assertEquals(List.of(List.of(10L, 9L), List.of(8L, 7L), List.of(6L)), batches);
+        Cache product = cacheManager.getCache("product");
+        assertNotNull(product.get(10L));
+        assertNotNull(product.get(6L));
+        assertNull(product.get(5L));
+    }
+
+    @Test
+    void privateCacheKeysAreNeverStored() {
+        HotKeyTracker tracker = new HotKeyTracker(1000, Set.of("userByEmail"));
+        tracker.record("userByEmail", "ana@example.com");
+        tracker.record("user", 1L);
+
+        historyStore.save(tracker.history(100));
+
+        assertEquals(List.of("ana@example.com"), tracker.topKeys("userByEmail", 10));
+        assertEquals(Set.of("user"), historyStore.load().keySet());
+        assertEquals(0, new JdbcTemplate(dataSource).queryForObject(
+                "select count(*) from cache_hot_key where cache_key like '%@%'", Integer.class));
+    }
+
+    @Test
+    void privateCachesAreWarmedFromTheHotIdsOfAnotherCache() {
+        HotKeyTracker before = new HotKeyTracker(1000, Set.of("userByEmail"));
+        before.record("user", 1L);
+        before.record("userByEmail", "ana@example.com");
+        historyStore.save(before.history(100));
+
+        HotKeyTracker after = new HotKeyTracker(1000, Set.of("userByEmail"));
+        after.merge(historyStore.load());
+        RefreshAheadCache<String, UserDTO> userByEmail = new RefreshAheadCache<>("userByEmail",
+                Caffeine.newBuilder().build(email -> null), after);
+        CacheWarmer warmer = new CacheWarmer(after);
+        warmer.register(userByEmail.warmupSourceFrom("user", ids -> Map.of("ana@example.com", user(Long.valueOf(ids.get(0))))));
+
+        assertEquals(1, warmer.warm(10, 10, Duration.ofSeconds(10)));
+        assertEquals(1L, userByEmail.getIfPresent("ana@example.com").orElseThrow().getId());
+    }
+
+    @Test
+    void stopsWhenTimeBudgetIsExhausted() {
+        HotKeyTracker tracker = new HotKeyTracker(1000);
+        for (long id = 1; id <= 10; id++) {
+            tracker.record("product", id);
+        }
+        CacheWarmer warmer = new CacheWarmer(tracker);
+        List<List<String>> batches = new ArrayList<>();
+        warmer.register(new CacheWarmupSource() {
+            @Override
+            public String getCacheName() {
+                return "product";
+            }
+
+            @Override
+            public int warm(List<String> keys) {
+                batches.add(keys);
+                try {
+                    Thread.sleep(60);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return keys.size();
+            }
+        });
+
+        int loaded = warmer.warm(10, 1, Duration.ofMillis(100));
+
+        assertTrue(batches.size() < 10, "warm-up stops before loading every key");
+        assertEquals(batches.size(), loaded);
+    }
+
+    private static UserDTO user(Long id) {
+        return new UserDTO(id, "ana@example.com", "ana", "secret", "Ana", "Pérez", null, true, 0L);
+    }
+
+    private static ProductDTO product(Long id) {
+        ProductDTO dto = new ProductDTO("Product " + id, "Description", 10.0, 5, "SKU-" + id, true);
+        dto.setId(id);
+        return dto;
+    }
+}
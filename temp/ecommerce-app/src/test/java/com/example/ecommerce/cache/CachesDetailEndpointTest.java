@@ -0,0 +1,133 @@
+package com.example.ecommerce.cache;
+
+import com.example.ecommerce.dto.CategoryDTO;
+import com.example.ecommerce.dto.ProductDTO;
+import com.example.ecommerce.service.CategoryService;
+import com.example.ecommerce.service.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.servlet.NoHandlerFoundException;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Los tests arrancan con JMX desactivado salvo que se pida explícitamente
+@SpringBootTest(properties = {
+        "app.cache.warmup.enabled=false",
+        "app.cache.specs.product.maximum-memory=16MB",
+        "spring.jmx.enabled=true"
+})
+@AutoConfigureMockMvc
+public class CachesDetailEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private CachesDetailEndpoint endpoint;
+
+    @Autowired
+    private CacheInspector cacheInspector;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void reportsHotKeysOverJmxOnly() throws Exception {
+        ProductDTO saved = productService.save(new ProductDTO("Lamp", "Desk lamp", 20.0, 3, "SKU-LAMP", true));
+        for (int i = 0; i < 3; i++) {
+            productService.findById(saved.getId());
+        }
+        productService.findById(-1L);
+
+        CacheInspector.CacheSummary product = endpoint.cache("product", null);
+        assertEquals("OffHeapCache", product.type());
+        assertEquals(1, product.size());
+        assertTrue(product.hitRatio() > 0.5);
+        assertEquals(3L, product.hotKeys().get(String.valueOf(saved.getId())));
+        Map<String, CacheInspector.CacheSummary> all = endpoint.caches(null);
+        assertEquals("CaffeineCache", all.get("userByEmail").type());
+        assertEquals(1, all.get("productMissing").size());
+        assertNull(endpoint.cache("unknown", null));
+
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        assertFalse(mBeanServer.queryNames(new ObjectName("org.springframework.boot:type=Endpoint,name=Cachesdetail,*"), null)
+                .isEmpty());
+        // Sin mapeo HTTP: ni lectura ni expulsión llegan al endpoint
+        for (MockHttpServletRequestBuilder request : List.of(get("/actuator/caches-detail/product"),
+                get("/actuator/cachesdetail"), delete("/actuator/cachesdetail/product").param("pattern", "*"))) {
+            mockMvc.perform(request).andExpect(result ->
+                    assertInstanceOf(NoHandlerFoundException.class, result.getResolvedException()));
+        }
+        assertEquals(1, endpoint.cache("product", null).size());
+
+        mockMvc.perform(get("/actuator/metrics/cache.gets").param("tag", "cache:product"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/metrics/cache.offheap.used").param("tag", "cache:product"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/metrics/cache.hit.ratio").param("tag", "cache:userByEmail"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void timesDtoCacheLoadsAndThrottlesTheSizeEstimate() {
+        CategoryDTO saved = categoryService.save(new CategoryDTO("Garden", "Garden tools", true));
+        cacheManager.getCache("category").evict(saved.getId());
+        long found = loads("found");
+        long missing = loads("missing");
+
+        categoryService.findById(saved.getId());
+        categoryService.findById(-10L);
+        assertEquals(found + 1, loads("found"));
+        assertEquals(missing + 1, loads("missing"));
+
+        // El gauge reutiliza su última estimación en lugar de serializar valores en cada scrape
+        Cache categoryMissing = cacheManager.getCache("categoryMissing");
+        long published = cacheInspector.recentEstimatedBytes(categoryMissing);
+        categoryService.findById(-11L);
+        assertEquals(published, cacheInspector.recentEstimatedBytes(categoryMissing));
+        assertTrue(cacheInspector.estimatedBytes(categoryMissing) > published);
+    }
+
+    private long loads(String result) {
+        return meterRegistry.get("cache.loader.duration").tag("cache", "category").tag("result", result).timer().count();
+    }
+
+    @Test
+    void evictByPatternIsDisabledUnlessConfigured() {
+        ProductDTO saved = productService.save(new ProductDTO("Desk", "Oak desk", 120.0, 2, "SKU-DESK", true));
+        productService.findById(saved.getId());
+
+        assertThrows(IllegalStateException.class, () -> endpoint.evict("product", "*"));
+        assertNotNull(cacheManager.getCache("product").get(saved.getId()));
+
+        Map<String, Object> result = new CachesDetailEndpoint(cacheInspector, true)
+                .evict("product", String.valueOf(saved.getId()));
+        assertEquals(1, result.get("evicted"));
+        assertNull(cacheManager.getCache("product").get(saved.getId()));
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.ecommerce.cache;
+
+import com.example.ecommerce.dto.ProductDTO;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compara la tasa de aciertos de los caches "product"/"products" bajo una carga mixta
+ * 90% lecturas / 10% escrituras: vaciado completo (allEntries) frente a DtoCache. La medida solo
+ * corre con -Pbenchmark; por defecto se comprueba que la lista cacheada sigue a la tabla.
+ */
+public class DtoCacheHitRateBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(DtoCacheHitRateBenchmarkTest.class);
+
+    private static final int KEYS = 1_000;
+    private static final int OPERATIONS = 200_000;
+
+    @Test
+    void perKeyMaintenanceKeepsCachedListInSync() {
+        Result perKey = run(50, 2_000, (caches, dto) -> caches.dtoCache.put(dto));
+
+        assertEquals(perKey.database, perKey.cachedList, "cached list must match the table after writes");
+    }
+
+    @Test
+    @Tag("benchmark")
+    void perKeyMaintenanceKeepsHitRateUnderMixedLoad() {
+        Result allEntries = run(KEYS, OPERATIONS, (caches, dto) -> {
+            caches.item.clear();
+            caches.list.clear();
+        });
+        Result perKey = run(KEYS, OPERATIONS, (caches, dto) -> caches.dtoCache.put(dto));
+
+        logger.info("allEntries eviction: hit rate {}", "%.3f".formatted(allEntries.hitRate()));
+        logger.info("per-key maintenance: hit rate {}", "%.3f".formatted(perKey.hitRate()));
+
+        assertTrue(perKey.hitRate() > 0.95, "per-key hit rate " + perKey.hitRate());
+        assertTrue(perKey.hitRate() > allEntries.hitRate() + 0.2);
+        assertEquals(perKey.database, perKey.cachedList, "cached list must match the table after writes");
+    }
+
+    private Result run(int keys, int operations, BiConsumer<Caches, ProductDTO> onWrite) {
+        Caches caches = new Caches();
+        Map<Long, ProductDTO> database = new TreeMap<>();
+        for (long id = 1; id <= keys; id++) {
+            database.put(id, product(id, 0));
+        }
+
+        Random random = new Random(42);
+        Result result = new Result();
+        for (int i = 0; i < operations; i++) {
+            int dice = random.nextInt(100);
+            long id = 1 + random.nextInt(keys);
+            if (dice < 10) {
+                ProductDTO updated = product(id, i);
+                database.put(id, updated);
+                onWrite.accept(caches, updated);
+            } else if (dice < 19) {
+                if (caches.list.get(DtoCache.ALL_KEY) != null) {
+                    result.hits++;
+                } else {
+                    result.misses++;
+                    caches.list.put(DtoCache.ALL_KEY, List.copyOf(database.values()));
+                }
+            } else {
+                if (caches.item.get(id) != null) {
+                    result.hits++;
+                } else {
+                    result.misses++;
+                    caches.item.put(id, database.get(id));
+                }
+            }
+        }
+        result.database = new ArrayList<>(database.values());
+        @SuppressWarnings("unchecked")
+        List<ProductDTO> cached = caches.list.get(DtoCache.ALL_KEY, List.class);
+        result.cachedList = cached;
+        return result;
+    }
+
+    private static ProductDTO product(long id, int version) {
+        ProductDTO dto = new ProductDTO("Product " + id, "v" + version, 10.0, version, "SKU-" + id, true);
+        dto.setId(id);
+        return dto;
+    }
+
+    private static class Caches {
+        final Cache item;
+        final Cache list;
+        final DtoCache<Long, ProductDTO> dtoCache;
+
+        Caches() {
+            CaffeineCacheManager cacheManager = new CaffeineCacheManager("product", "products", "productMissing");
+            cacheManager.setCaffeine(Caffeine.newBuilder().maximumSize(10_000));
+            item = cacheManager.getCache("product");
+            list = cacheManager.getCache("products");
+            dtoCache = new DtoCache<>(cacheManager, "product", "products", ProductDTO::getId);
+        }
+    }
+
+    private static class Result {
+        long hits;
+        long misses;
+        List<ProductDTO> database;
+        List<ProductDTO> cachedList;
+
+        double hitRate() {
+            return (double) hits / (hits + misses);
+        }
+    }
+}
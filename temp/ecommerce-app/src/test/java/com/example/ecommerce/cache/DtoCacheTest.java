@@ -0,0 +1,61 @@
+package com.example.ecommerce.cache;
+
+import com.example.ecommerce.dto.ProductDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DtoCacheTest {
+
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
+    private final DtoCache<Long, ProductDTO> dtoCache =
+            new DtoCache<>(cacheManager, "product", "products", ProductDTO::getId);
+
+    @Test
+    void loadStartedBeforeWriteDoesNotOverwriteIt() {
+        // La carga lee la fila antes del commit de una actualización cuyo afterCommit termina antes que ella
+        Optional<ProductDTO> loaded = dtoCache.findById(1L, () -> {
+            ProductDTO stale = product(1L, 5);
+            dtoCache.put(product(1L, 4));
+            return Optional.of(stale);
+        });
+
+        assertEquals(5, loaded.orElseThrow().getStock());
+        assertEquals(4, dtoCache.findById(1L, Optional::empty).orElseThrow().getStock());
+    }
+
+    @Test
+    void missingLoadStartedBeforeInsertIsNotRemembered() {
+        Optional<ProductDTO> loaded = dtoCache.findById(1L, () -> {
+            dtoCache.put(product(1L, 4));
+            return Optional.empty();
+        });
+
+        assertTrue(loaded.isEmpty());
+        assertNull(cacheManager.getCache("productMissing").get(1L));
+        assertTrue(dtoCache.findById(1L, Optional::empty).isPresent());
+    }
+
+    @Test
+    void listLoadStartedBeforeWriteIsNotStored() {
+        dtoCache.findAll(() -> {
+            List<ProductDTO> stale = List.of(product(1L, 5));
+            dtoCache.evict(1L);
+            return stale;
+        });
+
+        assertNull(cacheManager.getCache("products").get(DtoCache.ALL_KEY));
+        assertEquals(List.of(), dtoCache.findAll(List::of));
+        assertEquals(List.of(), dtoCache.findAll(() -> List.of(product(2L, 1))));
+    }
+
+    private static ProductDTO product(Long id, int stock) {
+        ProductDTO dto = new ProductDTO("Product " + id, "Description", 10.0, stock, "SKU-" + id, true);
+        dto.setId(id);
+        return dto;
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.ecommerce.cache;
+
+import com.example.ecommerce.dto.ProductDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonBytesCacheTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(JsonBytesCacheTest.class);
+
+    private static final int PRODUCTS = 1_000;
+    private static final int REQUESTS = 200;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
+
+    @Test
+    void writesInvalidateRenderedJson() throws Exception {
+        DtoCache<Long, ProductDTO> dtoCache = new DtoCache<>(cacheManager, "product", "products", ProductDTO::getId);
+        JsonBytesCache<Long> json = new JsonBytesCache<>(cacheManager, "productJson", "productsJson", objectMapper, true);
+        dtoCache.setRenderedJson(json);
+        dtoCache.put(product(1L, 5));
+        AtomicInteger renders = new AtomicInteger();
+
+        byte[] first = json.getItem(1L, () -> {
+            renders.incrementAndGet();
+            return dtoCache.findById(1L, Optional::empty);
+        }, ProductDTO::getVersion).orElseThrow().json();
+        json.getItem(1L, () -> {
+            renders.incrementAndGet();
+            return dtoCache.findById(1L, Optional::empty);
+        }, ProductDTO::getVersion);
+        assertEquals(1, renders.get());
+        assertEquals(5, objectMapper.readValue(first, ProductDTO.class).getStock());
+
+        ProductDTO changed = product(1L, 4);
+        changed.setVersion(1L);
+        dtoCache.put(changed);
+        JsonBytesCache.Rendered updated = json.getItem(1L, () -> dtoCache.findById(1L, Optional::empty),
+                ProductDTO::getVersion).orElseThrow();
+        assertEquals(4, objectMapper.readValue(updated.json(), ProductDTO.class).getStock());
+        // El ETag se toma de la misma versión que los bytes enviados
+        assertEquals(1L, updated.version());
+    }
+
+    @Test
+    void renderStartedBeforeInvalidationIsNotStored() {
+        DtoCache<Long, ProductDTO> dtoCache = new DtoCache<>(cacheManager, "product", "products", ProductDTO::getId);
+        JsonBytesCache<Long> json = new JsonBytesCache<>(cacheManager, "productJson", "productsJson", objectMapper, true);
+        dtoCache.setRenderedJson(json);
+
+        json.getItem(1L, () -> {
+            ProductDTO stale = product(1L, 5);
+            dtoCache.put(product(1L, 4));
+            return Optional.of(stale);
+        }, ProductDTO::getVersion);
+
+        assertNull(cacheManager.getCache("productJson").get(1L));
+    }
+
+    @Test
+    void cachedListMatchesSerializingPerRequest() {
+        List<ProductDTO> products = products(10);
+        JsonBytesCache<Long> cached = new JsonBytesCache<>(cacheManager, "productJson", "productsJson", objectMapper, true);
+        JsonBytesCache<Long> uncached = new JsonBytesCache<>(cacheManager, "productJson", "productsJson", objectMapper, false);
+        assertArrayEquals(uncached.getList(() -> products), cached.getList(() -> products));
+        assertArrayEquals(uncached.getList(() -> products), cached.getList(List::of));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void cachedListAllocatesFarLessThanSerializingPerRequest() {
+        List<ProductDTO> products = products(PRODUCTS);
+        JsonBytesCache<Long> cached = new JsonBytesCache<>(cacheManager, "productJson", "productsJson", objectMapper, true);
+        JsonBytesCache<Long> uncached = new JsonBytesCache<>(cacheManager, "productJson", "productsJson", objectMapper, false);
+
+        long[] perRequest = new long[2];
+        JsonBytesCache<?>[] variants = {uncached, cached};
+        for (int v = 0; v < variants.length; v++) {
+            JsonBytesCache<?> json = variants[v];
+            long before = allocatedBytes();
+            long start = System.nanoTime();
+            for (int i = 0; i < REQUESTS; i++) {
+                json.getList(() -> products);
+            }
+            long elapsed = System.nanoTime() - start;
+            perRequest[v] = (allocatedBytes() - before) / REQUESTS;
+            logger.info("{}: {} bytes allocated, {} us per request",
+                    v == 0 ? "serialize per request" : "cached JSON bytes", perRequest[v], elapsed / REQUESTS / 1000);
+        }
+
+        assertTrue(perRequest[1] * 10 < perRequest[0],
+                "cached " + perRequest[1] + " bytes vs serialized " + perRequest[0] + " bytes per request");
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    private static List<ProductDTO> products(int count) {
+        List<ProductDTO> products = new ArrayList<>();
+        for (long id = 1; id <= count; id++) {
+            products.add(product(id, 5));
+        }
+        return products;
+    }
+
+    private static ProductDTO product(Long id, int stock) {
+        ProductDTO dto = new ProductDTO("Product " + id, "Description of product " + id, 10.0, stock, "SKU-" + id, true);
+        dto.setId(id);
+        return dto;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.ecommerce.cache;
+
+import com.example.ecommerce.dto.ProductDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NegativeCacheTest {
+
+    private final AtomicInteger queries = new AtomicInteger();
+    private DtoCache<Long, ProductDTO> cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new DtoCache<>(new CaffeineCacheManager(), "product", "products", ProductDTO::getId);
+    }
+
+    @Test
+    void missingIdIsQueriedOnce() {
+        for (int i = 0; i < 5; i++) {
+            assertTrue(cache.findById(404L, this::notFound).isEmpty());
+            assertFalse(cache.exists(404L, () -> queries.incrementAndGet() < 0));
+        }
+        assertEquals(1, queries.get());
+        assertNotNull(cache.getMissingCache().get(404L));
+    }
+
+    @Test
+    void creatingTheEntityInvalidatesTheNegativeEntry() {
+        assertTrue(cache.findById(7L, this::notFound).isEmpty());
+
+        cache.put(product(7L));
+
+        assertNull(cache.getMissingCache().get(7L));
+        assertEquals(7L, cache.findById(7L, this::notFound).orElseThrow().getId());
+        assertTrue(cache.exists(7L, () -> queries.incrementAndGet() < 0));
+        assertEquals(1, queries.get());
+    }
+
+    @Test
+    void existingIdsAreNotRememberedAsMissing() {
+        assertTrue(cache.exists(1L, () -> queries.incrementAndGet() > 0));
+        assertTrue(cache.exists(1L, () -> queries.incrementAndGet() > 0));
+
+        assertEquals(2, queries.get(), "positive exists results are not cached without the DTO");
+        assertNull(cache.getMissingCache().get(1L));
+    }
+
+    private Optional<ProductDTO> notFound() {
+        queries.incrementAndGet();
+        return Optional.empty();
+    }
+
+    private static ProductDTO product(Long id) {
+        ProductDTO dto = new ProductDTO("Product " + id, "Description", 10.0, 5, "SKU-" + id, true);
+        dto.setId(id);
+        return dto;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.ecommerce.cache;
+
+import com.example.ecommerce.dto.ProductDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OffHeapCacheTest {
+
+    @Test
+    void storesAndReadsSerializedValues() {
+        OffHeapCache cache = new OffHeapCache("product", 64 * 1024, null);
+
+        cache.put(1L, product(1L, "a".repeat(1000)));
+
+        ProductDTO cached = cache.get(1L, ProductDTO.class);
+        assertNotNull(cached);
+        assertEquals(1L, cached.getId());
+        assertEquals(1000, cached.getDescription().length());
+        assertEquals(1, cache.size());
+        assertTrue(cache.getUsedBytes() > 1000);
+        assertTrue(cache.getAllocatedBytes() >= cache.getUsedBytes());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedWhenFull() {
+        OffHeapCache cache = new OffHeapCache("product", 4 * 1024, OffHeapCache.UNBOUNDED, 256, null, true);
+
+        cache.put(1L, product(1L, "x"));
+        cache.put(2L, product(2L, "x"));
+        cache.get(1L);
+        for (long id = 3; id <= 20; id++) {
+            cache.put(id, product(id, "x"));
+            cache.get(1L);
+        }
+
+        assertNotNull(cache.get(1L), "recently read entry survives");
+        assertNull(cache.get(2L), "least recently used entry is evicted");
+        assertTrue(cache.getEvictionCount() > 0);
+        assertTrue(cache.getAllocatedBytes() <= cache.getCapacityBytes());
+    }
+
+    @Test
+    void enforcesMaximumSize() {
+        OffHeapCache cache = new OffHeapCache("product", 64 * 1024, 8, null);
+
+        for (long id = 1; id <= 100; id++) {
+            cache.put(id, product(id, "x"));
+        }
+
+        assertTrue(cache.size() <= 8);
+        assertEquals(100 - cache.size(), cache.getEvictionCount());
+        assertNotNull(cache.get(100L), "latest entry is kept");
+    }
+
+    @Test
+    void evictAndClearReleaseMemory() {
+        OffHeapCache cache = new OffHeapCache("product", 64 * 1024, null);
+        cache.put(1L, product(1L, "x"));
+        cache.put(2L, product(2L, "x"));
+
+        cache.evict(1L);
+        assertNull(cache.get(1L));
+        assertEquals(1, cache.size());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getUsedBytes());
+        assertEquals(0, cache.getAllocatedBytes());
+    }
+
+    @Test
+    void replacingAnEntryDoesNotLeakBlocks() {
+        OffHeapCache cache = new OffHeapCache("product", 64 * 1024, null);
+        cache.put(1L, product(1L, "a".repeat(2000)));
+        cache.put(1L, product(1L, "b"));
+
+        assertEquals("b", cache.get(1L, ProductDTO.class).getDescription());
+        long blocks = (cache.getUsedBytes() + OffHeapCache.DEFAULT_BLOCK_SIZE - 1) / OffHeapCache.DEFAULT_BLOCK_SIZE;
+        assertEquals(blocks * OffHeapCache.DEFAULT_BLOCK_SIZE, cache.getAllocatedBytes());
+    }
+
+    @Test
+    void expiredEntriesAreNotReturned() throws InterruptedException {
+        OffHeapCache cache = new OffHeapCache("product", 64 * 1024, Duration.ofMillis(50));
+        cache.put(1L, product(1L, "x"));
+        assertNotNull(cache.get(1L));
+
+        Thread.sleep(100);
+        assertNull(cache.get(1L));
+        assertEquals(0, cache.size());
+    }
+
+    private static ProductDTO product(Long id, String description) {
+        ProductDTO dto = new ProductDTO("Product " + id, description, 10.0, 5, "SKU-" + id, true);
+        dto.setId(id);
+        return dto;
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.ecommerce.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RefreshAheadCacheTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final Map<String, String> database = new ConcurrentHashMap<>();
+    private final Map<String, String> loadedBy = new ConcurrentHashMap<>();
+    private final CountDownLatch backgroundGate = new CountDownLatch(1);
+    private final String testThread = Thread.currentThread().getName();
+    private ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<>(1));
+    private RefreshAheadCacheFactory factory;
+
+    @AfterEach
+    void tearDown() {
+        backgroundGate.countDown();
+        if (factory != null) {
+            factory.close();
+        }
+    }
+
+    @Test
+    void staleValueIsServedWhileReloadRunsInBackground() {
+        // La recarga en segundo plano espera a backgroundGate
+        RefreshAheadCache<String, String> cache = cache();
+        database.put("ana@example.com", "v1");
+        assertEquals("v1", cache.get("ana@example.com").orElseThrow());
+        assertEquals(Thread.currentThread().getName(), loadedBy.get("v1"), "first load is synchronous");
+
+        database.put("ana@example.com", "v2");
+        nanos.addAndGet(Duration.ofMinutes(6).toNanos());
+
+        assertEquals("v1", cache.get("ana@example.com").orElseThrow(), "stale value is served immediately");
+        assertEquals("v1", cache.get("ana@example.com").orElseThrow(), "one reload in flight per key");
+        backgroundGate.countDown();
+        await().atMost(Duration.ofSeconds(5))
+                .untilAsserted(() -> assertEquals("v2", cache.get("ana@example.com").orElseThrow()));
+        assertNotEquals(Thread.currentThread().getName(), loadedBy.get("v2"), "reload runs on the refresh pool");
+    }
+
+    @Test
+    void expiredEntriesAreLoadedSynchronously() {
+        RefreshAheadCache<String, String> cache = cache();
+        database.put("ana@example.com", "v1");
+        cache.get("ana@example.com");
+
+        database.put("ana@example.com", "v2");
+        nanos.addAndGet(Duration.ofMinutes(31).toNanos());
+
+        assertEquals("v2", cache.get("ana@example.com").orElseThrow());
+    }
+
+    @Test
+    void saturatedPoolKeepsServingCachedValue() throws InterruptedException {
+        RefreshAheadCache<String, String> cache = cache();
+        database.put("a", "a1");
+        database.put("b", "b1");
+        database.put("c", "c1");
+        cache.get("a");
+        cache.get("b");
+        cache.get("c");
+
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            while (true) {
+                executor.execute(() -> awaitQuietly(release));
+            }
+        } catch (RejectedExecutionException full) {
+            // pool y cola ocupados
+        }
+        nanos.addAndGet(Duration.ofMinutes(6).toNanos());
+
+        assertEquals("a1", cache.get("a").orElseThrow());
+        assertEquals("b1", cache.get("b").orElseThrow());
+        release.countDown();
+    }
+
+    @Test
+    void missingKeysAreNotCached() {
+        RefreshAheadCache<String, String> cache = cache();
+        assertTrue(cache.get("nobody@example.com").isEmpty());
+
+        database.put("nobody@example.com", "v1");
+        assertEquals("v1", cache.get("nobody@example.com").orElseThrow());
+    }
+
+    private RefreshAheadCache<String, String> cache() {
+        factory = new RefreshAheadCacheFactory(
+                name -> Caffeine.newBuilder().expireAfterWrite(Duration.ofMinutes(30)).ticker(nanos::get),
+                name -> Duration.ofMinutes(5),
+                executor, null);
+        return factory.create("userByEmail", email -> {
+            if (!Thread.currentThread().getName().equals(testThread)) {
+                awaitQuietly(backgroundGate);
+            }
+            String value = database.get(email);
+            if (value != null) {
+                loadedBy.put(value, Thread.currentThread().getName());
+            }
+            return value;
+        });
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
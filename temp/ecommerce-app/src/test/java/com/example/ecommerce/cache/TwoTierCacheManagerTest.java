@@ -0,0 +1,207 @@
+package com.example.ecommerce.cache;
+
+import com.example.ecommerce.config.CacheProperties;
+import com.example.ecommerce.config.TwoTierCacheConfig;
+import com.example.ecommerce.dto.ProductDTO;
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.spring.cache.HazelcastCacheManager;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Simula dos réplicas con L1 propio que comparten un L2 Hazelcast embebido en modo local.
+ */
+public class TwoTierCacheManagerTest {
+
+    private static HazelcastInstance hazelcast;
+
+    private TwoTierCacheManager nodeA;
+    private TwoTierCacheManager nodeB;
+
+    @BeforeAll
+    static void startHazelcast() {
+        Config config = new Config();
+        config.setClusterName("two-tier-test-" + UUID.randomUUID());
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        config.getNetworkConfig().getJoin().getTcpIpConfig().setEnabled(false);
+        hazelcast = Hazelcast.newHazelcastInstance(config);
+    }
+
+    @AfterAll
+    static void stopHazelcast() {
+        hazelcast.shutdown();
+    }
+
+    @BeforeEach
+    void setUp() {
+        hazelcast.getMap("product").clear();
+        hazelcast.getMap("products").clear();
+        nodeA = node();
+        nodeB = node();
+    }
+
+    @Test
+    void writeOnOneNodeInvalidatesNearCacheOfTheOther() {
+        Cache cacheA = nodeA.getCache("product");
+        Cache cacheB = nodeB.getCache("product");
+
+        cacheA.put(1L, product(1L, 10));
+        assertEquals(10, cacheB.get(1L, ProductDTO.class).getStock(), "node B reads through to L2");
+
+        cacheA.put(1L, product(1L, 7));
+        await().atMost(Duration.ofSeconds(5))
+                .untilAsserted(() -> assertEquals(7, cacheB.get(1L, ProductDTO.class).getStock()));
+
+        cacheB.evict(1L);
+        await().atMost(Duration.ofSeconds(5))
+                .untilAsserted(() -> assertNull(cacheA.get(1L)));
+    }
+
+    @Test
+    void clearIsBroadcast() {
+        Cache cacheA = nodeA.getCache("product");
+        Cache cacheB = nodeB.getCache("product");
+        cacheA.put(1L, product(1L, 10));
+        cacheB.get(1L);
+
+        cacheA.clear();
+        await().atMost(Duration.ofSeconds(5))
+                .untilAsserted(() -> assertNull(cacheB.get(1L)));
+    }
+
+    @Test
+    void readsAreServedFromLocalTierOnceLoaded() {
+        Cache cacheA = nodeA.getCache("product");
+        cacheA.put(2L, product(2L, 3));
+        hazelcast.getMap("product").clear();
+
+        assertNotNull(cacheA.get(2L), "L1 keeps serving until invalidated");
+        assertNull(nodeB.getCache("product").get(2L));
+    }
+
+    @Test
+    void writesOnBothNodesDoNotLoseEachOthersListUpdate() {
+        DtoCache<Long, ProductDTO> cacheA = new DtoCache<>(nodeA, "product", "products", ProductDTO::getId);
+        DtoCache<Long, ProductDTO> cacheB = new DtoCache<>(nodeB, "product", "products", ProductDTO::getId);
+        cacheA.findAll(() -> List.of(product(1L, 10), product(2L, 10)));
+        assertEquals(2, cacheB.findAll(List::of).size(), "node B reads the shared list");
+
+        // Cada nodo partiría de la misma lista compartida; en su lugar la descartan
+        cacheA.put(product(1L, 9));
+        cacheB.put(product(2L, 8));
+
+        assertNull(hazelcast.getMap("products").get(DtoCache.ALL_KEY));
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            assertEquals(List.of(), cacheA.findAll(List::of));
+            assertEquals(List.of(), cacheB.findAll(List::of));
+        });
+        assertEquals(9, cacheB.findById(1L, Optional::empty).orElseThrow().getStock());
+    }
+
+    @Test
+    void invalidationBetweenTheSharedReadAndTheLocalFillIsNotLost() {
+        ConcurrentMap<Object, Object> sharedStore = new ConcurrentHashMap<>();
+        List<Consumer<CacheInvalidation>> listeners = new ArrayList<>();
+        CacheInvalidationBus bus = new CacheInvalidationBus() {
+            @Override
+            public void publish(CacheInvalidation invalidation) {
+                listeners.forEach(listener -> listener.accept(invalidation));
+            }
+
+            @Override
+            public void subscribe(Consumer<CacheInvalidation> listener) {
+                listeners.add(listener);
+            }
+        };
+        AtomicReference<Runnable> afterSharedRead = new AtomicReference<>();
+        TwoTierCacheManager a = new TwoTierCacheManager(new CaffeineCacheManager(), new ConcurrentMapCacheManager() {
+            @Override
+            protected Cache createConcurrentMapCache(String name) {
+                return new ConcurrentMapCache(name, sharedStore, false) {
+                    @Override
+                    protected Object lookup(Object key) {
+                        Object value = super.lookup(key);
+                        Runnable hook = afterSharedRead.getAndSet(null);
+                        if (hook != null) {
+                            hook.run();
+                        }
+                        return value;
+                    }
+                };
+            }
+        }, bus);
+        TwoTierCacheManager b = new TwoTierCacheManager(new CaffeineCacheManager(), new ConcurrentMapCacheManager() {
+            @Override
+            protected Cache createConcurrentMapCache(String name) {
+                return new ConcurrentMapCache(name, sharedStore, false);
+            }
+        }, bus);
+        Cache cacheA = a.getCache("product");
+        Cache cacheB = b.getCache("product");
+        cacheB.put(1L, product(1L, 10));
+
+        // A ya leyó la versión 10 de L2 cuando B escribe la 7 y A recibe la invalidación
+        afterSharedRead.set(() -> cacheB.put(1L, product(1L, 7)));
+        assertEquals(10, cacheA.get(1L, ProductDTO.class).getStock());
+
+        assertNull(((TwoTierCache) cacheA).getLocal().get(1L), "the stale read is not copied into L1");
+        assertEquals(7, cacheA.get(1L, ProductDTO.class).getStock());
+    }
+
+    @Test
+    void sharedTierIsBoundedByTheSpecMaximumSize() {
+        CacheProperties cacheProperties = new CacheProperties();
+        cacheProperties.getTwoTier().setClusterName("two-tier-bounded-" + UUID.randomUUID());
+        CacheProperties.Spec spec = new CacheProperties.Spec();
+        spec.setMaximumSize(5_000L);
+        cacheProperties.getSpecs().put("product", spec);
+        HazelcastInstance bounded = new TwoTierCacheConfig().cacheHazelcastInstance(cacheProperties);
+        try {
+            assertEquals(5_000, bounded.getConfig().getMapConfig("product").getEvictionConfig().getSize());
+            assertEquals(10_000, bounded.getConfig().getMapConfig("productMissing").getEvictionConfig().getSize());
+
+            IMap<Long, ProductDTO> map = bounded.getMap("product");
+            for (long id = 1; id <= 10_000; id++) {
+                map.set(id, product(id, 1));
+            }
+            assertTrue(map.size() <= 5_000, "L2 holds at most maximum-size entries, not " + map.size());
+        } finally {
+            bounded.shutdown();
+        }
+    }
+
+    private static TwoTierCacheManager node() {
+        return new TwoTierCacheManager(
+                new CaffeineCacheManager(),
+                new HazelcastCacheManager(hazelcast),
+                new HazelcastCacheInvalidationBus(hazelcast, "cache-invalidation"));
+    }
+
+    private static ProductDTO product(Long id, int stock) {
+        ProductDTO dto = new ProductDTO("Product " + id, "Description", 10.0, stock, "SKU-" + id, true);
+        dto.setId(id);
+        return dto;
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.ecommerce.controller;
+
+import com.example.ecommerce.dto.ProductDTO;
+import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.entity.Review;
+import com.example.ecommerce.repository.ProductRepository;
+import com.example.ecommerce.repository.ReviewRepository;
+import com.example.ecommerce.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "app.cache.warmup.enabled=false")
+@AutoConfigureMockMvc
+public class OptimisticLockingControllerTest {
+
+    private static final int WRITERS = 8;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    private Long id;
+
+    @BeforeEach
+    void setUp() {
+        id = productRepository.save(new Product("Versioned", "Optimistic", 10.0, 5, "VERSION-1", true)).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteById(id);
+    }
+
+    @Test
+    void putRequiresTheCurrentETag() throws Exception {
+        String etag = mockMvc.perform(get("/api/product/" + id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(0))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertEquals("\"0\"", etag);
+
+        mockMvc.perform(update(12.0).header(HttpHeaders.IF_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.price").value(12.0));
+
+        // Segunda escritura basada en la misma lectura: no pisa la primera
+        mockMvc.perform(update(15.0).header(HttpHeaders.IF_MATCH, etag))
+                .andExpect(status().isConflict());
+        mockMvc.perform(get("/api/product/" + id))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.price").value(12.0));
+
+        mockMvc.perform(update(15.0).header(HttpHeaders.IF_MATCH, "W/\"1\"")).andExpect(status().isBadRequest());
+        mockMvc.perform(update(15.0).header(HttpHeaders.IF_MATCH, "*")).andExpect(status().isOk());
+        // Sin If-Match ni versión en el cuerpo se mantiene el comportamiento anterior
+        mockMvc.perform(update(16.0)).andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+    }
+
+    @Test
+    void versionInTheBodyIsCheckedForSingleAndBatchUpdates() throws Exception {
+        ProductDTO stale = productService.findById(id).orElseThrow();
+        productService.update(id, copy(stale, 11.0));
+
+        mockMvc.perform(put("/api/product/" + id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(copy(stale, 20.0))))
+                .andExpect(status().isConflict());
+        mockMvc.perform(put("/api/product/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(copy(stale, 20.0)))))
+                .andExpect(status().isConflict());
+        assertEquals(11.0, productRepository.findById(id).orElseThrow().getPrice());
+    }
+
+    @Test
+    void stockReservationInvalidatesEarlierReads() throws Exception {
+        String etag = mockMvc.perform(get("/api/product/" + id)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(post("/api/product/" + id + "/reserve").param("quantity", "2")).andExpect(status().isOk());
+
+        // El PUT reescribiría stock = 5 sobre la reserva
+        mockMvc.perform(update(10.0).header(HttpHeaders.IF_MATCH, etag)).andExpect(status().isConflict());
+        assertEquals(3, productRepository.findById(id).orElseThrow().getStock());
+    }
+
+    @Test
+    void getServesTheETagOfTheCachedBody() throws Exception {
+        mockMvc.perform(get("/api/product/" + id)).andExpect(status().isOk());
+        mockMvc.perform(post("/api/product/" + id + "/reserve").param("quantity", "2")).andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/product/" + id))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.version").value(1))
+                .andExpect(jsonPath("$.stock").value(3));
+    }
+
+    @Test
+    void deletingAReferencedProductIsAConflict() throws Exception {
+        Review review = new Review(5, "Still referenced", LocalDateTime.now());
+        review.setProduct(productRepository.findById(id).orElseThrow());
+        review = reviewRepository.save(review);
+        try {
+            mockMvc.perform(delete("/api/product/" + id)).andExpect(status().isConflict());
+            assertTrue(productRepository.existsById(id));
+        } finally {
+            reviewRepository.delete(review);
+        }
+    }
+
+    @Test
+    void concurrentWritersFromTheSameReadCommitOnce() throws Exception {
+        ProductDTO read = productService.findById(id).orElseThrow();
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> writers = new ArrayList<>();
+        try {
+            for (int i = 0; i < WRITERS; i++) {
+                double price = 100.0 + i;
+                writers.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        productService.update(id, copy(read, price));
+                        return true;
+                    } catch (OptimisticLockingFailureException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+            int committed = 0;
+            for (Future<Boolean> writer : writers) {
+                committed += writer.get(30, TimeUnit.SECONDS) ? 1 : 0;
+            }
+            assertEquals(1, committed);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1L, productRepository.findById(id).orElseThrow().getVersion());
+    }
+
+    private MockHttpServletRequestBuilder update(double price) throws Exception {
+        return put("/api/product/" + id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new ProductDTO("Versioned", "Optimistic", price, 5, "VERSION-1", true)));
+    }
+
+    private static ProductDTO copy(ProductDTO source, double price) {
+        ProductDTO dto = new ProductDTO(source.getName(), source.getDescription(), price, source.getStock(),
+                source.getSku(), source.getActive());
+        dto.setId(source.getId());
+        dto.setVersion(source.getVersion());
+        return dto;
+    }
+}
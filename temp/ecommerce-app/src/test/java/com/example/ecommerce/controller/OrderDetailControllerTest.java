@@ -0,0 +1,119 @@
+package com.example.ecommerce.controller;
+
+import com.example.ecommerce.dto.OrderDetailDTO;
+import com.example.ecommerce.entity.Order;
+import com.example.ecommerce.entity.OrderItem;
+import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.repository.OrderRepository;
+import com.example.ecommerce.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * El detalle de un pedido con N líneas no debe costar 1 + N + N consultas.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "app.cache.warmup.enabled=false",
+        "app.cache.specs.product.maximum-memory=16MB"
+})
+@AutoConfigureMockMvc
+public class OrderDetailControllerTest {
+
+    private static final int ITEMS = 20;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+    private List<Product> products;
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        products = productRepository.saveAll(IntStream.range(0, ITEMS)
+                .mapToObj(i -> new Product("Detail " + i, "Order detail", 10.0 + i, 5, "DETAIL-" + i, true))
+                .toList());
+        Order draft = new Order("DETAIL-1", LocalDateTime.of(2024, 1, 1, 12, 0), "NEW", 0.0, "Street 1");
+        for (Product product : products) {
+            OrderItem item = new OrderItem(2, product.getPrice(), 2 * product.getPrice());
+            item.setOrder(draft);
+            item.setProduct(product);
+            draft.getItems().add(item);
+        }
+        order = orderRepository.save(draft);
+        // Sin cache de segundo nivel: cada producto tendría que leerse de la base de datos
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteById(order.getId());
+        productRepository.deleteAllInBatch(products);
+    }
+
+    @Test
+    void detailLoadsOrderItemsAndProductsInOneStatement() throws Exception {
+        statistics.clear();
+        OrderDetailDTO detail = objectMapper.readValue(mockMvc.perform(get("/api/order/" + order.getId() + "/detail"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray(), OrderDetailDTO.class);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals("DETAIL-1", detail.getOrder().getOrderNumber());
+        assertEquals(ITEMS, detail.getItems().size());
+        assertEquals(products.stream().map(Product::getSku).sorted().toList(),
+                detail.getItems().stream().map(item -> item.getProduct().getSku()).sorted().toList());
+        assertTrue(detail.getItems().stream().allMatch(item -> item.getItem().getQuantity() == 2));
+    }
+
+    @Test
+    void lazyTraversalIsBatched() {
+        statistics.clear();
+        transactionTemplate.executeWithoutResult(status -> {
+            Order loaded = orderRepository.findById(order.getId()).orElseThrow();
+            assertEquals(ITEMS, loaded.getItems().stream().map(item -> item.getProduct().getName()).distinct().count());
+        });
+        // Pedido + líneas (@BatchSize) + productos (default_batch_fetch_size), no 1 + 1 + N
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void missingOrderIsNotFound() throws Exception {
+        mockMvc.perform(get("/api/order/-1/detail")).andExpect(status().isNotFound());
+    }
+}
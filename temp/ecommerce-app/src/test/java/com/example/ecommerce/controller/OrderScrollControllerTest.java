@@ -0,0 +1,120 @@
+package com.example.ecommerce.controller;
+
+import com.example.ecommerce.dto.OrderDTO;
+import com.example.ecommerce.dto.ScrollDTO;
+import com.example.ecommerce.entity.Order;
+import com.example.ecommerce.repository.OrderRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "app.cache.warmup.enabled=false")
+@AutoConfigureMockMvc
+public class OrderScrollControllerTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private List<Order> created;
+
+    @BeforeEach
+    void setUp() {
+        // Fechas y totales repetidos: el id debe desempatar para no perder ni repetir filas
+        created = orderRepository.saveAll(IntStream.range(0, 53)
+                .mapToObj(i -> new Order("SCROLL-" + i, START.plusDays(i % 10), "NEW", (double) (i % 4),
+                        "Street " + i))
+                .toList());
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAllInBatch(created);
+    }
+
+    @Test
+    void walksEveryOrderOnceInOrderDateOrder() throws Exception {
+        List<OrderDTO> seen = scrollAll("orderDate,desc", 7);
+
+        assertEquals(orderRepository.count(), seen.size());
+        Set<Long> ids = new HashSet<>();
+        seen.forEach(order -> assertTrue(ids.add(order.getId()), "order " + order.getId() + " returned twice"));
+        assertTrue(created.stream().allMatch(order -> ids.contains(order.getId())));
+        Comparator<OrderDTO> expected = Comparator.comparing(OrderDTO::getOrderDate).reversed()
+                .thenComparing(OrderDTO::getId);
+        assertEquals(seen.stream().sorted(expected).map(OrderDTO::getId).toList(),
+                seen.stream().map(OrderDTO::getId).toList());
+    }
+
+    @Test
+    void defaultsToIdOrder() throws Exception {
+        List<OrderDTO> seen = scrollAll(null, 10);
+
+        List<Long> ids = seen.stream().map(OrderDTO::getId).toList();
+        assertEquals(ids.stream().sorted().toList(), ids);
+        assertEquals(orderRepository.count(), ids.size());
+    }
+
+    @Test
+    void rejectsUnknownSortKeysAndTamperedCursors() throws Exception {
+        mockMvc.perform(get("/api/order/scroll").param("sort", "shippingAddress"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/order/scroll").param("after", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+
+        ScrollDTO<OrderDTO> first = page(get("/api/order/scroll").param("sort", "total").param("size", "5"));
+        mockMvc.perform(get("/api/order/scroll").param("after", first.getNextCursor()).param("sort", "orderDate"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private List<OrderDTO> scrollAll(String sort, int size) throws Exception {
+        List<OrderDTO> seen = new ArrayList<>();
+        String after = null;
+        do {
+            MockHttpServletRequestBuilder request = get("/api/order/scroll").param("size", String.valueOf(size));
+            if (after != null) {
+                request.param("after", after);
+            } else if (sort != null) {
+                request.param("sort", sort);
+            }
+            ScrollDTO<OrderDTO> page = page(request);
+            assertTrue(page.getContent().size() <= size);
+            seen.addAll(page.getContent());
+            after = page.getNextCursor();
+        } while (after != null);
+        return seen;
+    }
+
+    private ScrollDTO<OrderDTO> page(MockHttpServletRequestBuilder request) throws Exception {
+        byte[] body = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        return objectMapper.readValue(body, new TypeReference<>() {});
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.ecommerce.controller;
+
+import com.example.ecommerce.entity.Order;
+import com.example.ecommerce.repository.OrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "app.cache.warmup.enabled=false")
+@AutoConfigureMockMvc
+public class OrderStatusControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private List<Order> created;
+
+    @BeforeEach
+    void setUp() {
+        created = orderRepository.saveAll(IntStream.range(0, 30)
+                .mapToObj(i -> new Order("STATUS-" + i, LocalDateTime.now(), i % 3 == 0 ? "PENDING_TEST" : "SHIPPED_TEST",
+                        10.0, "Street " + i))
+                .toList());
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAllInBatch(created);
+    }
+
+    @Test
+    void returnsOnlyMatchingOrdersOnePageAtATime() throws Exception {
+        mockMvc.perform(get("/api/order/status/PENDING_TEST").param("size", "4"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(10))
+                .andExpect(jsonPath("$.content.length()").value(4))
+                .andExpect(jsonPath("$.content[*].status", everyItem(is("PENDING_TEST"))));
+        mockMvc.perform(get("/api/order/status/UNKNOWN_TEST"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(0));
+    }
+
+    @Test
+    void statusLookupUsesTheIndex() {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN SELECT id FROM orders WHERE status = 'PENDING_TEST'", String.class);
+
+        assertTrue(plan.toUpperCase().contains("IDX_ORDERS_STATUS"), plan);
+    }
+}
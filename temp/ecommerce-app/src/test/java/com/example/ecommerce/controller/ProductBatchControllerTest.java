@@ -0,0 +1,110 @@
+package com.example.ecommerce.controller;
+
+import com.example.ecommerce.dto.ProductDTO;
+import com.example.ecommerce.repository.ProductRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "app.cache.warmup.enabled=false")
+@AutoConfigureMockMvc
+public class ProductBatchControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // Carga el listado en cache para comprobar que los lotes lo mantienen
+        mockMvc.perform(get("/api/product")).andExpect(status().isOk());
+    }
+
+    @Test
+    void batchCreateUpdateAndDelete() throws Exception {
+        long before = productRepository.count();
+        List<ProductDTO> created = create(product("Lamp", "BATCH-1", 3), product("Desk", "BATCH-2", 1),
+                product("Chair", "BATCH-3", 7));
+        assertEquals(before + 3, productRepository.count());
+        assertTrue(created.stream().allMatch(dto -> dto.getId() != null));
+
+        created.get(0).setStock(2);
+        created.get(1).setStock(0);
+        mockMvc.perform(put("/api/product/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(created.subList(0, 2))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].stock").value(2))
+                .andExpect(jsonPath("$[1].stock").value(0));
+        mockMvc.perform(get("/api/product/" + created.get(0).getId()))
+                .andExpect(jsonPath("$.stock").value(2));
+        List<ProductDTO> listed = objectMapper.readValue(
+                mockMvc.perform(get("/api/product")).andReturn().getResponse().getContentAsByteArray(),
+                new TypeReference<>() {});
+        assertTrue(listed.stream().anyMatch(dto -> dto.getId().equals(created.get(1).getId()) && dto.getStock() == 0));
+
+        List<Long> ids = created.stream().map(ProductDTO::getId).toList();
+        mockMvc.perform(delete("/api/product/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(ids)))
+                .andExpect(status().isNoContent());
+        assertEquals(before, productRepository.count());
+        mockMvc.perform(get("/api/product/" + ids.get(2))).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void invalidItemRejectsTheWholeBatch() throws Exception {
+        long before = productRepository.count();
+        ProductDTO invalid = product("No sku", "", 1);
+
+        mockMvc.perform(post("/api/product/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(product("Lamp", "BATCH-4", 3), invalid))))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(before, productRepository.count());
+    }
+
+    @Test
+    void unknownIdRejectsTheWholeDelete() throws Exception {
+        List<ProductDTO> created = create(product("Lamp", "BATCH-5", 3));
+
+        mockMvc.perform(delete("/api/product/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(created.get(0).getId(), -1L))))
+                .andExpect(status().isNotFound());
+
+        assertTrue(productRepository.existsById(created.get(0).getId()));
+    }
+
+    private List<ProductDTO> create(ProductDTO... products) throws Exception {
+        byte[] body = mockMvc.perform(post("/api/product/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(products))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsByteArray();
+        return objectMapper.readValue(body, new TypeReference<>() {});
+    }
+
+    private static ProductDTO product(String name, String sku, int stock) {
+        return new ProductDTO(name, name + " description", 10.0, stock, sku, true);
+    }
+}
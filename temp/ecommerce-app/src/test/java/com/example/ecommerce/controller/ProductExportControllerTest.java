@@ -0,0 +1,78 @@
+package com.example.ecommerce.controller;
+
+import com.example.ecommerce.dto.ProductDTO;
+import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "app.cache.warmup.enabled=false")
+@AutoConfigureMockMvc
+public class ProductExportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final List<Product> created = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAllInBatch(created);
+    }
+
+    @Test
+    void exportsEveryRowAsOneJsonObjectPerLine() throws Exception {
+        // Más filas que el fetch size (500) para recorrer varios bloques del cursor
+        created.addAll(productRepository.saveAll(IntStream.rangeClosed(1, 1200)
+                .mapToObj(ProductExportControllerTest::product)
+                .toList()));
+        long total = productRepository.count();
+
+        MvcResult started = mockMvc.perform(get("/api/product/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        assertTrue(body.endsWith("\n"));
+        String[] lines = body.split("\n");
+        assertEquals(total, lines.length);
+        List<ProductDTO> exported = new ArrayList<>();
+        for (String line : lines) {
+            exported.add(objectMapper.readValue(line, ProductDTO.class));
+        }
+        Set<Long> exportedIds = exported.stream().map(ProductDTO::getId).collect(Collectors.toSet());
+        assertTrue(created.stream().allMatch(product -> exportedIds.contains(product.getId())));
+        assertTrue(exported.stream().anyMatch(dto -> "EXPORT-1200".equals(dto.getSku())));
+    }
+
+    private static Product product(int i) {
+        return new Product("Product " + i, "Exported product " + i, 10.0, i, "EXPORT-" + i, true);
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.ecommerce.controller;
+
+import com.example.ecommerce.dto.ProductDTO;
+import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.repository.ProductRepository;
+import com.example.ecommerce.service.ProductService;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * PATCH con JSON Merge Patch: solo cambian los campos enviados y el UPDATE (con @DynamicUpdate)
+ * solo lleva esas columnas.
+ */
+@SpringBootTest(properties = {
+        "app.cache.warmup.enabled=false",
+        "app.cache.specs.product.maximum-memory=16MB",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.example.ecommerce.controller.ProductPatchControllerTest$UpdateRecorder"
+})
+@AutoConfigureMockMvc
+public class ProductPatchControllerTest {
+
+    private static final MediaType MERGE_PATCH = MediaType.valueOf("application/merge-patch+json");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private Long id;
+
+    @BeforeEach
+    void setUp() {
+        id = productRepository.save(new Product("Patched", "Merge patch", 10.0, 5, "PATCH-1", true)).getId();
+        UpdateRecorder.UPDATES.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteById(id);
+    }
+
+    @Test
+    void patchWritesOnlyTheChangedColumns() throws Exception {
+        mockMvc.perform(patch(id, "{\"stock\": 3}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.stock").value(3))
+                .andExpect(jsonPath("$.name").value("Patched"))
+                .andExpect(jsonPath("$.price").value(10.0));
+
+        assertEquals(1, UpdateRecorder.UPDATES.size(), UpdateRecorder.UPDATES.toString());
+        String update = UpdateRecorder.UPDATES.get(0);
+        assertTrue(update.contains("stock=?"), update);
+        assertFalse(update.contains("name=") || update.contains("description=") || update.contains("price="), update);
+
+        ProductDTO stored = productService.findById(id).orElseThrow();
+        assertEquals(3, stored.getStock());
+        assertEquals("Merge patch", stored.getDescription());
+    }
+
+    @Test
+    void absentFieldsAreKept() throws Exception {
+        mockMvc.perform(patch(id, "{\"active\": false, \"price\": 12.5}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.active").value(false))
+                .andExpect(jsonPath("$.price").value(12.5))
+                .andExpect(jsonPath("$.sku").value("PATCH-1"))
+                .andExpect(jsonPath("$.stock").value(5));
+        assertEquals(12.5, productRepository.findById(id).orElseThrow().getPrice());
+    }
+
+    @Test
+    void patchThatChangesNothingDoesNotWrite() throws Exception {
+        mockMvc.perform(patch(id, "{\"stock\": 5}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""));
+        assertTrue(UpdateRecorder.UPDATES.isEmpty(), UpdateRecorder.UPDATES.toString());
+    }
+
+    @Test
+    void invalidPatchesAreRejected() throws Exception {
+        mockMvc.perform(patch(id, "{\"stock\": -1}")).andExpect(status().isBadRequest());
+        mockMvc.perform(patch(id, "{\"name\": null}")).andExpect(status().isBadRequest());
+        mockMvc.perform(patch(id, "{\"stok\": 1}")).andExpect(status().isBadRequest());
+        mockMvc.perform(patch(id, "[]")).andExpect(status().isBadRequest());
+        mockMvc.perform(patch(-1L, "{\"stock\": 1}")).andExpect(status().isNotFound());
+        assertTrue(UpdateRecorder.UPDATES.isEmpty(), UpdateRecorder.UPDATES.toString());
+    }
+
+    @Test
+    void ifMatchGuardsThePatch() throws Exception {
+        mockMvc.perform(patch(id, "{\"stock\": 4}").header(HttpHeaders.IF_MATCH, "\"0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+        mockMvc.perform(patch(id, "{\"stock\": 2}").header(HttpHeaders.IF_MATCH, "\"0\""))
+                .andExpect(status().isConflict());
+        mockMvc.perform(patch(id, "{\"stock\": 2, \"version\": 0}"))
+                .andExpect(status().isConflict());
+        assertEquals(4, productRepository.findById(id).orElseThrow().getStock());
+    }
+
+    @Test
+    void plainJsonIsAcceptedToo() throws Exception {
+        mockMvc.perform(patch(id, "{\"stock\": 8}").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stock").value(8));
+    }
+
+    private MockHttpServletRequestBuilder patch(Long productId, String body) {
+        return MockMvcRequestBuilders.patch("/api/product/{id}", productId)
+                .contentType(MERGE_PATCH)
+                .content(body);
+    }
+
+    /**
+     * Guarda los UPDATE de product que Hibernate envía a la base de datos.
+     */
+    public static class UpdateRecorder implements StatementInspector {
+
+        static final List<String> UPDATES = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.toLowerCase(Locale.ROOT).startsWith("update product ")) {
+                UPDATES.add(sql.toLowerCase(Locale.ROOT).replace(" ", ""));
+            }
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.ecommerce.controller;
+
+import com.example.ecommerce.dto.ProductDTO;
+import com.example.ecommerce.dto.StockReservationDTO;
+import com.example.ecommerce.dto.StockReservationResultDTO;
+import com.example.ecommerce.dto.StockReservationResultDTO.Status;
+import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.repository.ProductRepository;
+import com.example.ecommerce.service.ProductService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "app.cache.warmup.enabled=false")
+@AutoConfigureMockMvc
+public class ProductStockReservationControllerTest {
+
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 25;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private List<Product> created;
+
+    @BeforeEach
+    void setUp() {
+        created = productRepository.saveAll(List.of(
+                new Product("Lamp", "Reservable", 20.0, 100, "RESERVE-1", true),
+                new Product("Desk", "Reservable", 80.0, 3, "RESERVE-2", true)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAllInBatch(created);
+    }
+
+    @Test
+    void concurrentReservationsNeverOversell() throws Exception {
+        Long id = created.get(0).getId();
+        // Cachea el producto para comprobar que las reservas no dejan un stock antiguo
+        assertEquals(100, productService.findById(id).orElseThrow().getStock());
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<int[]>> workers = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    int[] outcome = new int[2];
+                    for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                        StockReservationResultDTO result = productService.reserveStock(id, 1);
+                        assertTrue(result.getRemainingStock() >= 0, "negative stock");
+                        outcome[result.getStatus() == Status.RESERVED ? 0 : 1]++;
+                    }
+                    return outcome;
+                }));
+            }
+            start.countDown();
+            int reserved = 0;
+            int rejected = 0;
+            for (Future<int[]> worker : workers) {
+                int[] outcome = worker.get(60, TimeUnit.SECONDS);
+                reserved += outcome[0];
+                rejected += outcome[1];
+            }
+            assertEquals(100, reserved, "every unit sold exactly once");
+            assertEquals(THREADS * ATTEMPTS_PER_THREAD - 100, rejected);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(0, productRepository.findById(id).orElseThrow().getStock());
+        assertEquals(0, productService.findById(id).orElseThrow().getStock());
+    }
+
+    @Test
+    void batchReportsEachLine() {
+        Long lamp = created.get(0).getId();
+        Long desk = created.get(1).getId();
+
+        List<StockReservationResultDTO> results = productService.reserveStock(List.of(
+                new StockReservationDTO(desk, 2),
+                new StockReservationDTO(lamp, 10),
+                new StockReservationDTO(desk, 2),
+                new StockReservationDTO(-1L, 1),
+                new StockReservationDTO(desk, 1)));
+
+        assertEquals(List.of(Status.RESERVED, Status.RESERVED, Status.INSUFFICIENT_STOCK, Status.NOT_FOUND,
+                Status.RESERVED), results.stream().map(StockReservationResultDTO::getStatus).toList());
+        assertEquals(0, results.get(0).getRemainingStock());
+        assertEquals(90, results.get(1).getRemainingStock());
+        assertNull(results.get(3).getRemainingStock());
+        assertEquals(0, productRepository.findById(desk).orElseThrow().getStock());
+    }
+
+    @Test
+    void reserveEndpoints() throws Exception {
+        Long desk = created.get(1).getId();
+
+        mockMvc.perform(post("/api/product/" + desk + "/reserve").param("quantity", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("RESERVED"))
+                .andExpect(jsonPath("$.remainingStock").value(1));
+        mockMvc.perform(post("/api/product/" + desk + "/reserve").param("quantity", "2"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status").value("INSUFFICIENT_STOCK"))
+                .andExpect(jsonPath("$.remainingStock").value(1));
+        mockMvc.perform(post("/api/product/-1/reserve")).andExpect(status().isNotFound());
+        mockMvc.perform(post("/api/product/" + desk + "/reserve").param("quantity", "0"))
+                .andExpect(status().isBadRequest());
+
+        List<StockReservationResultDTO> results = objectMapper.readValue(mockMvc.perform(post("/api/product/reserve")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(
+                                new StockReservationDTO(desk, 1), new StockReservationDTO(desk, 1)))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray(), new TypeReference<>() {});
+        assertEquals(List.of(Status.RESERVED, Status.INSUFFICIENT_STOCK),
+                results.stream().map(StockReservationResultDTO::getStatus).toList());
+
+        ProductDTO cached = objectMapper.readValue(mockMvc.perform(get("/api/product/" + desk))
+                .andReturn().getResponse().getContentAsByteArray(), ProductDTO.class);
+        assertEquals(0, cached.getStock());
+    }
+}
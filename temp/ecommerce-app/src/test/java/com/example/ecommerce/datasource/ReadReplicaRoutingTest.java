@@ -0,0 +1,139 @@
+package com.example.ecommerce.datasource;
+
+import com.example.ecommerce.dto.ProductDTO;
+import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.service.ProductService;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.cache.CacheManager;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Primario y réplica son dos bases H2 en memoria independientes: sin replicación, el
+ * contenido devuelto indica a cuál fue cada consulta.
+ */
+@SpringBootTest(properties = {
+        "app.cache.warmup.enabled=false",
+        "app.cache.specs.product.maximum-memory=16MB",
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+        "app.datasource.routing.enabled=true",
+        "app.datasource.routing.replicas[0].url=" + ReadReplicaRoutingTest.REPLICA_URL,
+        "app.datasource.routing.max-lag=5s",
+        "app.datasource.routing.lag-query=SELECT lag_ms FROM replica_status",
+        "app.datasource.routing.lag-check-interval=1h"
+})
+public class ReadReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private HikariDataSource primaryDataSource;
+
+    @Autowired
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager hibernateCacheManager;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void setUp() {
+        primary = new JdbcTemplate(primaryDataSource);
+        primary.update("DELETE FROM product");
+        replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+        // "Replica" el esquema creado por Hibernate en el primario
+        replica.execute("DROP ALL OBJECTS");
+        List<String> schema = primary.queryForList("SCRIPT NODATA", String.class);
+        schema.stream().filter(sql -> !sql.startsWith("CREATE USER")).forEach(replica::execute);
+        replica.execute("CREATE TABLE replica_status (lag_ms BIGINT)");
+        replica.update("INSERT INTO replica_status VALUES (0)");
+        routingDataSource.getReplicaSelector().checkReplicas();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplicaAndWritesToThePrimary() {
+        ReplicaSelector.Replica replica0 = routingDataSource.getReplicaSelector().getReplicas().get(0);
+        long routed = replica0.getRoutedCount();
+        ProductDTO saved = productService.save(new ProductDTO("Primary", "Written", 10.0, 5, "RR-1", true));
+        assertEquals(1, primary.queryForObject("SELECT COUNT(*) FROM product WHERE id = ?", Long.class, saved.getId()));
+
+        assertTrue(productService.findAllPaginated(PageRequest.of(0, 10)).isEmpty(), "replica has not caught up");
+
+        replica.update("INSERT INTO product (id, name, description, price, stock, sku, active) "
+                + "VALUES (?, 'Replica', 'Replicated', 10.0, 5, 'RR-1', TRUE)", saved.getId());
+        // Escritura fuera de Hibernate: el query cache no se entera sin invalidarlo
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        assertEquals(List.of("Replica"), productService.findAllPaginated(PageRequest.of(0, 10))
+                .map(ProductDTO::getName).getContent());
+
+        assertEquals(routed + 2, replica0.getRoutedCount());
+        assertEquals(routed + 2.0, meterRegistry.get("datasource.routing.connections").tag("target", "replica-0")
+                .functionCounter().count());
+    }
+
+    @Test
+    void staleReplicaFallsBackToPrimary() {
+        ProductDTO saved = productService.save(new ProductDTO("Primary", "Written", 10.0, 5, "RR-2", true));
+        replica.update("UPDATE replica_status SET lag_ms = 60000");
+        routingDataSource.getReplicaSelector().checkReplicas();
+        long fallbacks = routingDataSource.getReplicaSelector().getFallbackCount();
+
+        assertEquals(List.of(saved.getId()), productService.findAllPaginated(PageRequest.of(0, 10))
+                .map(ProductDTO::getId).getContent());
+        assertEquals(fallbacks + 1, routingDataSource.getReplicaSelector().getFallbackCount());
+        assertEquals(0.0, meterRegistry.get("datasource.routing.replica.eligible").tag("replica", "replica-0")
+                .gauge().value());
+    }
+
+    @Test
+    void cacheFillingReadsGoToThePrimary() {
+        ProductDTO saved = productService.save(new ProductDTO("Primary", "Written", 10.0, 5, "RR-3", true));
+        replica.update("INSERT INTO product (id, name, description, price, stock, sku, active, version) "
+                + "VALUES (?, 'Primary', 'Written', 10.0, 5, 'RR-3', TRUE, 0)", saved.getId());
+
+        // La reserva invalida el producto; la réplica aún no ha recibido el nuevo stock
+        productService.reserveStock(saved.getId(), 2);
+
+        assertEquals(3, productService.findById(saved.getId()).orElseThrow().getStock());
+        assertEquals(3, productService.findById(saved.getId()).orElseThrow().getStock());
+    }
+
+    @Test
+    void replicaReadsDoNotFillTheSecondLevelCache() {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        replica.update("INSERT INTO product (id, name, description, price, stock, sku, active, version) "
+                + "VALUES (900, 'Replica', 'Replicated', 10.0, 5, 'RR-4', TRUE, 0)");
+        sessionFactory.getCache().evictAllRegions();
+
+        assertEquals(List.of("Replica"), productService.findByActive(true, PageRequest.of(0, 10))
+                .map(ProductDTO::getName).getContent());
+
+        assertFalse(sessionFactory.getCache().containsEntity(Product.class, 900L));
+        assertFalse(hibernateCacheManager.getCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME)
+                .iterator().hasNext());
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.ecommerce.repository;
+
+import jakarta.persistence.*;
+
+/**
+ * Copia de OrderItem con la generación IDENTITY anterior, como referencia del benchmark de inserts.
+ */
+@Entity
+@Table(name = "order_item_identity")
+public class IdentityOrderItem {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private Integer quantity;
+    private Double unitPrice;
+    private Double subtotal;
+
+    protected IdentityOrderItem() {}
+
+    public IdentityOrderItem(Integer quantity, Double unitPrice, Double subtotal) {
+        this.quantity = quantity;
+        this.unitPrice = unitPrice;
+        this.subtotal = subtotal;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
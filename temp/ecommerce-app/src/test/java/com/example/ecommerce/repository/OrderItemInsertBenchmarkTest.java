@@ -0,0 +1,113 @@
+package com.example.ecommerce.repository;
+
+import com.example.ecommerce.entity.OrderItem;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Inserta filas de OrderItem con ids de secuencia (pooled-lo + JDBC batching) y con la
+ * generación IDENTITY anterior y compara las sentencias enviadas; con -Pbenchmark, sobre 100k
+ * filas, también el rendimiento.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "app.cache.warmup.enabled=false"
+})
+public class OrderItemInsertBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderItemInsertBenchmarkTest.class);
+
+    private static final int ROWS = 100_000;
+    private static final int CHUNK = 10_000;
+    private static final int FLUSH_EVERY = 50;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void deleteRows() {
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.createQuery("delete from IdentityOrderItem").executeUpdate();
+            entityManager.createQuery("delete from OrderItem").executeUpdate();
+        });
+    }
+
+    @Test
+    void sequenceIdsBatchInserts() {
+        compare(500);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void sequenceIdsBatchInsertsAtScale() {
+        Result[] results = compare(ROWS);
+        logger.info("Speed-up: {}x", "%.1f".formatted((double) results[0].nanos / results[1].nanos));
+    }
+
+    /**
+     * @return el resultado con IDENTITY y el resultado con secuencia
+     */
+    private Result[] compare(int rows) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Result identity = insert("IDENTITY", rows, statistics, i -> new IdentityOrderItem(i % 10 + 1, 9.99, 9.99 * (i % 10 + 1)));
+        Result sequence = insert("SEQUENCE pooled-lo + batch_size=50", rows, statistics,
+                i -> new OrderItem(i % 10 + 1, 9.99, 9.99 * (i % 10 + 1)));
+
+        assertEquals(rows, identity.entities);
+        assertEquals(rows, sequence.entities);
+        // IDENTITY ejecuta un INSERT por fila; con secuencia se envía un batch cada 50 filas
+        assertTrue(identity.statements >= rows, "identity statements " + identity.statements);
+        assertTrue(sequence.statements * 10 < identity.statements, "sequence statements " + sequence.statements);
+        return new Result[] {identity, sequence};
+    }
+
+    private Result insert(String label, int rows, Statistics statistics, IntFunction<Object> row) {
+        statistics.clear();
+        long start = System.nanoTime();
+        for (int from = 0; from < rows; from += CHUNK) {
+            int first = from;
+            int last = Math.min(rows, from + CHUNK);
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = first; i < last; i++) {
+                    entityManager.persist(row.apply(i));
+                    if ((i + 1) % FLUSH_EVERY == 0) {
+                        entityManager.flush();
+                        entityManager.clear();
+                    }
+                }
+            });
+        }
+        long nanos = System.nanoTime() - start;
+        Result result = new Result(nanos, statistics.getEntityInsertCount(), statistics.getPrepareStatementCount());
+        logger.info("{}: {} rows in {} ms ({} rows/s), {} statements prepared",
+                label, rows, nanos / 1_000_000, "%.0f".formatted(rows / (nanos / 1e9)), result.statements);
+        return result;
+    }
+
+    private record Result(long nanos, long entities, long statements) {
+    }
+}
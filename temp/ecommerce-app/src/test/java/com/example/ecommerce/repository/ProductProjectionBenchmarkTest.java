@@ -0,0 +1,122 @@
+package com.example.ecommerce.repository;
+
+import com.example.ecommerce.dto.ProductDTO;
+import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.mapper.ProductMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compara la memoria reservada por fila al leer la tabla product con entidades + ProductMapper
+ * (camino anterior) y con la proyección "select new ProductDTO(...)" del repositorio. La medida
+ * solo corre con -Pbenchmark; por defecto se comprueba que ambos caminos devuelven lo mismo.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+        "app.cache.warmup.enabled=false"
+})
+public class ProductProjectionBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductProjectionBenchmarkTest.class);
+
+    private static final int ROWS = 5_000;
+    private static final int WARMUP = 5;
+    private static final int ITERATIONS = 10;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private List<Product> created = List.of();
+
+    private final Supplier<List<ProductDTO>> entities = () -> productRepository.findAll().stream()
+            .map(productMapper::toDTO)
+            .toList();
+
+    private final Supplier<List<ProductDTO>> projection = () -> productRepository.findAllProjectedBy();
+
+    @AfterEach
+    void deleteRows() {
+        productRepository.deleteAllByIdInBatch(created.stream().map(Product::getId).toList());
+    }
+
+    @Test
+    void projectionReturnsSameRowsAsEntityAndMapper() {
+        insertRows(50);
+
+        // Mismo contenido por ambos caminos (equals de los DTO no incluye el id)
+        List<ProductDTO> expected = sortedById(read(entities));
+        List<ProductDTO> projected = sortedById(read(projection));
+        assertEquals(expected, projected);
+        assertEquals(expected.stream().map(ProductDTO::getId).toList(), projected.stream().map(ProductDTO::getId).toList());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void projectionAllocatesLessPerRowThanEntityAndMapper() {
+        insertRows(ROWS);
+
+        double entityBytes = bytesPerRow("entity + mapper", entities);
+        double projectionBytes = bytesPerRow("DTO projection", projection);
+
+        logger.info("Projection allocates {}% of the entity path", "%.0f".formatted(100 * projectionBytes / entityBytes));
+        assertTrue(projectionBytes < entityBytes,
+                "projection " + projectionBytes + " B/row vs entity " + entityBytes + " B/row");
+    }
+
+    private double bytesPerRow(String label, Supplier<List<ProductDTO>> query) {
+        for (int i = 0; i < WARMUP; i++) {
+            read(query);
+        }
+        long rows = 0;
+        long start = allocatedBytes();
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            rows += read(query).size();
+        }
+        long nanos = System.nanoTime() - startNanos;
+        double perRow = (double) (allocatedBytes() - start) / rows;
+        logger.info("{}: {} bytes/row, {} us/row", label, "%.0f".formatted(perRow), "%.2f".formatted(nanos / 1e3 / rows));
+        return perRow;
+    }
+
+    private void insertRows(int rows) {
+        created = productRepository.saveAll(IntStream.range(0, rows)
+                .mapToObj(i -> new Product("Product " + i, "Description " + i, 10.0 + i, i, "PROJ-" + i, i % 2 == 0))
+                .toList());
+    }
+
+    // Cada lectura en su propia transacción, como una petición (contexto de persistencia nuevo)
+    private List<ProductDTO> read(Supplier<List<ProductDTO>> query) {
+        return transactionTemplate.execute(status -> query.get());
+    }
+
+    private static List<ProductDTO> sortedById(List<ProductDTO> products) {
+        return products.stream().sorted(Comparator.comparing(ProductDTO::getId)).toList();
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+}
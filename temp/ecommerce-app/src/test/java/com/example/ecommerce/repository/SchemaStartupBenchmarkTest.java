@@ -0,0 +1,203 @@
+package com.example.ecommerce.repository;
+
+import org.flywaydb.core.Flyway;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Arranque sobre un esquema ya migrado de 60 tablas: ddl-auto=update (Hibernate introspecciona y
+ * compara cada tabla) frente a validate y none, con Flyway comprobando su historial antes. El
+ * modelo se genera como mapeo hbm.xml de mapas dinámicos, sin clases de entidad. Solo corre con
+ * -Pbenchmark.
+ */
+@Tag("benchmark")
+public class SchemaStartupBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaStartupBenchmarkTest.class);
+
+    private static final int TABLES = 60;
+    private static final int ROUNDS = 8;
+    private static final String URL = "jdbc:h2:mem:schema-startup;DB_CLOSE_DELAY=-1";
+
+    private static Path migrations;
+    private static DriverManagerDataSource dataSource;
+
+    @BeforeAll
+    static void migrate() throws Exception {
+        migrations = Files.createTempDirectory("schema-startup");
+        Files.writeString(migrations.resolve("V1__create_schema.sql"), migrationSql());
+        dataSource = new DriverManagerDataSource(URL, "sa", "");
+        assertEquals(1, flyway().migrate().migrationsExecuted);
+    }
+
+    @AfterAll
+    static void dropDatabase() throws Exception {
+        new JdbcTemplate(dataSource).execute("DROP ALL OBJECTS");
+        try (var files = Files.list(migrations)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(migrations);
+    }
+
+    @Test
+    void validateSkipsTheSchemaDiffThatUpdateRunsOnEveryBoot() {
+        List<String> schema = schema();
+        Map<String, Long> best = new LinkedHashMap<>();
+        for (int round = 0; round < ROUNDS; round++) {
+            best.merge("boot ddl-auto=update", startHibernate("update"), Math::min);
+            best.merge("boot ddl-auto=validate", startHibernate("validate"), Math::min);
+            best.merge("boot ddl-auto=none", startHibernate("none"), Math::min);
+            best.merge("flyway migrate (up to date)", startFlyway(), Math::min);
+            best.merge("schema step update", schemaStep("update"), Math::min);
+            best.merge("schema step validate", schemaStep("validate"), Math::min);
+        }
+        best.forEach((label, nanos) -> logger.info("{}: {} ms over {} tables (best of {})",
+                label, "%.1f".formatted(nanos / 1e6), TABLES, ROUNDS));
+        logger.info("Boot: update {} ms -> flyway + validate {} ms -> flyway + none {} ms",
+                "%.1f".formatted(best.get("boot ddl-auto=update") / 1e6),
+                "%.1f".formatted((best.get("flyway migrate (up to date)") + best.get("boot ddl-auto=validate")) / 1e6),
+                "%.1f".formatted((best.get("flyway migrate (up to date)") + best.get("boot ddl-auto=none")) / 1e6));
+
+        // update no encontró nada que cambiar: el esquema migrado ya coincide con el modelo
+        assertEquals(schema, schema());
+        assertEquals(1, flyway().info().applied().length);
+    }
+
+    private static long startHibernate(String ddlAuto) {
+        StandardServiceRegistry registry = registry(ddlAuto);
+        long start = System.nanoTime();
+        try (SessionFactory sessionFactory = metadata(registry).buildSessionFactory()) {
+            assertTrue(sessionFactory.isOpen());
+            return System.nanoTime() - start;
+        } finally {
+            StandardServiceRegistryBuilder.destroy(registry);
+        }
+    }
+
+    /**
+     * Solo la fase de esquema del arranque: la introspección y el diff de update frente a la
+     * comprobación de validate, sobre el mismo modelo ya construido.
+     */
+    private static long schemaStep(String ddlAuto) {
+        StandardServiceRegistry registry = registry(ddlAuto);
+        try {
+            Metadata metadata = metadata(registry);
+            long start = System.nanoTime();
+            SchemaManagementToolCoordinator.process(metadata, registry,
+                    registry.requireService(ConfigurationService.class).getSettings(), action -> { });
+            return System.nanoTime() - start;
+        } finally {
+            StandardServiceRegistryBuilder.destroy(registry);
+        }
+    }
+
+    private static StandardServiceRegistry registry(String ddlAuto) {
+        return new StandardServiceRegistryBuilder()
+                .applySetting("hibernate.connection.url", URL)
+                .applySetting("hibernate.connection.username", "sa")
+                .applySetting("hibernate.connection.password", "")
+                .applySetting("hibernate.hbm2ddl.auto", ddlAuto)
+                .applySetting("hibernate.cache.use_second_level_cache", "false")
+                .build();
+    }
+
+    private static Metadata metadata(StandardServiceRegistry registry) {
+        return new MetadataSources(registry)
+                .addInputStream(new ByteArrayInputStream(mapping().getBytes(StandardCharsets.UTF_8)))
+                .buildMetadata();
+    }
+
+    private static List<String> schema() {
+        return new JdbcTemplate(dataSource).queryForList("SCRIPT NODATA", String.class);
+    }
+
+    private static long startFlyway() {
+        long start = System.nanoTime();
+        assertEquals(0, flyway().migrate().migrationsExecuted);
+        return System.nanoTime() - start;
+    }
+
+    private static Flyway flyway() {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .locations("filesystem:" + migrations)
+                .load();
+    }
+
+    /**
+     * Cada tabla: id, seis columnas, versión y una clave foránea a la anterior, con dos índices.
+     */
+    private static String migrationSql() {
+        StringBuilder sql = new StringBuilder();
+        for (int i = 0; i < TABLES; i++) {
+            String table = "bench_" + i;
+            sql.append("create table ").append(table).append(" (\n")
+                    .append("    id bigint not null,\n")
+                    .append("    name varchar(255) not null,\n")
+                    .append("    description varchar(255),\n")
+                    .append("    amount double precision not null,\n")
+                    .append("    quantity integer not null,\n")
+                    .append("    created_at timestamp(6) not null,\n")
+                    .append("    active boolean not null,\n")
+                    .append("    version bigint not null default 0,\n")
+                    .append("    parent_id bigint,\n")
+                    .append("    constraint pk_").append(table).append(" primary key (id)");
+            if (i > 0) {
+                sql.append(",\n    constraint fk_").append(table).append("_parent foreign key (parent_id) references bench_")
+                        .append(i - 1).append(" (id)");
+            }
+            sql.append("\n);\n")
+                    .append("create index idx_").append(table).append("_name on ").append(table).append(" (name);\n")
+                    .append("create index idx_").append(table).append("_created_at on ").append(table).append(" (created_at);\n\n");
+        }
+        return sql.toString();
+    }
+
+    private static String mapping() {
+        StringBuilder xml = new StringBuilder("<hibernate-mapping xmlns=\"http://www.hibernate.org/xsd/orm/hbm\">\n");
+        for (int i = 0; i < TABLES; i++) {
+            String table = "bench_" + i;
+            xml.append("  <class entity-name=\"Bench").append(i).append("\" table=\"").append(table).append("\">\n")
+                    .append("    <id name=\"id\" type=\"long\" column=\"id\"/>\n")
+                    .append("    <version name=\"version\" type=\"long\" column=\"version\"/>\n")
+                    .append("    <property name=\"name\" type=\"string\" not-null=\"true\" index=\"idx_").append(table).append("_name\"/>\n")
+                    .append("    <property name=\"description\" type=\"string\"/>\n")
+                    .append("    <property name=\"amount\" type=\"double\" not-null=\"true\"/>\n")
+                    .append("    <property name=\"quantity\" type=\"integer\" not-null=\"true\"/>\n")
+                    .append("    <property name=\"createdAt\" type=\"LocalDateTime\" column=\"created_at\" not-null=\"true\" index=\"idx_")
+                    .append(table).append("_created_at\"/>\n")
+                    .append("    <property name=\"active\" type=\"boolean\" not-null=\"true\"/>\n");
+            if (i > 0) {
+                xml.append("    <many-to-one name=\"parent\" entity-name=\"Bench").append(i - 1)
+                        .append("\" column=\"parent_id\" foreign-key=\"fk_").append(table).append("_parent\"/>\n");
+            }
+            xml.append("  </class>\n");
+        }
+        return xml.append("</hibernate-mapping>\n").toString();
+    }
+}
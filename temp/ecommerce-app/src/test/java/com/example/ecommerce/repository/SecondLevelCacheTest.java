@@ -0,0 +1,127 @@
+package com.example.ecommerce.repository;
+
+import com.example.ecommerce.dto.ProductDTO;
+import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.service.CategoryService;
+import com.example.ecommerce.service.ProductService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.OutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cache de segundo nivel de Product: lecturas sin SQL tras un fallo del cache de Spring,
+ * coherencia tras escribir, query cache y volcados que no pasan por la región.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "app.cache.warmup.enabled=false"
+})
+public class SecondLevelCacheTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        product = productRepository.save(new Product("Cached", "Second level", 10.0, 5, "L2-1", true));
+        entityManagerFactory.getCache().evictAll();
+        cacheManager.getCache("product").clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteById(product.getId());
+    }
+
+    @Test
+    void springCacheMissIsServedFromTheEntityRegion() {
+        productService.findById(product.getId());
+        cacheManager.getCache("product").clear();
+
+        statistics.clear();
+        ProductDTO dto = productService.findById(product.getId()).orElseThrow();
+        assertEquals("Cached", dto.getName());
+        assertEquals(1, statistics.getSecondLevelCacheHitCount());
+        assertEquals(0, statistics.getPrepareStatementCount(), "no SQL on a Spring cache miss");
+    }
+
+    @Test
+    void writesKeepBothLayersInAgreement() {
+        productService.findById(product.getId());
+
+        productService.update(product.getId(), new ProductDTO("Cached", "Second level", 12.5, 3, "L2-1", true));
+        assertEquals(12.5, productService.findById(product.getId()).orElseThrow().getPrice());
+
+        cacheManager.getCache("product").clear();
+        statistics.clear();
+        ProductDTO fromRegion = productService.findById(product.getId()).orElseThrow();
+        assertEquals(12.5, fromRegion.getPrice());
+        assertEquals(3, fromRegion.getStock());
+        assertEquals(1, statistics.getSecondLevelCacheHitCount());
+    }
+
+    @Test
+    void filteredPagesComeFromTheQueryCacheUntilTheTableChanges() {
+        productService.findByActive(true, PageRequest.of(0, 20));
+
+        statistics.clear();
+        assertTrue(productService.findByActive(true, PageRequest.of(0, 20)).getContent().stream()
+                .anyMatch(dto -> dto.getId().equals(product.getId())));
+        assertTrue(statistics.getQueryCacheHitCount() > 0);
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        productService.update(product.getId(), new ProductDTO("Cached", "Second level", 10.0, 5, "L2-1", false));
+        assertTrue(productService.findByActive(true, PageRequest.of(0, 20)).getContent().stream()
+                .noneMatch(dto -> dto.getId().equals(product.getId())), "stale page after a write");
+    }
+
+    @Test
+    void stockReservationOnlyInvalidatesProductQueries() {
+        productService.findByActive(true, PageRequest.of(0, 20));
+        categoryService.findByActive(true, PageRequest.of(0, 20));
+
+        productService.reserveStock(product.getId(), 2);
+
+        statistics.clear();
+        categoryService.findByActive(true, PageRequest.of(0, 20));
+        assertEquals(1, statistics.getQueryCacheHitCount(), "other tables keep their cached pages");
+        assertEquals(3, productService.findByActive(true, PageRequest.of(0, 20)).getContent().stream()
+                .filter(dto -> dto.getId().equals(product.getId()))
+                .findFirst().orElseThrow().getStock());
+        assertEquals(1, statistics.getQueryCacheHitCount(), "product pages are reloaded");
+    }
+
+    @Test
+    void exportBypassesTheEntityRegion() throws Exception {
+        statistics.clear();
+        productService.exportTo(OutputStream.nullOutputStream());
+        assertEquals(0, statistics.getSecondLevelCachePutCount());
+    }
+}
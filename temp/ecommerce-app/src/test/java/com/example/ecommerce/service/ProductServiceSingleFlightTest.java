@@ -0,0 +1,95 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.dto.ProductDTO;
+import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+public class ProductServiceSingleFlightTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @MockBean
+    private ProductRepository productRepository;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache("product").clear();
+    }
+
+    @Test
+    void concurrentMissesTriggerSingleRepositoryLoad() throws Exception {
+        AtomicInteger repositoryCalls = new AtomicInteger();
+        when(productRepository.findById(1L)).thenAnswer(invocation -> {
+            repositoryCalls.incrementAndGet();
+            Thread.sleep(200);
+            return Optional.of(product(1L));
+        });
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Optional<ProductDTO>>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return productService.findById(1L);
+                }));
+            }
+            start.countDown();
+
+            for (Future<Optional<ProductDTO>> result : results) {
+                Optional<ProductDTO> dto = result.get();
+                assertTrue(dto.isPresent());
+                assertEquals(1L, dto.get().getId());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, repositoryCalls.get());
+        assertTrue(productService.findById(1L).isPresent());
+        assertEquals(1, repositoryCalls.get(), "subsequent reads must be served from the cache");
+    }
+
+    @Test
+    void loadFailureIsSharedAndNotCached() throws Exception {
+        when(productRepository.findById(2L))
+                .thenThrow(new IllegalStateException("database down"))
+                .thenReturn(Optional.of(product(2L)));
+
+        assertThrows(IllegalStateException.class, () -> productService.findById(2L));
+        assertTrue(productService.findById(2L).isPresent());
+        verify(productRepository, times(2)).findById(2L);
+    }
+
+    private static Product product(Long id) {
+        Product product = new Product("Product " + id, "Description", 10.0, 5, "SKU-" + id, true);
+        product.setId(id);
+        return product;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.dto.ProductDTO;
+import com.example.ecommerce.entity.Product;
+import com.example.ecommerce.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "app.cache.warmup.enabled=false"
+})
+public class ReadOnlyTransactionTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        product = productRepository.save(new Product("Read only", "Description", 10.0, 5, "RO-1", true));
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteById(product.getId());
+    }
+
+    @Test
+    void readsRunInReadOnlySessionsWithoutFlushing() throws Exception {
+        List<String> observed = new ArrayList<>();
+        // El export escribe dentro de la transacción del servicio: se inspecciona la sesión desde ahí
+        productService.exportTo(new OutputStream() {
+            @Override
+            public void write(int b) {
+                record();
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                record();
+            }
+
+            private void record() {
+                if (observed.isEmpty()) {
+                    Session session = entityManager.unwrap(Session.class);
+                    observed.add("readOnly=" + TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+                    observed.add("defaultReadOnly=" + session.isDefaultReadOnly());
+                    observed.add("flushMode=" + session.getHibernateFlushMode());
+                }
+            }
+        });
+        assertEquals(List.of("readOnly=true", "defaultReadOnly=true", "flushMode=" + FlushMode.MANUAL), observed);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        productService.findAllPaginated(PageRequest.of(0, 10));
+        productService.findByActive(true, PageRequest.of(0, 10));
+        productService.scroll(null, 10, "price");
+        assertEquals(0, statistics.getFlushCount(), "read paths must not flush the session");
+
+        ProductDTO update = new ProductDTO("Read only", "Updated", 10.0, 5, "RO-1", true);
+        productService.update(product.getId(), update);
+        assertTrue(statistics.getFlushCount() > 0, "writes still flush");
+        assertEquals("Updated", productRepository.findById(product.getId()).orElseThrow().getDescription());
+    }
+}
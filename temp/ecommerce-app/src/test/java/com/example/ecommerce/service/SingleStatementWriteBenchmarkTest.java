@@ -0,0 +1,282 @@
+package com.example.ecommerce.service;
+
+import com.example.ecommerce.dto.ReviewDTO;
+import com.example.ecommerce.dto.UserDTO;
+import com.example.ecommerce.entity.Order;
+import com.example.ecommerce.entity.OrderItem;
+import com.example.ecommerce.entity.Review;
+import com.example.ecommerce.mapper.ReviewMapper;
+import com.example.ecommerce.repository.OrderItemRepository;
+import com.example.ecommerce.repository.OrderRepository;
+import com.example.ecommerce.repository.ReviewRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.LongConsumer;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Escrituras de una sola sentencia JPQL (updateById, removeById) frente al camino anterior de los
+ * servicios (findById + merge, existsById + deleteById): sentencias por escritura y, con -Pbenchmark,
+ * escrituras por segundo sobre la base de datos configurada (H2 por defecto). Ambos caminos se miden
+ * sin la capa de servicio, que es común a los dos; el comportamiento de los servicios se comprueba aparte.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "app.cache.warmup.enabled=false"
+})
+public class SingleStatementWriteBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(SingleStatementWriteBenchmarkTest.class);
+
+    private static final int ROWS = 50;
+    private static final int BENCHMARK_ROWS = 5_000;
+    private static final int BENCHMARK_ROUNDS = 4;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderItemService orderItemService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private ReviewMapper reviewMapper;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void deleteRows() {
+        reviewRepository.deleteAllInBatch();
+    }
+
+    private final LongConsumer legacyUpdate = id -> transactionTemplate.executeWithoutResult(status -> {
+        Review review = reviewRepository.findById(id).orElseThrow();
+        reviewMapper.updateEntityFromDTO(review, changed(0L));
+        reviewRepository.saveAndFlush(review);
+    });
+
+    private final LongConsumer singleUpdate = id -> transactionTemplate.executeWithoutResult(status -> {
+        ReviewDTO dto = changed(0L);
+        reviewRepository.updateById(id, dto.getVersion(), dto.getRating(), dto.getComment(), dto.getReviewDate());
+    });
+
+    private final LongConsumer legacyDelete = id -> transactionTemplate.executeWithoutResult(status -> {
+        if (!reviewRepository.existsById(id)) {
+            throw new RuntimeException("Review not found with id: " + id);
+        }
+        reviewRepository.deleteById(id);
+    });
+
+    private final LongConsumer singleDelete = id -> transactionTemplate.executeWithoutResult(status -> reviewRepository.removeById(id));
+
+    @Test
+    void updatesTakeOneStatement() {
+        Result[] results = compare("update", "findById + saveAndFlush", legacyUpdate, singleUpdate, ROWS, 1);
+
+        assertEquals(2 * ROWS, results[0].statements);
+        assertEquals(ROWS, results[1].statements);
+        Long id = insertReviews(1).get(0);
+        singleUpdate.accept(id);
+        ReviewDTO updated = reviewRepository.findProjectedById(id).orElseThrow();
+        assertEquals("Changed", updated.getComment());
+        assertEquals(1L, updated.getVersion());
+    }
+
+    @Test
+    void deletesTakeOneStatement() {
+        Result[] results = compare("delete", "existsById + deleteById", legacyDelete, singleDelete, ROWS, 1);
+
+        assertEquals(3 * ROWS, results[0].statements);
+        assertEquals(ROWS, results[1].statements);
+        Long id = insertReviews(1).get(0);
+        singleDelete.accept(id);
+        assertFalse(reviewRepository.existsById(id));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void singleStatementWritesThroughput() {
+        Result[] updates = compare("update", "findById + saveAndFlush", legacyUpdate, singleUpdate,
+                BENCHMARK_ROWS, BENCHMARK_ROUNDS);
+        Result[] deletes = compare("delete", "existsById + deleteById", legacyDelete, singleDelete,
+                BENCHMARK_ROWS, BENCHMARK_ROUNDS);
+
+        assertEquals(BENCHMARK_ROWS, updates[1].statements);
+        assertEquals(BENCHMARK_ROWS, deletes[1].statements);
+    }
+
+    @Test
+    void zeroAffectedRowsTellsNotFoundFromStaleVersion() {
+        Long id = insertReviews(1).get(0);
+        reviewService.update(id, changed(null));
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> reviewService.update(id, changed(0L)));
+        assertEquals("Changed", reviewService.update(id, changed(1L)).getComment());
+        assertThrows(RuntimeException.class, () -> reviewService.update(-1L, changed(null)));
+        assertThrows(RuntimeException.class, () -> reviewService.deleteById(-1L));
+    }
+
+    @Test
+    void deletingAnOrderRemovesItsItemsWithoutLoadingThem() {
+        Order draft = new Order("SINGLE-1", LocalDateTime.of(2024, 1, 1, 12, 0), "NEW", 0.0, "Street 1");
+        for (int i = 0; i < 3; i++) {
+            OrderItem item = new OrderItem(1, 5.0, 5.0);
+            item.setOrder(draft);
+            draft.getItems().add(item);
+        }
+        Order order = orderRepository.save(draft);
+        long items = orderItemRepository.count();
+        List<Long> itemIds = order.getItems().stream().map(OrderItem::getId).toList();
+        itemIds.forEach(orderItemService::findById);
+
+        statistics.clear();
+        orderService.deleteById(order.getId());
+        assertEquals(3, statistics.getPrepareStatementCount(), "item ids + items delete + order delete");
+        assertFalse(orderRepository.existsById(order.getId()));
+        assertEquals(items - 3, orderItemRepository.count());
+        itemIds.forEach(itemId -> assertTrue(orderItemService.findById(itemId).isEmpty(), "cached item " + itemId));
+    }
+
+    @Test
+    void deletingOrdersInBatchEvictsTheirCachedItems() {
+        Order draft = new Order("BATCH-1", LocalDateTime.of(2024, 1, 1, 12, 0), "NEW", 0.0, "Street 1");
+        for (int i = 0; i < 2; i++) {
+            OrderItem item = new OrderItem(1, 5.0, 5.0);
+            item.setOrder(draft);
+            draft.getItems().add(item);
+        }
+        Order order = orderRepository.save(draft);
+        List<Long> itemIds = order.getItems().stream().map(OrderItem::getId).toList();
+        itemIds.forEach(orderItemService::findById);
+
+        orderService.deleteAllById(List.of(order.getId()));
+        itemIds.forEach(itemId -> assertTrue(orderItemService.findById(itemId).isEmpty(), "cached item " + itemId));
+    }
+
+    @Test
+    void userWritesSkipTheEntityLoadAndRefreshLookups() {
+        UserDTO saved = userService.save(new UserDTO("single@example.com", "single", "secret", "Single", "Statement",
+                "555-0100", true));
+        assertTrue(userService.findByEmail("single@example.com").isPresent());
+
+        UserDTO changed = new UserDTO("renamed@example.com", "renamed", "secret", "Single", "Statement", "555-0100", true);
+        changed.setVersion(saved.getVersion());
+        statistics.clear();
+        UserDTO updated = userService.update(saved.getId(), changed);
+        assertEquals(2, statistics.getPrepareStatementCount(), "lookup keys + update");
+        assertEquals(saved.getId(), updated.getId());
+        assertEquals(saved.getVersion() + 1, updated.getVersion());
+        assertTrue(userService.findByEmail("single@example.com").isEmpty());
+        assertEquals(saved.getId(), userService.findByEmail("renamed@example.com").orElseThrow().getId());
+        UserDTO stale = new UserDTO("stale@example.com", "stale", "secret", "Single", "Statement", "555-0100", true);
+        stale.setVersion(saved.getVersion());
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> userService.update(saved.getId(), stale));
+
+        statistics.clear();
+        userService.deleteById(saved.getId());
+        assertEquals(2, statistics.getPrepareStatementCount(), "lookup keys + delete");
+        assertTrue(userService.findByUsername("renamed").isEmpty());
+        assertThrows(RuntimeException.class, () -> userService.deleteById(saved.getId()));
+    }
+
+    private List<Long> insertReviews(int rows) {
+        return reviewRepository.saveAll(IntStream.range(0, rows)
+                        .mapToObj(i -> new Review(i % 5 + 1, "Review " + i, LocalDateTime.of(2024, 1, 1, 12, 0)))
+                        .toList())
+                .stream()
+                .map(Review::getId)
+                .toList();
+    }
+
+    private static ReviewDTO changed(Long version) {
+        ReviewDTO dto = new ReviewDTO(4, "Changed", LocalDateTime.of(2024, 2, 1, 12, 0));
+        dto.setVersion(version);
+        return dto;
+    }
+
+    /**
+     * Rondas alternas sobre filas nuevas; de cada camino cuenta la mejor, ya con el JIT caliente.
+     *
+     * @return el mejor resultado del camino anterior y el del nuevo
+     */
+    private Result[] compare(String operation, String legacyLabel, LongConsumer legacy, LongConsumer single,
+                             int rows, int rounds) {
+        Result[] best = new Result[2];
+        for (int round = 0; round < rounds; round++) {
+            best[0] = faster(best[0], run(operation + " " + legacyLabel, insertReviews(rows), legacy));
+            best[1] = faster(best[1], run(operation + " JPQL", insertReviews(rows), single));
+            reviewRepository.deleteAllInBatch();
+        }
+        logger.info("{}: {} -> {} writes/s ({}x), {} -> {} statements per write", operation,
+                "%.0f".formatted(best[0].writesPerSecond()), "%.0f".formatted(best[1].writesPerSecond()),
+                "%.1f".formatted((double) best[0].nanos / best[1].nanos),
+                best[0].statements / rows, best[1].statements / rows);
+        return best;
+    }
+
+    private Result run(String label, List<Long> ids, LongConsumer write) {
+        statistics.clear();
+        long start = System.nanoTime();
+        ids.forEach(write::accept);
+        long nanos = System.nanoTime() - start;
+        Result result = new Result(ids.size(), nanos, statistics.getPrepareStatementCount());
+        logger.info("{}: {} writes in {} ms ({} writes/s), {} statements prepared",
+                label, ids.size(), nanos / 1_000_000, "%.0f".formatted(result.writesPerSecond()), result.statements);
+        return result;
+    }
+
+    private static Result faster(Result best, Result result) {
+        return best == null || result.nanos < best.nanos ? result : best;
+    }
+
+    private record Result(int writes, long nanos, long statements) {
+
+        double writesPerSecond() {
+            return writes / (nanos / 1e9);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+-- Test-only table for IdentityOrderItem (OrderItemInsertBenchmarkTest).
+
+create table order_item_identity (
+    id bigint generated by default as identity,
+    quantity integer,
+    unit_price double precision,
+    subtotal double precision,
+    constraint pk_order_item_identity primary key (id)
+);
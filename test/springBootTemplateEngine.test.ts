@@ -0,0 +1,27 @@
+import { SpringBootTemplateEngine } from '../src/generators/SpringBootTemplateEngine';
+import { UMLDiagramData } from '../src/utils/umlParser';
+
+describe('SpringBoot Template Engine', () => {
+
+  it('debería importar Index en entidades con índices de orden pero sin columnas de filtro', async () => {
+    const diagram: UMLDiagramData = {
+      classes: [{
+        id: 'Book_001',
+        name: 'Book',
+        attributes: [
+          { name: 'id', type: 'Long', visibility: 'private', isRequired: true },
+          { name: 'title', type: 'String', visibility: 'private', isRequired: true },
+          { name: 'summary', type: 'String', visibility: 'private' }
+        ]
+      }],
+      relationships: []
+    };
+
+    const files = await new SpringBootTemplateEngine().generateProject(diagram, { packageName: 'com.example.library' });
+    const entity = files.find(file => file.path.endsWith('/entity/Book.java'));
+
+    expect(entity).toBeDefined();
+    expect(entity!.content).toContain('@Index(name = "idx_book_title_id", columnList = "title, id")');
+    expect(entity!.content).toContain('import jakarta.persistence.Index;');
+  });
+});